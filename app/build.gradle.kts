@@ -44,6 +44,7 @@ dependencies {
     implementation("androidx.activity:activity:1.9.2")
     implementation("androidx.constraintlayout:constraintlayout:2.2.0")
     implementation("androidx.recyclerview:recyclerview:1.3.2")
+    implementation("androidx.work:work-runtime:2.9.1")
 
     // Circle Image
     implementation("de.hdodenhof:circleimageview:3.1.0")
@@ -62,6 +63,10 @@ dependencies {
     implementation("com.github.bumptech.glide:glide:4.16.0")
     annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
 
+    // Generated DataSnapshot mappers for the model classes
+    compileOnly(project(":snapshot-mapper"))
+    annotationProcessor(project(":snapshot-mapper"))
+
     // Agora Video SDK
     implementation("io.agora.rtc:full-sdk:4.6.1")
 // Cloudinary Android SDK
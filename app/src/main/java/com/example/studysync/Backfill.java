@@ -0,0 +1,145 @@
+package com.example.studysync;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Backfill
+ *
+ * One-off migrations that build the signed-in user's denormalized nodes
+ * from the data written before those nodes existed:
+ *
+ *   - userRooms: a UserRooms/{uid} entry for every room whose
+ *     members/{uid} is set
+ *   - stats: the UserStats/{uid} counters, counted from Rooms, Notes,
+ *     Messages and Tasks the way the stat tiles used to count them
+ *
+ * Each step writes its data together with a flag at
+ * Users/{uid}/backfills/{step}, in one update: it runs once per account,
+ * not once per device. A step that fails runs again on the next start.
+ */
+final class Backfill {
+
+    private static final String TAG = "Backfill";
+
+    private static final String USER_ROOMS = "userRooms";
+    private static final String STATS      = "stats";
+
+    private static String started; // uid whose steps were started in this process
+
+    private Backfill() {}
+
+    static void init() {
+        FirebaseAuth.getInstance().addAuthStateListener(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            if (user != null) run(user.getUid());
+        });
+    }
+
+    private static void run(String uid) {
+        if (uid.equals(started)) return;
+        started = uid;
+        flags(uid).get().addOnSuccessListener(done -> {
+            boolean userRooms = !done.hasChild(USER_ROOMS);
+            boolean stats     = !done.hasChild(STATS);
+            if (userRooms || stats) myRooms(uid, rooms -> {
+                if (userRooms) userRooms(uid, rooms);
+                if (stats) stats(uid, rooms);
+            });
+        }).addOnFailureListener(e -> Log.w(TAG, "Could not read backfill flags", e));
+    }
+
+    private static DatabaseReference flags(String uid) {
+        return FirebaseRepositories.root().child("Users").child(uid).child("backfills");
+    }
+
+    private static String flagPath(String uid, String step) {
+        return "Users/" + uid + "/backfills/" + step;
+    }
+
+    // ── Steps ──────────────────────────────────────────────────────────────────
+
+    // members/{uid} can't be indexed for every uid, so the Rooms tree is
+    // filtered on the device: expensive, but only this once per account
+    private static void myRooms(String uid, Callback<DataSnapshot> then) {
+        FirebaseRepositories.root().child("Rooms")
+                .orderByChild("members/" + uid).equalTo(true)
+                .get().addOnSuccessListener(then::onResult)
+                .addOnFailureListener(e -> Log.w(TAG, "Could not read Rooms", e));
+    }
+
+    private static void userRooms(String uid, DataSnapshot rooms) {
+        Map<String, Object> updates = new HashMap<>();
+        for (DataSnapshot room : rooms.getChildren()) {
+            UserRoomsIndex.putExisting(updates, room, uid);
+        }
+        updates.put(flagPath(uid, USER_ROOMS), ServerValue.TIMESTAMP);
+        commit(USER_ROOMS, updates);
+    }
+
+    /**
+     * Counters are set outright, except pomodoroSessions: the old count at
+     * Users/{uid}/pomodoroSessions is added to the sessions counted since.
+     */
+    private static void stats(String uid, DataSnapshot rooms) {
+        DatabaseReference root = FirebaseRepositories.root();
+        Tasks.<DataSnapshot>whenAllSuccess(
+                root.child("Notes").get(),
+                root.child("Messages").get(),
+                root.child("Tasks").child(uid).get(),
+                root.child("Users").child(uid).child(UserStats.POMODORO_SESSIONS).get()
+        ).addOnSuccessListener(trees -> {
+            DataSnapshot notes    = trees.get(0);
+            DataSnapshot messages = trees.get(1);
+            DataSnapshot tasks    = trees.get(2);
+            DataSnapshot sessions = trees.get(3);
+
+            long completed = 0;
+            for (DataSnapshot task : tasks.getChildren()) {
+                if (Boolean.TRUE.equals(task.child("completed").getValue(Boolean.class))) {
+                    completed++;
+                }
+            }
+            Long oldSessions = sessions.getValue(Long.class);
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(UserStats.path(uid, UserStats.ROOMS), rooms.getChildrenCount());
+            updates.put(UserStats.path(uid, UserStats.NOTES_UPLOADED),
+                    countBy(notes, "uploaderId", uid));
+            updates.put(UserStats.path(uid, UserStats.MESSAGES_SENT),
+                    countBy(messages, "senderId", uid));
+            updates.put(UserStats.path(uid, UserStats.TASKS_COMPLETED), completed);
+            UserStats.putIncrement(updates, uid, UserStats.POMODORO_SESSIONS,
+                    oldSessions != null ? oldSessions : 0);
+            updates.put(flagPath(uid, STATS), ServerValue.TIMESTAMP);
+            commit(STATS, updates);
+        }).addOnFailureListener(e -> Log.w(TAG, "Could not read the counted trees", e));
+    }
+
+    /** Children of Notes or Messages, over every room, whose field equals uid. */
+    private static long countBy(DataSnapshot tree, String field, String uid) {
+        long count = 0;
+        for (DataSnapshot room : tree.getChildren()) {
+            for (DataSnapshot item : room.getChildren()) {
+                if (uid.equals(item.child(field).getValue(String.class))) count++;
+            }
+        }
+        return count;
+    }
+
+    private static void commit(String step, Map<String, Object> updates) {
+        FirebaseRepositories.root().updateChildren(updates)
+                .addOnSuccessListener(aVoid -> Log.i(TAG, step + ": "
+                        + (updates.size() - 1) + " paths written"))
+                .addOnFailureListener(e -> Log.w(TAG, step + " failed", e));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.studysync;
+
+/**
+ * One-shot or repeating result from a repository.
+ * Always delivered on the main thread.
+ */
+public interface Callback<T> {
+
+    void onResult(T value);
+
+    default void onError(String message) {}
+}
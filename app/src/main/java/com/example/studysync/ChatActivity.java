@@ -2,6 +2,7 @@ package com.example.studysync;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -11,12 +12,8 @@ import android.widget.EditText;
 import android.widget.Toast;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.*;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class ChatActivity extends AppCompatActivity {
 
@@ -25,10 +22,13 @@ public class ChatActivity extends AppCompatActivity {
     private Button btnSend;
 
     private ChatAdapter chatAdapter;
-    private List<ChatMessage> messagesList;
+    private LinearLayoutManager layoutManager;
+    private ChatFeed chatFeed;
+    private ModelPipeline.Lane<List<ChatMessage>, List<ChatAdapter.Row>> rows;
+    private boolean scrollToEnd = false;
 
     private String roomCode;
-    private DatabaseReference messagesRef;
+    private final MessageRepository messages = Repositories.messages();
     private FirebaseAuth auth;
     private String currentUserName = "User";
 
@@ -50,16 +50,13 @@ public class ChatActivity extends AppCompatActivity {
             return;
         }
 
-        messagesRef = FirebaseDatabase.getInstance()
-                .getReference("Messages").child(roomCode);
-
-        messagesList = new ArrayList<>();
-
         // Pass delete callback — removes message from Firebase for everyone
-        chatAdapter = new ChatAdapter(this, messagesList, this::deleteMessage);
+        chatAdapter = new ChatAdapter(this, this::deleteMessage);
 
-        rvChat.setLayoutManager(new LinearLayoutManager(this));
-        rvChat.setAdapter(chatAdapter);
+        layoutManager = new LinearLayoutManager(this);
+        layoutManager.setStackFromEnd(true);
+        rvChat.setLayoutManager(layoutManager);
+        chatAdapter.attachTo(rvChat, this);
 
         loadCurrentUserName();
         loadMessages();
@@ -71,73 +68,115 @@ public class ChatActivity extends AppCompatActivity {
 
     private void loadCurrentUserName() {
         String uid = auth.getCurrentUser().getUid();
-        FirebaseDatabase.getInstance().getReference("Users").child(uid)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        String name = snapshot.child("name").getValue(String.class);
-                        if (name != null && !name.isEmpty()) {
-                            currentUserName = name;
-                        } else {
-                            String email = auth.getCurrentUser().getEmail();
-                            if (email != null) currentUserName = email.split("@")[0];
-                        }
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        String email = auth.getCurrentUser().getEmail();
-                        if (email != null) currentUserName = email.split("@")[0];
-                    }
-                });
+        UserProfileCache.get().get(uid, user -> {
+            if (user != null && user.name != null && !user.name.isEmpty()) {
+                currentUserName = user.name;
+            } else {
+                String email = auth.getCurrentUser().getEmail();
+                if (email != null) currentUserName = email.split("@")[0];
+            }
+        });
     }
 
     // ─── Load messages ────────────────────────────────────────────────────────
 
+    /**
+     * The last screenful is rendered from the on-device cache, then only the
+     * newest page (or what's newer than the cache) is downloaded; older pages
+     * are fetched as the user scrolls up (see ChatFeed). Each new message
+     * still arrives as a single child event and rebinds a single row.
+     */
     private void loadMessages() {
-        messagesRef.addValueEventListener(new ValueEventListener() {
+        rows = ModelPipeline.get().lane(new ChatAdapter.RowMapper(), this::submitRows);
+        chatFeed = new ChatFeed(messages, ChatCache.get(this), roomCode,
+                ContextCompat.getMainExecutor(this), new ChatFeed.Listener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                messagesList.clear();
-                for (DataSnapshot msgSnap : snapshot.getChildren()) {
-                    ChatMessage msg = msgSnap.getValue(ChatMessage.class);
-                    if (msg != null) {
-                        msg.setMessageId(msgSnap.getKey()); // store Firebase key for deletion
-                        messagesList.add(msg);
-                    }
-                }
-                chatAdapter.notifyDataSetChanged();
-                if (!messagesList.isEmpty()) {
-                    rvChat.smoothScrollToPosition(messagesList.size() - 1);
-                }
+            public void onMessagesChanged(List<ChatMessage> messages, boolean appendedAtEnd) {
+                if (appendedAtEnd && isNearBottom()) scrollToEnd = true;
+                rows.submit(messages);
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(ChatActivity.this,
-                        "Failed to load messages", Toast.LENGTH_SHORT).show();
+            public void onError(String message) {
+                Toast.makeText(ChatActivity.this, message, Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        rvChat.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                chatFeed.onViewportChanged(
+                        layoutManager.findFirstVisibleItemPosition(),
+                        layoutManager.findLastVisibleItemPosition());
+            }
+        });
+
+        // The feed keeps incremental state, so it lives as long as the screen
+        ListenerRegistry.untilDestroyed(this, () -> {
+            chatFeed.start();
+            return () -> {
+                chatFeed.stop();
+                rows.close();
+            };
+        });
+    }
+
+    private boolean isNearBottom() {
+        int last = layoutManager.findLastVisibleItemPosition();
+        return last == RecyclerView.NO_POSITION
+                || last >= chatAdapter.getItemCount() - 3;
+    }
+
+    /**
+     * Rows arrive formatted from the ModelPipeline; a burst of feed updates
+     * (e.g. the onChildAdded calls on first load) only maps and diffs the
+     * newest list.
+     */
+    private void submitRows(List<ChatAdapter.Row> list) {
+        boolean scroll = scrollToEnd;
+        scrollToEnd = false;
+        chatAdapter.submit(list, () -> {
+            if (scroll && chatAdapter.getItemCount() > 0) {
+                rvChat.smoothScrollToPosition(chatAdapter.getItemCount() - 1);
             }
         });
     }
 
     // ─── Send message ─────────────────────────────────────────────────────────
 
+    /**
+     * The message is shown straight away under the push key the write will
+     * use; the database's echo for that key replaces it in place, and the
+     * server's answer clears or sets its pending / failed mark.
+     */
     private void sendMessage() {
         String text = etMessage.getText().toString().trim();
         if (text.isEmpty()) return;
 
-        String senderId = auth.getCurrentUser().getUid();
+        String key = messages.newKey(roomCode);
+        if (key == null) {
+            Toast.makeText(this, "Failed to send", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        ChatMessage message = new ChatMessage(
+                auth.getCurrentUser().getUid(), currentUserName, text, ServerClock.get().now());
+        message.setMessageId(key);
 
-        Map<String, Object> message = new HashMap<>();
-        message.put("senderId",   senderId);
-        message.put("senderName", currentUserName);
-        message.put("text",       text);
-        message.put("timestamp",  ServerValue.TIMESTAMP);
+        etMessage.setText("");
+        scrollToEnd = true;
+        chatFeed.addPending(message);
+
+        messages.send(roomCode, message, new Callback<Void>() {
+            @Override
+            public void onResult(Void value) {
+                chatFeed.markSent(key);
+            }
 
-        messagesRef.push().setValue(message)
-                .addOnSuccessListener(aVoid -> etMessage.setText(""))
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Failed to send", Toast.LENGTH_SHORT).show());
+            @Override
+            public void onError(String error) {
+                chatFeed.markFailed(key);
+            }
+        });
     }
 
     // ─── Delete message for everyone ──────────────────────────────────────────
@@ -147,10 +186,21 @@ public class ChatActivity extends AppCompatActivity {
             Toast.makeText(this, "Cannot delete this message", Toast.LENGTH_SHORT).show();
             return;
         }
-        messagesRef.child(msg.getMessageId()).removeValue()
-                .addOnSuccessListener(aVoid ->
-                        Toast.makeText(this, "Message deleted", Toast.LENGTH_SHORT).show())
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Failed to delete", Toast.LENGTH_SHORT).show());
+        if (msg.getSendState() == ChatMessage.FAILED) {
+            chatFeed.removeLocal(msg.getMessageId()); // never reached the server
+            return;
+        }
+        messages.delete(roomCode, msg, new Callback<Void>() {
+            @Override
+            public void onResult(Void value) {
+                chatFeed.removeLocal(msg.getMessageId());
+                Toast.makeText(ChatActivity.this, "Message deleted", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(ChatActivity.this, "Failed to delete", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
-}
\ No newline at end of file
+}
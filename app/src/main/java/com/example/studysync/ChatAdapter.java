@@ -13,32 +13,111 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 
-public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder> {
+/**
+ * Chat rows keyed by push key — submit() diffs on a background thread and
+ * only rebinds the rows whose message actually changed; a send-state change
+ * only rebinds the time line. Rows are built on the ModelPipeline with their
+ * time string already formatted.
+ */
+public class ChatAdapter extends DiffingAdapter<ChatAdapter.Row, ChatAdapter.ChatViewHolder> {
 
     public interface OnDeleteMessageListener {
         void onDelete(ChatMessage message);
     }
 
+    /** One message as shown; immutable. */
+    public static final class Row {
+        final ChatMessage message;
+        final String time; // includes the send state
+
+        public Row(ChatMessage message) {
+            this.message = message;
+            switch (message.getSendState()) {
+                case ChatMessage.PENDING:
+                    time = DisplayFormats.time(message.getTimestamp()) + " · Sending…";
+                    break;
+                case ChatMessage.FAILED:
+                    time = "Not sent · hold to discard";
+                    break;
+                default:
+                    time = DisplayFormats.time(message.getTimestamp());
+            }
+        }
+    }
+
+    /**
+     * Builds the rows for a feed update on the pipeline thread. Rows are kept
+     * per message instance, so only messages that are new or changed since
+     * the last update are formatted.
+     */
+    public static final class RowMapper implements ModelPipeline.Mapper<List<ChatMessage>, List<Row>> {
+        private Map<ChatMessage, Row> previous = new IdentityHashMap<>();
+
+        @Override
+        public List<Row> map(List<ChatMessage> messages) {
+            Map<ChatMessage, Row> current = new IdentityHashMap<>(messages.size() * 2);
+            List<Row> rows = new ArrayList<>(messages.size());
+            for (ChatMessage msg : messages) {
+                Row row = previous.get(msg);
+                if (row == null) row = new Row(msg);
+                current.put(msg, row);
+                rows.add(row);
+            }
+            previous = current;
+            return rows;
+        }
+    }
+
+    private static final Object PAYLOAD_SEND_STATE = new Object();
+
+    private static final int   TIME_COLOR    = 0xFF9E9E9E; // matches item_chat.xml
+    private static final int   FAILED_COLOR  = 0xFFE57373;
+    private static final float PENDING_ALPHA = 0.6f;
+
     private final Context context;
-    private final List<ChatMessage> messages;
     private final String currentUserId;
     private final OnDeleteMessageListener deleteListener;
 
-    public ChatAdapter(Context context, List<ChatMessage> messages,
-                       OnDeleteMessageListener deleteListener) {
+    public ChatAdapter(Context context, OnDeleteMessageListener deleteListener) {
+        super(R.layout.item_chat);
         this.context        = context;
-        this.messages       = messages;
         this.deleteListener = deleteListener;
         this.currentUserId  = Objects.requireNonNull(
                 FirebaseAuth.getInstance().getCurrentUser()).getUid();
     }
 
+    // ── Diffing ────────────────────────────────────────────────────────────────
+
+    @Override
+    protected String keyOf(Row row) {
+        return row.message.getMessageId();
+    }
+
+    @Override
+    protected boolean sameContents(Row a, Row b) {
+        return a.message.getSendState() == b.message.getSendState()
+                && a.time.equals(b.time)
+                && sameText(a, b);
+    }
+
+    // The local echo being confirmed or failing only changes the time line
+    @Override
+    protected Object changePayload(Row a, Row b) {
+        return sameText(a, b) ? PAYLOAD_SEND_STATE : null;
+    }
+
+    private static boolean sameText(Row a, Row b) {
+        return Objects.equals(a.message.getText(), b.message.getText())
+                && Objects.equals(a.message.getSenderName(), b.message.getSenderName())
+                && Objects.equals(a.message.getSenderId(), b.message.getSenderId());
+    }
+
     @NonNull
     @Override
     public ChatViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -49,35 +128,57 @@ public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull ChatViewHolder holder, int position) {
-        ChatMessage msg = messages.get(position);
+        Row row = getItem(position);
+        ChatMessage msg = row.message;
 
         holder.tvSenderName.setText(msg.getSenderName());
         holder.tvMessage.setText(msg.getText());
-
-        SimpleDateFormat sdf = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-        holder.tvTime.setText(sdf.format(new Date(msg.getTimestamp())));
+        bindSendState(holder, row);
 
         // ── FIX: Remove blue background — use transparent so item_chat.xml controls styling
         holder.itemView.setBackgroundColor(
                 context.getResources().getColor(android.R.color.transparent));
 
         // ── Long-press → delete option (only for own messages) ───────────────
-        boolean isOwn = currentUserId.equals(msg.getSenderId());
-
+        // Reads the row at press time: a send-state rebind doesn't reach here
         holder.itemView.setOnLongClickListener(v -> {
-            if (!isOwn) {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos == RecyclerView.NO_POSITION) return true;
+            ChatMessage current = getItem(pos).message;
+            if (!currentUserId.equals(current.getSenderId())) {
                 Toast.makeText(context, "You can only delete your own messages",
                         Toast.LENGTH_SHORT).show();
                 return true;
             }
-            showDeleteDialog(msg);
+            if (current.getSendState() == ChatMessage.FAILED) showDiscardDialog(current);
+            else showDeleteDialog(current);
             return true;
         });
     }
 
     @Override
-    public int getItemCount() {
-        return messages.size();
+    protected void onBindPayloads(@NonNull ChatViewHolder holder, int position,
+                                  @NonNull List<Object> payloads) {
+        bindSendState(holder, getItem(position));
+    }
+
+    // ── Local echo: sending / not sent ────────────────────────────────────────
+    private void bindSendState(ChatViewHolder holder, Row row) {
+        holder.tvTime.setText(row.time);
+        int state = row.message.getSendState();
+        holder.tvTime.setTextColor(state == ChatMessage.FAILED ? FAILED_COLOR : TIME_COLOR);
+        holder.itemView.setAlpha(state == ChatMessage.PENDING ? PENDING_ALPHA : 1f);
+    }
+
+    private void showDiscardDialog(ChatMessage msg) {
+        new AlertDialog.Builder(context)
+                .setTitle("Message not sent")
+                .setMessage("The server rejected this message. Remove it from the chat?")
+                .setPositiveButton("Discard", (dialog, which) -> {
+                    if (deleteListener != null) deleteListener.onDelete(msg);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
     }
 
     private void showDeleteDialog(ChatMessage msg) {
@@ -0,0 +1,166 @@
+package com.example.studysync;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ChatCache
+ *
+ * SQLite-backed MessageCache. One row per message, primary key
+ * (room, push key), so lookups of "newest N in a room" are an index scan.
+ *
+ *   - at most MAX_MESSAGES_PER_ROOM rows per room; older rows are trimmed
+ *     in the same transaction as the insert
+ *   - all disk I/O runs on one background thread, results come back on the
+ *     main thread
+ *
+ * ChatFeed renders the cached screenful on open and only fetches what is
+ * newer than the last cached key.
+ */
+public class ChatCache extends SQLiteOpenHelper implements MessageCache {
+
+    private static final String TAG = "ChatCache";
+
+    private static final String DB_NAME    = "chat_cache.db";
+    private static final int    DB_VERSION = 1;
+
+    static final int MAX_MESSAGES_PER_ROOM = 300;
+
+    private static final String TABLE = "messages";
+
+    private static ChatCache instance;
+
+    public static synchronized ChatCache get(Context context) {
+        if (instance == null) instance = new ChatCache(context.getApplicationContext());
+        return instance;
+    }
+
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private ChatCache(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + "room TEXT NOT NULL, "
+                + "msg_key TEXT NOT NULL, "
+                + "sender_id TEXT, "
+                + "sender_name TEXT, "
+                + "text TEXT, "
+                + "timestamp INTEGER NOT NULL, "
+                + "PRIMARY KEY (room, msg_key)) WITHOUT ROWID");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only a cache — start over
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        onCreate(db);
+    }
+
+    // ── Reads ──────────────────────────────────────────────────────────────────
+
+    @Override
+    public void loadLatest(String roomCode, int limit, Callback<List<ChatMessage>> callback) {
+        io.execute(() -> {
+            List<ChatMessage> list = new ArrayList<>();
+            try (Cursor c = getReadableDatabase().query(TABLE,
+                    new String[]{"msg_key", "sender_id", "sender_name", "text", "timestamp"},
+                    "room = ?", new String[]{roomCode},
+                    null, null, "msg_key DESC", String.valueOf(limit))) {
+                while (c.moveToNext()) {
+                    ChatMessage msg = new ChatMessage(
+                            c.getString(1), c.getString(2), c.getString(3), c.getLong(4));
+                    msg.setMessageId(c.getString(0));
+                    list.add(0, msg);
+                }
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Cache read failed", e);
+                list.clear();
+            }
+            mainHandler.post(() -> callback.onResult(list));
+        });
+    }
+
+    // ── Writes ─────────────────────────────────────────────────────────────────
+
+    @Override
+    public void putAll(String roomCode, List<ChatMessage> messages) {
+        if (messages.isEmpty()) return;
+        List<ChatMessage> batch = new ArrayList<>(messages);
+        io.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                ContentValues values = new ContentValues();
+                for (ChatMessage msg : batch) {
+                    if (msg.getMessageId() == null) continue;
+                    values.clear();
+                    values.put("room",        roomCode);
+                    values.put("msg_key",     msg.getMessageId());
+                    values.put("sender_id",   msg.getSenderId());
+                    values.put("sender_name", msg.getSenderName());
+                    values.put("text",        msg.getText());
+                    values.put("timestamp",   msg.getTimestamp());
+                    db.insertWithOnConflict(TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                trim(db, roomCode);
+                db.setTransactionSuccessful();
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Cache write failed", e);
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    @Override
+    public void remove(String roomCode, String key) {
+        io.execute(() -> getWritableDatabase().delete(TABLE,
+                "room = ? AND msg_key = ?", new String[]{roomCode, key}));
+    }
+
+    @Override
+    public void clearRoom(String roomCode) {
+        io.execute(() -> getWritableDatabase().delete(TABLE,
+                "room = ?", new String[]{roomCode}));
+    }
+
+    @Override
+    public void clearAll() {
+        io.execute(() -> getWritableDatabase().delete(TABLE, null, null));
+    }
+
+    /** Keeps only the newest MAX_MESSAGES_PER_ROOM rows of a room. */
+    private static void trim(SQLiteDatabase db, String roomCode) {
+        SQLiteStatement oldestKept = db.compileStatement("SELECT msg_key FROM " + TABLE
+                + " WHERE room = ? ORDER BY msg_key DESC LIMIT 1 OFFSET "
+                + (MAX_MESSAGES_PER_ROOM - 1));
+        oldestKept.bindString(1, roomCode);
+        String cutoff;
+        try {
+            cutoff = oldestKept.simpleQueryForString();
+        } catch (SQLiteDoneException e) {
+            return; // fewer rows than the cap
+        } finally {
+            oldestKept.close();
+        }
+        db.delete(TABLE, "room = ? AND msg_key < ?", new String[]{roomCode, cutoff});
+    }
+}
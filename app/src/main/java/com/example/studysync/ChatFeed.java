@@ -0,0 +1,521 @@
+package com.example.studysync;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * ChatFeed
+ *
+ * Paged view over Messages/{roomCode}. Opening a room only downloads the
+ * newest PAGE_SIZE messages, so time-to-first-message does not depend on
+ * how long the history is.
+ *
+ *   pages  — history pages fetched with endBefore()/startAfter(), oldest first
+ *   tail   — messages from the live orderByKey().limitToLast(PAGE_SIZE) query
+ *
+ * With a MessageCache the feed first renders the cached screenful, then
+ * fetches what is newer than the last cached key and stays live with a
+ * startAt() listener from the first cached key, so edits and deletes of
+ * cached messages are seen too; cached messages missing from its first
+ * delivery were deleted meanwhile and are dropped. If more than a page
+ * arrived since, the cached screenful is dropped and the feed falls back to
+ * the limitToLast window. Everything received from the network is written
+ * back to the cache.
+ *
+ * Own messages are shown as soon as they are sent (addPending), under the
+ * push key the write will use. The database's child event for that key then
+ * replaces the row in place with the server-timestamped copy; it keeps the
+ * PENDING mark until markSent(), and a rejected send stays where it was,
+ * marked FAILED (markFailed), even after the database drops its echo.
+ *
+ * The feed is driven by the viewport: ChatActivity reports the visible range
+ * and the feed back-fills older pages near the top, re-fetches newer pages
+ * that were evicted, and drops pages that are far from what is on screen.
+ *
+ * Plain Java over MessageRepository: the app passes the main-thread executor,
+ * tests drive it with the in-memory backend and a direct executor.
+ */
+public class ChatFeed {
+
+    public interface Listener {
+        /** @param appendedAtEnd a new message arrived at the bottom of the list */
+        void onMessagesChanged(List<ChatMessage> messages, boolean appendedAtEnd);
+        void onError(String message);
+    }
+
+    static final int PAGE_SIZE          = 30;
+    static final int PREFETCH_DISTANCE  = 10; // rows from an edge that trigger a fetch
+    static final int PAGES_AROUND_VIEW  = 2;  // history pages kept on each side of the viewport
+
+    private final MessageRepository repository;
+    private final MessageCache cache; // may be null
+    private final String roomCode;
+    private final Listener listener;
+    private final Executor deferred; // runs a task after the current batch of events
+
+    private final List<List<ChatMessage>> pages = new ArrayList<>();
+    private final List<ChatMessage> tail = new ArrayList<>();
+
+    private Registration tailRegistration;
+    private String pendingRemovalKey;
+    private boolean stopped;
+
+    private final Map<String, ChatMessage> unconfirmed = new HashMap<>(); // own sends by push key
+
+    private final List<ChatMessage> unsaved = new ArrayList<>();
+    private boolean saveScheduled;
+
+    private boolean reachedStart;   // nothing older than pages.get(0) exists
+    private boolean gapBeforeTail;  // newer history pages were evicted
+    private boolean loadingOlder, loadingNewer;
+
+    public ChatFeed(MessageRepository repository, MessageCache cache, String roomCode,
+                    Executor deferred, Listener listener) {
+        this.repository = repository;
+        this.cache      = cache;
+        this.roomCode   = roomCode;
+        this.deferred   = deferred;
+        this.listener   = listener;
+    }
+
+    // ── Lifecycle ──────────────────────────────────────────────────────────────
+
+    public void start() {
+        stopped = false;
+        if (cache == null) {
+            observeWindow();
+            return;
+        }
+        cache.loadLatest(roomCode, PAGE_SIZE, cached -> {
+            if (stopped) return;
+            if (cached.isEmpty()) {
+                observeWindow();
+                return;
+            }
+            tail.addAll(cached);
+            publish(true);
+            catchUp(cached);
+        });
+    }
+
+    /** Fetches what was posted after the cached screenful, then goes live. */
+    private void catchUp(List<ChatMessage> cached) {
+        String lastCachedKey = cached.get(cached.size() - 1).getMessageId();
+        repository.loadAfter(roomCode, lastCachedKey, PAGE_SIZE, new Callback<List<ChatMessage>>() {
+            @Override
+            public void onResult(List<ChatMessage> newer) {
+                if (stopped) return;
+                if (newer.size() >= PAGE_SIZE) {
+                    // Too far behind — the cached screenful isn't worth stitching
+                    tail.clear();
+                    observeWindow();
+                    return;
+                }
+                for (ChatMessage msg : newer) upsertTail(msg);
+                remember(newer);
+                if (!newer.isEmpty()) publish(true);
+                observeFrom(cached);
+            }
+
+            @Override
+            public void onError(String message) {
+                if (!stopped) observeWindow(); // offline: keep the cached screenful
+            }
+        });
+    }
+
+    private void observeWindow() {
+        tailRegistration = repository.observeLatest(roomCode, PAGE_SIZE,
+                new ChildListener<ChatMessage>() {
+            @Override
+            public void onAdded(String key, ChatMessage msg) {
+                resolvePendingRemoval(key);
+                boolean atEnd = upsertTail(msg);
+                remember(msg);
+                publish(atEnd);
+            }
+
+            @Override
+            public void onChanged(String key, ChatMessage msg) {
+                upsertTail(msg);
+                remember(msg);
+                publish(false);
+            }
+
+            @Override
+            public void onRemoved(String key) {
+                if (isFailed(key)) return; // the database dropped its echo; keep ours
+                // A limitToLast window also reports "removed" when a new message
+                // pushes its oldest child out. Decide once the rest of this
+                // server update has been delivered — see resolvePendingRemoval().
+                if (pendingRemovalKey != null) removeEverywhere(pendingRemovalKey);
+                pendingRemovalKey = key;
+                deferred.execute(() -> {
+                    if (!stopped && pendingRemovalKey != null) {
+                        removeEverywhere(pendingRemovalKey);
+                        pendingRemovalKey = null;
+                        publish(false);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String message) {
+                listener.onError("Failed to load messages");
+            }
+        });
+    }
+
+    /**
+     * Live from the first cached key. Its first delivery holds every message
+     * still there, so cached ones it leaves out were deleted while the room
+     * was closed. Offline nothing is delivered and the cache is kept.
+     */
+    private void observeFrom(List<ChatMessage> cached) {
+        Set<String> delivered = new HashSet<>();
+        tailRegistration = repository.observeFrom(roomCode, cached.get(0).getMessageId(),
+                new ChildListener<ChatMessage>() {
+            @Override
+            public void onAdded(String key, ChatMessage msg) {
+                if (delivered.isEmpty()) deferred.execute(() -> dropDeleted(cached, delivered));
+                delivered.add(key);
+                boolean atEnd = upsertTail(msg);
+                remember(msg);
+                trimTail();
+                publish(atEnd);
+            }
+
+            @Override
+            public void onChanged(String key, ChatMessage msg) {
+                upsertTail(msg);
+                remember(msg);
+                publish(false);
+            }
+
+            @Override
+            public void onRemoved(String key) {
+                // No window here — every removal is a real delete
+                if (isFailed(key)) return;
+                if (removeEverywhere(key)) publish(false);
+            }
+
+            @Override
+            public void onError(String message) {
+                listener.onError("Failed to load messages");
+            }
+        });
+    }
+
+    /** Drops the cached messages the listener's first delivery left out. */
+    private void dropDeleted(List<ChatMessage> cached, Set<String> delivered) {
+        if (stopped) return;
+        boolean changed = false;
+        for (ChatMessage msg : cached) {
+            String key = msg.getMessageId();
+            if (delivered.contains(key) || unconfirmed.containsKey(key)) continue;
+            changed |= removeEverywhere(key);
+        }
+        if (changed) publish(false);
+    }
+
+    public void stop() {
+        stopped = true;
+        if (tailRegistration != null) {
+            tailRegistration.remove();
+            tailRegistration = null;
+        }
+    }
+
+    // ── Viewport ───────────────────────────────────────────────────────────────
+
+    /** Called from the RecyclerView scroll listener with the visible range. */
+    public void onViewportChanged(int firstVisible, int lastVisible) {
+        if (firstVisible < 0) return;
+
+        if (firstVisible < PREFETCH_DISTANCE) loadOlder();
+        if (gapBeforeTail && lastVisible >= historySize() - PREFETCH_DISTANCE) loadNewer();
+
+        evictFarPages(firstVisible, lastVisible);
+    }
+
+    private void loadOlder() {
+        if (loadingOlder || reachedStart) return;
+        String oldestKey = oldestKey();
+        if (oldestKey == null) return;
+
+        loadingOlder = true;
+        repository.loadBefore(roomCode, oldestKey, PAGE_SIZE, new Callback<List<ChatMessage>>() {
+            @Override
+            public void onResult(List<ChatMessage> page) {
+                loadingOlder = false;
+                if (stopped) return;
+                if (page.size() < PAGE_SIZE) reachedStart = true;
+                remember(page);
+                if (page.isEmpty() || !oldestKey.equals(oldestKey())) return;
+                pages.add(0, new ArrayList<>(page));
+                publish(false);
+            }
+
+            @Override
+            public void onError(String message) {
+                loadingOlder = false;
+            }
+        });
+    }
+
+    private void loadNewer() {
+        if (loadingNewer || pages.isEmpty()) return;
+        List<ChatMessage> lastPage = pages.get(pages.size() - 1);
+        String afterKey = lastPage.get(lastPage.size() - 1).getMessageId();
+
+        loadingNewer = true;
+        repository.loadAfter(roomCode, afterKey, PAGE_SIZE, new Callback<List<ChatMessage>>() {
+            @Override
+            public void onResult(List<ChatMessage> result) {
+                loadingNewer = false;
+                if (stopped || !gapBeforeTail) return;
+                remember(result);
+                String tailStart = tail.isEmpty() ? null : tail.get(0).getMessageId();
+                List<ChatMessage> page = new ArrayList<>();
+                boolean joined = result.size() < PAGE_SIZE;
+                for (ChatMessage msg : result) {
+                    if (tailStart != null && msg.getMessageId().compareTo(tailStart) >= 0) {
+                        joined = true; // reached the live tail
+                        break;
+                    }
+                    page.add(msg);
+                }
+                if (!page.isEmpty()) pages.add(page);
+                if (joined) gapBeforeTail = false;
+                publish(false);
+            }
+
+            @Override
+            public void onError(String message) {
+                loadingNewer = false;
+            }
+        });
+    }
+
+    /** Drops history pages more than PAGES_AROUND_VIEW pages away from the viewport. */
+    private void evictFarPages(int firstVisible, int lastVisible) {
+        int firstPage = pageIndexAt(firstVisible);
+        int lastPage  = pageIndexAt(lastVisible);
+        boolean changed = false;
+
+        // Far below the viewport — only history pages, the tail stays live
+        int keepUntil = (lastPage < 0 ? pages.size() - 1 : lastPage) + PAGES_AROUND_VIEW;
+        while (lastPage >= 0 && pages.size() - 1 > keepUntil) {
+            pages.remove(pages.size() - 1);
+            gapBeforeTail = true;
+            changed = true;
+        }
+        // Far above the viewport
+        int dropAbove = (firstPage < 0 ? pages.size() : firstPage) - PAGES_AROUND_VIEW;
+        for (int i = 0; i < dropAbove && !pages.isEmpty(); i++) {
+            pages.remove(0);
+            reachedStart = false;
+            changed = true;
+        }
+        if (changed) publish(false);
+    }
+
+    // ── Local edits ────────────────────────────────────────────────────────────
+
+    /** Deletions inside history pages aren't observed live — apply our own. */
+    public void removeLocal(String key) {
+        unconfirmed.remove(key);
+        if (removeEverywhere(key)) publish(false);
+    }
+
+    /** Shows a message the user just sent; msg must carry its push key. */
+    public void addPending(ChatMessage msg) {
+        ChatMessage pending = msg.withSendState(ChatMessage.PENDING);
+        unconfirmed.put(pending.getMessageId(), pending);
+        publish(upsertTail(pending));
+    }
+
+    /** The server accepted the message — drop the pending mark. */
+    public void markSent(String key) {
+        if (unconfirmed.remove(key) == null) return;
+        ChatMessage shown = find(key);
+        if (shown != null && shown.getSendState() != ChatMessage.SENT) {
+            replace(key, shown.withSendState(ChatMessage.SENT));
+            publish(false);
+        }
+    }
+
+    /** The server rejected the message — keep it in place, marked. */
+    public void markFailed(String key) {
+        ChatMessage local = unconfirmed.get(key);
+        if (local == null) return;
+        unconfirmed.put(key, local.withSendState(ChatMessage.FAILED));
+        ChatMessage shown = find(key);
+        if (shown != null) {
+            replace(key, shown.withSendState(ChatMessage.FAILED));
+        } else {
+            upsertTail(unconfirmed.get(key)); // the echo was already rolled back
+        }
+        publish(false);
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    private void resolvePendingRemoval(String addedKey) {
+        if (pendingRemovalKey == null) return;
+        // Window slid forward (newer child added): the old child still exists,
+        // it just left the live window. Otherwise the removal was real and an
+        // older child slid into the window to replace it.
+        if (addedKey.compareTo(pendingRemovalKey) < 0) removeEverywhere(pendingRemovalKey);
+        pendingRemovalKey = null;
+        trimTail();
+    }
+
+    /** Moves older tail messages into history once they pile up. */
+    private void trimTail() {
+        if (tail.size() < PAGE_SIZE * 2) return;
+        List<ChatMessage> page = new ArrayList<>(tail.subList(0, PAGE_SIZE));
+        tail.subList(0, PAGE_SIZE).clear();
+        if (!gapBeforeTail) pages.add(page); // otherwise re-fetched by loadNewer()
+    }
+
+    private boolean isFailed(String key) {
+        ChatMessage local = unconfirmed.get(key);
+        return local != null && local.getSendState() == ChatMessage.FAILED;
+    }
+
+    /** @return true if the message became the newest one */
+    private boolean upsertTail(ChatMessage msg) {
+        ChatMessage local = unconfirmed.get(msg.getMessageId());
+        if (local != null && local != msg) {
+            msg = msg.withSendState(local.getSendState()); // server copy, still unconfirmed
+        }
+        int pos = search(tail, msg.getMessageId());
+        if (pos >= 0) {
+            tail.set(pos, msg);
+            return false;
+        }
+        // A delete inside the live window slides an older message back in;
+        // it may already be shown from a history page
+        if (find(msg.getMessageId()) != null) {
+            replace(msg.getMessageId(), msg);
+            return false;
+        }
+        int insertAt = -pos - 1;
+        tail.add(insertAt, msg);
+        return insertAt == tail.size() - 1;
+    }
+
+    /** The loaded message with this key, or null. */
+    private ChatMessage find(String key) {
+        int pos = search(tail, key);
+        if (pos >= 0) return tail.get(pos);
+        for (List<ChatMessage> page : pages) {
+            pos = search(page, key);
+            if (pos >= 0) return page.get(pos);
+        }
+        return null;
+    }
+
+    private void replace(String key, ChatMessage msg) {
+        int pos = search(tail, key);
+        if (pos >= 0) {
+            tail.set(pos, msg);
+            return;
+        }
+        for (List<ChatMessage> page : pages) {
+            pos = search(page, key);
+            if (pos >= 0) {
+                page.set(pos, msg);
+                return;
+            }
+        }
+    }
+
+    private boolean removeEverywhere(String key) {
+        if (cache != null) cache.remove(roomCode, key);
+        int pos = search(tail, key);
+        if (pos >= 0) {
+            tail.remove(pos);
+            return true;
+        }
+        for (List<ChatMessage> page : pages) {
+            pos = search(page, key);
+            if (pos >= 0) {
+                page.remove(pos);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Binary search by push key; returns -(insertion point) - 1 when absent. */
+    private static int search(List<ChatMessage> list, String key) {
+        int lo = 0, hi = list.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = list.get(mid).getMessageId().compareTo(key);
+            if (cmp == 0) return mid;
+            if (cmp < 0) lo = mid + 1; else hi = mid - 1;
+        }
+        return -(lo + 1);
+    }
+
+    private String oldestKey() {
+        for (List<ChatMessage> page : pages) {
+            if (!page.isEmpty()) return page.get(0).getMessageId();
+        }
+        return tail.isEmpty() ? null : tail.get(0).getMessageId();
+    }
+
+    private int historySize() {
+        int n = 0;
+        for (List<ChatMessage> page : pages) n += page.size();
+        return n;
+    }
+
+    /** Page index for an adapter position, or -1 if the position is in the tail. */
+    private int pageIndexAt(int position) {
+        int start = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            start += pages.get(i).size();
+            if (position < start) return i;
+        }
+        return -1;
+    }
+
+    /** Queues messages for the disk cache; written in one batch per event burst. */
+    private void remember(ChatMessage msg) {
+        if (cache == null) return;
+        unsaved.add(msg);
+        scheduleSave();
+    }
+
+    private void remember(List<ChatMessage> messages) {
+        if (cache == null || messages.isEmpty()) return;
+        unsaved.addAll(messages);
+        scheduleSave();
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled) return;
+        saveScheduled = true;
+        deferred.execute(() -> {
+            saveScheduled = false;
+            cache.putAll(roomCode, new ArrayList<>(unsaved));
+            unsaved.clear();
+        });
+    }
+
+    private void publish(boolean appendedAtEnd) {
+        List<ChatMessage> out = new ArrayList<>(historySize() + tail.size());
+        for (List<ChatMessage> page : pages) out.addAll(page);
+        out.addAll(tail);
+        listener.onMessagesChanged(out, appendedAtEnd);
+    }
+}
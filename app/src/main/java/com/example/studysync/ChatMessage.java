@@ -1,11 +1,22 @@
 package com.example.studysync;
 
+import com.example.studysync.mapper.SnapshotModel;
+import com.google.firebase.database.Exclude;
+
+@SnapshotModel(key = "messageId")
 public class ChatMessage {
+
+    // Send state of the user's own messages — local only, never written
+    public static final int SENT    = 0;
+    public static final int PENDING = 1; // shown before the server has it
+    public static final int FAILED  = 2; // rejected; stays in the list, marked
+
     private String messageId; // stored locally, not in Firebase node
     private String senderId;
     private String senderName;
     private String text;
     private long timestamp;
+    private int sendState = SENT;
 
     public ChatMessage() {}
 
@@ -30,4 +41,15 @@ public class ChatMessage {
 
     public long   getTimestamp()               { return timestamp; }
     public void   setTimestamp(long t)         { this.timestamp = t; }
-}
\ No newline at end of file
+
+    @Exclude
+    public int    getSendState()               { return sendState; }
+
+    /** Copy in another send state, so list diffs see the change. */
+    public ChatMessage withSendState(int state) {
+        ChatMessage copy = new ChatMessage(senderId, senderName, text, timestamp);
+        copy.messageId = messageId;
+        copy.sendState = state;
+        return copy;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.studysync;
+
+/**
+ * Child-level events for an ordered collection (Firebase ChildEventListener
+ * semantics, minus the DataSnapshot). Keys are Firebase keys.
+ */
+public interface ChildListener<T> {
+
+    void onAdded(String key, T value);
+
+    void onChanged(String key, T value);
+
+    void onRemoved(String key);
+
+    default void onError(String message) {}
+}
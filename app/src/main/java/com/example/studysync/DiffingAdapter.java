@@ -0,0 +1,186 @@
+package com.example.studysync;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * DiffingAdapter
+ *
+ * Base for the app's list adapters. A subclass says how a row is keyed (its
+ * Firebase key), when two versions of a row differ and, optionally, what
+ * changed. submit() diffs on a background thread (AsyncListDiffer) and only
+ * the rows that changed are rebound — with a payload when only part of a row
+ * changed, so e.g. a toggled checkbox doesn't reload the rest of the row.
+ *
+ *   - stable ids come from the key, so item animations follow the row
+ *   - the view type is the row layout, so the RecycledViewPool from
+ *     attachTo() can be shared by every list on a screen
+ *   - adapters fed by child events keep a working list, edit it in place
+ *     and publish() it; a burst of events is diffed once
+ *
+ * Lists passed to submit() must not be modified afterwards. Main thread only.
+ */
+public abstract class DiffingAdapter<T, VH extends RecyclerView.ViewHolder>
+        extends RecyclerView.Adapter<VH> {
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private final int viewType;
+    private final AsyncListDiffer<T> differ;
+
+    private List<T> publishSource;
+    private boolean publishPosted;
+
+    protected DiffingAdapter(@LayoutRes int rowLayout) {
+        this.viewType = rowLayout;
+        this.differ = new AsyncListDiffer<>(new AdapterListUpdateCallback(this),
+                new AsyncDifferConfig.Builder<>(new DiffUtil.ItemCallback<T>() {
+                    @Override
+                    public boolean areItemsTheSame(@NonNull T a, @NonNull T b) {
+                        return keyOf(a).equals(keyOf(b));
+                    }
+
+                    @Override
+                    public boolean areContentsTheSame(@NonNull T a, @NonNull T b) {
+                        return sameContents(a, b);
+                    }
+
+                    @Override
+                    public Object getChangePayload(@NonNull T a, @NonNull T b) {
+                        return changePayload(a, b);
+                    }
+                }).build());
+        setHasStableIds(true);
+    }
+
+    // ── Subclass contract ──────────────────────────────────────────────────────
+
+    /** The row's Firebase key. */
+    protected abstract String keyOf(T item);
+
+    protected abstract boolean sameContents(T oldItem, T newItem);
+
+    /** What changed between two versions of a row, or null to rebind all of it. */
+    protected Object changePayload(T oldItem, T newItem) {
+        return null;
+    }
+
+    /**
+     * Partial rebind for the payloads from changePayload() (or passed to
+     * notifyItemChanged). Defaults to a full bind.
+     */
+    protected void onBindPayloads(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+        onBindViewHolder(holder, position);
+    }
+
+    // ── Data ───────────────────────────────────────────────────────────────────
+
+    public void submit(List<T> list) {
+        differ.submitList(list);
+    }
+
+    /** @param committed runs once the diff has been applied to the list */
+    public void submit(List<T> list, Runnable committed) {
+        differ.submitList(list, committed);
+    }
+
+    /** Submits a copy of a working list once this main-loop turn is over. */
+    protected void publish(List<T> working) {
+        publishSource = working;
+        if (publishPosted) return;
+        publishPosted = true;
+        MAIN.post(() -> {
+            publishPosted = false;
+            differ.submitList(new ArrayList<>(publishSource));
+        });
+    }
+
+    /** What is on screen now; may trail a list that was just submitted. */
+    public List<T> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    public T getItem(int position) {
+        return differ.getCurrentList().get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    // ── Identity ───────────────────────────────────────────────────────────────
+
+    @Override
+    public long getItemId(int position) {
+        return stableId(keyOf(getItem(position)));
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return viewType;
+    }
+
+    // 64-bit FNV-1a of the key: collisions are not a practical concern
+    private static long stableId(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // ── Binding ────────────────────────────────────────────────────────────────
+
+    @Override
+    public final void onBindViewHolder(@NonNull VH holder, int position,
+                                       @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) onBindViewHolder(holder, position);
+        else onBindPayloads(holder, position, payloads);
+    }
+
+    // ── Shared view pool ───────────────────────────────────────────────────────
+    // One pool per screen: rows hold their Activity's context, so a pool that
+    // outlived the screen would leak it
+
+    private static final Map<LifecycleOwner, RecyclerView.RecycledViewPool> POOLS =
+            new WeakHashMap<>();
+
+    /** Sets this adapter on the list, recycling rows through the screen's shared pool. */
+    public void attachTo(RecyclerView list, LifecycleOwner screen) {
+        list.setRecycledViewPool(poolFor(screen));
+        list.setAdapter(this);
+    }
+
+    private static RecyclerView.RecycledViewPool poolFor(LifecycleOwner screen) {
+        RecyclerView.RecycledViewPool pool = POOLS.get(screen);
+        if (pool != null) return pool;
+
+        RecyclerView.RecycledViewPool created = new RecyclerView.RecycledViewPool();
+        POOLS.put(screen, created);
+        screen.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner owner) {
+                created.clear();
+                POOLS.remove(owner);
+            }
+        });
+        return created;
+    }
+}
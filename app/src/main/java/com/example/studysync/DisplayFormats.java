@@ -0,0 +1,33 @@
+package com.example.studysync;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * DisplayFormats
+ *
+ * The date and time strings list rows show. java.time formatters are
+ * immutable and thread-safe, so the model pipeline and the main thread share
+ * these instances instead of allocating a SimpleDateFormat per row.
+ */
+public final class DisplayFormats {
+
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("hh:mm a", Locale.getDefault());
+    private static final DateTimeFormatter DATE =
+            DateTimeFormatter.ofPattern("MMM dd, yyyy", Locale.getDefault());
+
+    private DisplayFormats() {}
+
+    /** e.g. "09:41 AM" */
+    public static String time(long millis) {
+        return TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()));
+    }
+
+    /** e.g. "Mar 04, 2025" */
+    public static String date(long millis) {
+        return DATE.format(Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.studysync;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** MessageRepository over Messages/{roomCode}. */
+class FirebaseMessageRepository implements MessageRepository {
+
+    private DatabaseReference messages(String roomCode) {
+        return FirebaseRepositories.root().child("Messages").child(roomCode);
+    }
+
+    @Override
+    public Registration observeLatest(String roomCode, int limit,
+                                      ChildListener<ChatMessage> listener) {
+        return observe(messages(roomCode).orderByKey().limitToLast(limit), listener);
+    }
+
+    @Override
+    public Registration observeFrom(String roomCode, String fromKey,
+                                    ChildListener<ChatMessage> listener) {
+        return observe(messages(roomCode).orderByKey().startAt(fromKey), listener);
+    }
+
+    @Override
+    public void loadBefore(String roomCode, String beforeKey, int limit,
+                           Callback<List<ChatMessage>> callback) {
+        fetch(messages(roomCode).orderByKey().endBefore(beforeKey).limitToLast(limit), callback);
+    }
+
+    @Override
+    public void loadAfter(String roomCode, String afterKey, int limit,
+                          Callback<List<ChatMessage>> callback) {
+        fetch(messages(roomCode).orderByKey().startAfter(afterKey).limitToFirst(limit), callback);
+    }
+
+    @Override
+    public String newKey(String roomCode) {
+        return messages(roomCode).push().getKey();
+    }
+
+    @Override
+    public void send(String roomCode, ChatMessage message, Callback<Void> callback) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("senderId",   message.getSenderId());
+        data.put("senderName", message.getSenderName());
+        data.put("text",       message.getText());
+        data.put("timestamp",  ServerValue.TIMESTAMP);
+
+        // Message + sender's messagesSent counter in one write
+        String key = message.getMessageId();
+        if (key == null) {
+            key = newKey(roomCode);
+            message.setMessageId(key);
+        }
+        String path = "Messages/" + roomCode + "/" + key;
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(path, data);
+        UserStats.putIncrement(updates, message.getSenderId(), UserStats.MESSAGES_SENT, 1);
+
+        FirebaseRepositories.commitDurablyAcked("message", key, path, updates, callback);
+    }
+
+    @Override
+    public void delete(String roomCode, ChatMessage message, Callback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("Messages/" + roomCode + "/" + message.getMessageId(), null);
+        UserStats.putIncrement(updates, message.getSenderId(), UserStats.MESSAGES_SENT, -1);
+
+        FirebaseRepositories.complete(FirebaseRepositories.root().updateChildren(updates), callback);
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    private static Registration observe(Query query, ChildListener<ChatMessage> listener) {
+        return FirebaseRepositories.listen(query, new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousKey) {
+                ChatMessage msg = toMessage(snapshot);
+                if (msg != null) listener.onAdded(snapshot.getKey(), msg);
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousKey) {
+                ChatMessage msg = toMessage(snapshot);
+                if (msg != null) listener.onChanged(snapshot.getKey(), msg);
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                listener.onRemoved(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousKey) {
+                // Ordered by key — children never move
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+    }
+
+    private static void fetch(Query query, Callback<List<ChatMessage>> callback) {
+        query.get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                callback.onError("Failed to load messages");
+                return;
+            }
+            List<ChatMessage> list = new ArrayList<>();
+            for (DataSnapshot child : task.getResult().getChildren()) {
+                ChatMessage msg = toMessage(child);
+                if (msg != null) list.add(msg);
+            }
+            callback.onResult(list);
+        });
+    }
+
+    // Generated mapper; the push key becomes messageId, used for deletion
+    private static ChatMessage toMessage(DataSnapshot snapshot) {
+        return ChatMessageMapper.map(snapshot);
+    }
+}
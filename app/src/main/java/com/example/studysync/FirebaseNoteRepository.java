@@ -0,0 +1,103 @@
+package com.example.studysync;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** NoteRepository over Notes/{roomCode}. */
+class FirebaseNoteRepository implements NoteRepository {
+
+    private DatabaseReference notes(String roomCode) {
+        return FirebaseRepositories.root().child("Notes").child(roomCode);
+    }
+
+    @Override
+    public Registration observe(String roomCode, Callback<List<Note>> listener) {
+        return FirebaseRepositories.listenParsed(notes(roomCode), snapshot -> {
+            List<Note> list = new ArrayList<>();
+            for (DataSnapshot snap : snapshot.getChildren()) {
+                Note note = NoteMapper.map(snap); // generated, sets id from the key
+                if (note != null) list.add(note);
+            }
+            return list;
+        }, listener);
+    }
+
+    @Override
+    public void add(String roomCode, Note note, Callback<Void> callback) {
+        addAll(roomCode, Collections.singletonList(note), callback);
+    }
+
+    // Notes + the uploader's notesUploaded counter in one write. The callback
+    // (may be null) hears back on every path, an empty list included.
+    @Override
+    public void addAll(String roomCode, List<Note> added, Callback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        Map<String, Long> uploaded = new HashMap<>();
+        String firstKey = null;
+        for (Note note : added) {
+            String key = note.getId();
+            if (key == null) {
+                key = newKey(roomCode);
+                if (key == null) {
+                    if (callback != null) callback.onError("Could not create the note");
+                    return;
+                }
+                note.setId(key);
+            }
+            if (firstKey == null) firstKey = key;
+            updates.put("Notes/" + roomCode + "/" + key, toData(note));
+            uploaded.merge(note.getUploaderId(), 1L, Long::sum);
+        }
+        if (firstKey == null) {
+            if (callback != null) callback.onResult(null); // nothing to write
+            return;
+        }
+        for (Map.Entry<String, Long> counter : uploaded.entrySet()) {
+            UserStats.putIncrement(updates, counter.getKey(),
+                    UserStats.NOTES_UPLOADED, counter.getValue());
+        }
+
+        // All notes land together, so the first one tells the outbox the write happened
+        FirebaseRepositories.commitDurably("note", firstKey,
+                "Notes/" + roomCode + "/" + firstKey, updates, callback);
+    }
+
+    @Override
+    public String newKey(String roomCode) {
+        return notes(roomCode).push().getKey();
+    }
+
+    @Override
+    public void exists(String roomCode, String noteId, Callback<Boolean> callback) {
+        notes(roomCode).child(noteId).get()
+                .addOnSuccessListener(snapshot -> callback.onResult(snapshot.exists()))
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    private static Map<String, Object> toData(Note note) {
+        Map<String, Object> noteData = new HashMap<>();
+        noteData.put("fileName",     note.getFileName());
+        noteData.put("fileUrl",      note.getFileUrl());
+        noteData.put("fileType",     note.getFileType());
+        noteData.put("uploaderId",   note.getUploaderId());
+        noteData.put("uploaderName", note.getUploaderName());
+        noteData.put("uploadedAt",   ServerValue.TIMESTAMP);
+        return noteData;
+    }
+
+    @Override
+    public void delete(String roomCode, Note note, Callback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("Notes/" + roomCode + "/" + note.getId(), null);
+        UserStats.putIncrement(updates, note.getUploaderId(), UserStats.NOTES_UPLOADED, -1);
+
+        FirebaseRepositories.complete(FirebaseRepositories.root().updateChildren(updates), callback);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.studysync;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Map;
+
+/** Shared plumbing for the Firebase-backed repositories. */
+final class FirebaseRepositories {
+
+    private FirebaseRepositories() {}
+
+    static DatabaseReference root() {
+        return FirebaseDatabase.getInstance().getReference();
+    }
+
+    /** Forwards a write's outcome to a repository callback (may be null). */
+    static void complete(com.google.android.gms.tasks.Task<Void> write, Callback<Void> callback) {
+        if (callback == null) return;
+        write.addOnSuccessListener(aVoid -> callback.onResult(null))
+             .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    /**
+     * User-authored creates (message, task, note) go through the Outbox so
+     * they survive bad connections and process death.
+     *
+     * @param clientId  push key the update creates
+     * @param checkPath path of the created entity
+     */
+    static void commitDurably(String kind, String clientId, String checkPath,
+                              Map<String, Object> updates, Callback<Void> callback) {
+        Outbox outbox = Outbox.get();
+        if (outbox != null) {
+            outbox.enqueue(kind, clientId, checkPath, updates, callback);
+        } else {
+            complete(root().updateChildren(updates), callback);
+        }
+    }
+
+    /** As commitDurably(), but the callback waits for the server's answer. */
+    static void commitDurablyAcked(String kind, String clientId, String checkPath,
+                                   Map<String, Object> updates, Callback<Void> callback) {
+        Outbox outbox = Outbox.get();
+        if (outbox != null) {
+            outbox.enqueue(kind, clientId, checkPath, updates, null, callback);
+        } else {
+            complete(root().updateChildren(updates), callback);
+        }
+    }
+
+    // ── Listeners ──────────────────────────────────────────────────────────────
+    // Every repository listener goes through these, so ListenerRegistry can
+    // tie it to the screen that asked for it and count its events
+
+    static Registration listen(Query query, ValueEventListener listener) {
+        ListenerRegistry.Entry entry = ListenerRegistry.track(pathOf(query));
+        ValueEventListener counted = query.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                entry.event();
+                listener.onDataChange(snapshot);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onCancelled(error);
+            }
+        });
+        return entry.onRemove(() -> query.removeEventListener(counted));
+    }
+
+    static Registration listen(Query query, ChildEventListener listener) {
+        ListenerRegistry.Entry entry = ListenerRegistry.track(pathOf(query));
+        ChildEventListener counted = query.addChildEventListener(new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousKey) {
+                entry.event();
+                listener.onChildAdded(snapshot, previousKey);
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousKey) {
+                entry.event();
+                listener.onChildChanged(snapshot, previousKey);
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                entry.event();
+                listener.onChildRemoved(snapshot);
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousKey) {
+                entry.event();
+                listener.onChildMoved(snapshot, previousKey);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onCancelled(error);
+            }
+        });
+        return entry.onRemove(() -> query.removeEventListener(counted));
+    }
+
+    /**
+     * Value listener whose snapshot is turned into models on the
+     * ModelPipeline rather than the main thread. Only the newest snapshot is
+     * parsed; the result is delivered on the main thread.
+     */
+    static <T> Registration listenParsed(Query query, ModelPipeline.Mapper<DataSnapshot, T> parser,
+                                         Callback<T> listener) {
+        ModelPipeline.Lane<DataSnapshot, T> lane = ModelPipeline.get().lane(parser, listener::onResult);
+        Registration registration = listen(query, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                lane.submit(snapshot); // snapshots are immutable
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+        return () -> {
+            lane.close();
+            registration.remove();
+        };
+    }
+
+    private static String pathOf(Query query) {
+        DatabaseReference ref = query.getRef();
+        String path = ref.toString().substring(ref.getRoot().toString().length());
+        return query instanceof DatabaseReference ? path : path + " (query)";
+    }
+}
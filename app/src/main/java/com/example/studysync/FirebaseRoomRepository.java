@@ -0,0 +1,212 @@
+package com.example.studysync;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** RoomRepository over Rooms/{roomCode} and UserRooms/{uid}. */
+class FirebaseRoomRepository implements RoomRepository {
+
+    private DatabaseReference room(String roomCode) {
+        return FirebaseRepositories.root().child("Rooms").child(roomCode);
+    }
+
+    private DatabaseReference userRooms(String uid) {
+        return FirebaseRepositories.root().child(UserRoomsIndex.NODE).child(uid);
+    }
+
+    // ── Writes ─────────────────────────────────────────────────────────────────
+
+    @Override
+    public void create(String roomCode, String creatorUid, Callback<Boolean> callback) {
+        room(roomCode).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                callback.onError("Failed to check room availability. Try again.");
+                return;
+            }
+            DataSnapshot snap = task.getResult();
+            if (snap != null && snap.exists()) {
+                callback.onResult(false); // code collision
+                return;
+            }
+
+            // Save room name = roomCode for now (can be extended to let user name it)
+            Map<String, Object> roomData = new HashMap<>();
+            roomData.put("roomCode",  roomCode);
+            roomData.put("roomName",  roomCode);      // used by Recent Rooms chips
+            roomData.put("createdBy", creatorUid);
+            roomData.put("createdAt", ServerValue.TIMESTAMP);
+
+            Map<String, Object> members = new HashMap<>();
+            members.put(creatorUid, true);
+            roomData.put("members", members);
+
+            // No timer node: the room starts with an idle Pomodoro schedule
+
+            // Room + creator's UserRooms entry in one atomic write
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("Rooms/" + roomCode, roomData);
+            UserRoomsIndex.putCreate(updates, roomCode, creatorUid);
+
+            FirebaseRepositories.root().updateChildren(updates)
+                    .addOnSuccessListener(aVoid -> callback.onResult(true))
+                    .addOnFailureListener(e -> callback.onError(e.getMessage()));
+        });
+    }
+
+    @Override
+    public void join(String roomCode, String uid, Callback<Boolean> callback) {
+        room(roomCode).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                callback.onError("Failed to check room. Try again.");
+                return;
+            }
+            DataSnapshot snap = task.getResult();
+            if (snap == null || !snap.exists()) {
+                callback.onResult(false);
+                return;
+            }
+            // Member flag + UserRooms entries in one atomic write
+            Map<String, Object> updates = new HashMap<>();
+            UserRoomsIndex.putJoin(updates, snap, uid);
+            if (updates.isEmpty()) {
+                callback.onResult(true); // already a member
+                return;
+            }
+            FirebaseRepositories.root().updateChildren(updates)
+                    .addOnSuccessListener(aVoid -> callback.onResult(true))
+                    .addOnFailureListener(e -> callback.onError(e.getMessage()));
+        });
+    }
+
+    @Override
+    public void leave(String roomCode, String uid, Collection<String> memberUids,
+                      Callback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        UserRoomsIndex.putLeave(updates, roomCode, uid, memberUids);
+        FirebaseRepositories.complete(FirebaseRepositories.root().updateChildren(updates), callback);
+    }
+
+    @Override
+    public void delete(String roomCode, Callback<Void> callback) {
+        // Members are needed to clean up every member's UserRooms entry
+        room(roomCode).child("members").get().addOnSuccessListener(members -> {
+            List<String> memberUids = new ArrayList<>();
+            for (DataSnapshot m : members.getChildren()) memberUids.add(m.getKey());
+
+            // Room, chat, notes and index entries go in one write: nobody ever
+            // sees a room without its chat or a UserRooms entry without a room
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("Rooms/" + roomCode, null);
+            updates.put("Messages/" + roomCode, null);
+            updates.put("Notes/" + roomCode, null);
+            UserRoomsIndex.putDelete(updates, roomCode, memberUids);
+            FirebaseRepositories.complete(FirebaseRepositories.root().updateChildren(updates), callback);
+        }).addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    // ── Reads ──────────────────────────────────────────────────────────────────
+
+    @Override
+    public void exists(String roomCode, Callback<Boolean> callback) {
+        room(roomCode).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                callback.onResult(snapshot.exists());
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void loadHost(String roomCode, Callback<String> callback) {
+        room(roomCode).child("createdBy").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                callback.onResult(snapshot.getValue(String.class));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public Registration observeMembers(String roomCode, ChildListener<Boolean> listener) {
+        DatabaseReference ref = room(roomCode).child("members");
+        return FirebaseRepositories.listen(ref, new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousKey) {
+                listener.onAdded(snapshot.getKey(), Boolean.TRUE);
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousKey) {
+                listener.onChanged(snapshot.getKey(), Boolean.TRUE);
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                listener.onRemoved(snapshot.getKey());
+            }
+
+            @Override public void onChildMoved(@NonNull DataSnapshot snapshot, String previousKey) {}
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+    }
+
+    // Reads only UserRooms/{uid} — never the whole Rooms tree
+    @Override
+    public Registration observeMyRooms(String uid, Callback<List<RoomInfo>> listener) {
+        return FirebaseRepositories.listenParsed(userRooms(uid),
+                FirebaseRoomRepository::toRoomInfos, listener);
+    }
+
+    @Override
+    public void loadRecentRooms(String uid, int limit, Callback<List<RoomInfo>> callback) {
+        Query query = userRooms(uid).orderByChild("createdAt").limitToLast(limit);
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                callback.onResult(toRoomInfos(snapshot));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    private static List<RoomInfo> toRoomInfos(DataSnapshot snapshot) {
+        if (!snapshot.hasChildren()) return Collections.emptyList();
+        List<RoomInfo> rooms = new ArrayList<>();
+        for (DataSnapshot entry : snapshot.getChildren()) {
+            if (UserRoomsIndex.isComplete(entry)) rooms.add(UserRoomsIndex.toRoomInfo(entry));
+        }
+        return rooms;
+    }
+}
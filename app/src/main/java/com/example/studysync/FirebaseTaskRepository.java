@@ -0,0 +1,129 @@
+package com.example.studysync;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/** TaskRepository over Tasks/{uid}. */
+class FirebaseTaskRepository implements TaskRepository {
+
+    private DatabaseReference tasks(String uid) {
+        return FirebaseRepositories.root().child("Tasks").child(uid);
+    }
+
+    private static String taskPath(String uid, String taskId) {
+        return "Tasks/" + uid + "/" + taskId;
+    }
+
+    @Override
+    public Registration observe(String uid, ChildListener<Task> listener) {
+        return FirebaseRepositories.listen(tasks(uid).orderByKey(), new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousKey) {
+                Task task = toTask(snapshot);
+                if (task != null) listener.onAdded(snapshot.getKey(), task);
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousKey) {
+                Task task = toTask(snapshot);
+                if (task != null) listener.onChanged(snapshot.getKey(), task);
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                listener.onRemoved(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousKey) {
+                // Ordered by key — children never move
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+    }
+
+    private static Task toTask(DataSnapshot snapshot) {
+        return TaskMapper.map(snapshot); // generated, sets id from the key
+    }
+
+    @Override
+    public void add(String uid, String title, Callback<Void> callback) {
+        String taskId = tasks(uid).push().getKey();
+        if (taskId == null) return;
+
+        Map<String, Object> taskData = new HashMap<>();
+        taskData.put("title", title);
+        taskData.put("completed", false);
+        taskData.put("createdAt", ServerValue.TIMESTAMP);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(taskPath(uid, taskId), taskData);
+        FirebaseRepositories.commitDurably("task", taskId, taskPath(uid, taskId), updates, callback);
+    }
+
+    // Completion flag + tasksCompleted counter in one write
+    @Override
+    public void setCompleted(String uid, Task task, boolean completed) {
+        if (task.isCompleted() == completed) return;
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(taskPath(uid, task.getId()) + "/completed", completed);
+        UserStats.putIncrement(updates, uid, UserStats.TASKS_COMPLETED, completed ? 1 : -1);
+        FirebaseRepositories.root().updateChildren(updates);
+    }
+
+    @Override
+    public void delete(String uid, Task task, Callback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(taskPath(uid, task.getId()), null);
+        if (task.isCompleted()) {
+            UserStats.putIncrement(updates, uid, UserStats.TASKS_COMPLETED, -1);
+        }
+        FirebaseRepositories.complete(FirebaseRepositories.root().updateChildren(updates), callback);
+    }
+
+    @Override
+    public void completeAll(String uid, Collection<Task> tasks, Callback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        int newlyCompleted = 0;
+        for (Task task : tasks) {
+            if (task.isCompleted()) continue;
+            updates.put(taskPath(uid, task.getId()) + "/completed", true);
+            newlyCompleted++;
+        }
+        UserStats.putIncrement(updates, uid, UserStats.TASKS_COMPLETED, newlyCompleted);
+        commit(updates, callback);
+    }
+
+    @Override
+    public void deleteAll(String uid, Collection<Task> tasks, Callback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        int completed = 0;
+        for (Task task : tasks) {
+            updates.put(taskPath(uid, task.getId()), null);
+            if (task.isCompleted()) completed++;
+        }
+        UserStats.putIncrement(updates, uid, UserStats.TASKS_COMPLETED, -completed);
+        commit(updates, callback);
+    }
+
+    private static void commit(Map<String, Object> updates, Callback<Void> callback) {
+        if (updates.isEmpty()) {
+            if (callback != null) callback.onResult(null);
+            return;
+        }
+        FirebaseRepositories.complete(FirebaseRepositories.root().updateChildren(updates), callback);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.studysync;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** TimerRepository over Rooms/{roomCode}/timer and timerSettings. */
+class FirebaseTimerRepository implements TimerRepository {
+
+    private DatabaseReference timer(String roomCode) {
+        return FirebaseRepositories.root().child("Rooms").child(roomCode).child("timer");
+    }
+
+    private DatabaseReference settings(String roomCode) {
+        return FirebaseRepositories.root().child("Rooms").child(roomCode).child("timerSettings");
+    }
+
+    @Override
+    public Registration observe(String roomCode, Callback<TimerState> listener) {
+        DatabaseReference ref = timer(roomCode);
+        return FirebaseRepositories.listen(ref, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long    startedAt   = snapshot.child("startedAt").getValue(Long.class);
+                Long    workMillis  = snapshot.child("workMillis").getValue(Long.class);
+                Long    breakMillis = snapshot.child("breakMillis").getValue(Long.class);
+                Integer cycles      = snapshot.child("cycles").getValue(Integer.class);
+                Long    pausedAt    = snapshot.child("pausedAt").getValue(Long.class);
+                Long    pausedTotal = snapshot.child("pausedTotal").getValue(Long.class);
+
+                if (startedAt == null || workMillis == null) {
+                    listener.onResult(TimerState.IDLE);
+                    return;
+                }
+                listener.onResult(new TimerState(startedAt, workMillis,
+                        breakMillis != null ? breakMillis : 0L,
+                        cycles != null ? cycles : TimerState.DEFAULT_CYCLES,
+                        pausedAt != null ? pausedAt : 0L,
+                        pausedTotal != null ? pausedTotal : 0L));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+    }
+
+    // One write per host action; phase transitions never touch the database
+
+    @Override
+    public void start(String roomCode, long workMillis, long breakMillis, int cycles) {
+        Map<String, Object> schedule = new HashMap<>();
+        schedule.put("startedAt",   ServerValue.TIMESTAMP);
+        schedule.put("workMillis",  workMillis);
+        schedule.put("breakMillis", breakMillis);
+        schedule.put("cycles",      cycles);
+        schedule.put("pausedAt",    0L);
+        schedule.put("pausedTotal", 0L);
+        timer(roomCode).setValue(schedule);
+    }
+
+    @Override
+    public void pause(String roomCode) {
+        timer(roomCode).child("pausedAt").setValue(ServerValue.TIMESTAMP);
+    }
+
+    @Override
+    public void resume(String roomCode, long pausedTotal) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("pausedAt",    0L);
+        updates.put("pausedTotal", pausedTotal);
+        timer(roomCode).updateChildren(updates);
+    }
+
+    @Override
+    public void reset(String roomCode) {
+        timer(roomCode).removeValue();
+    }
+
+    @Override
+    public void loadSettings(String roomCode, Callback<TimerState.Settings> callback) {
+        settings(roomCode).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (!snapshot.exists()) {
+                    callback.onResult(null);
+                    return;
+                }
+                Integer work      = snapshot.child("workDuration").getValue(Integer.class);
+                Integer breakTime = snapshot.child("breakDuration").getValue(Integer.class);
+                callback.onResult(new TimerState.Settings(
+                        work != null ? work : 0,
+                        breakTime != null ? breakTime : 0));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void saveSettings(String roomCode, TimerState.Settings settings) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("workDuration",  settings.getWorkDuration());
+        updates.put("breakDuration", settings.getBreakDuration());
+        settings(roomCode).updateChildren(updates);
+    }
+}
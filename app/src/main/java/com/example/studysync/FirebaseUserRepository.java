@@ -0,0 +1,87 @@
+package com.example.studysync;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** UserRepository over Users/{uid} and UserStats/{uid}. */
+class FirebaseUserRepository implements UserRepository {
+
+    private DatabaseReference user(String uid) {
+        return FirebaseRepositories.root().child("Users").child(uid);
+    }
+
+    @Override
+    public void load(String uid, Callback<User> callback) {
+        user(uid).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                callback.onResult(UserMapper.map(snapshot)); // null if missing
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public Registration observeUpdatedAt(String uid, Callback<Object> listener) {
+        DatabaseReference ref = user(uid).child(UserProfileCache.UPDATED_AT);
+        return FirebaseRepositories.listen(ref, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                listener.onResult(snapshot.getValue());
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void updateProfile(String uid, String field, String value, Callback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("Users/" + uid + "/" + field, value);
+        updates.put("Users/" + uid + "/" + UserProfileCache.UPDATED_AT, ServerValue.TIMESTAMP);
+        FirebaseRepositories.complete(FirebaseRepositories.root().updateChildren(updates), callback);
+    }
+
+    @Override
+    public void loadStats(String uid, Callback<Map<String, Long>> callback) {
+        FirebaseRepositories.root().child(UserStats.NODE).child(uid)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        Map<String, Long> stats = new HashMap<>();
+                        for (DataSnapshot counter : snapshot.getChildren()) {
+                            Long value = counter.getValue(Long.class);
+                            if (value != null) stats.put(counter.getKey(), value);
+                        }
+                        callback.onResult(stats);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        callback.onError(error.getMessage());
+                    }
+                });
+    }
+
+    @Override
+    public void incrementStat(String uid, String counter, long delta) {
+        Map<String, Object> updates = new HashMap<>();
+        UserStats.putIncrement(updates, uid, counter, delta);
+        if (!updates.isEmpty()) FirebaseRepositories.root().updateChildren(updates);
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.studysync;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ImagePipeline
+ *
+ * Shrinks a picked photo before it is uploaded. A 12 MP camera image is
+ * several megabytes; an avatar shown at 96 dp needs a few dozen kilobytes.
+ *
+ *   - decodes with inSampleSize and density scaling, so the full-resolution
+ *     bitmap is never in memory — only one close to the target size
+ *   - bakes the EXIF rotation into the pixels, then writes a fresh file:
+ *     location, camera and other metadata are not carried over
+ *   - re-encodes per Target straight into the output file and logs the
+ *     bytes saved
+ *
+ * Animated GIFs and formats BitmapFactory can't read are left alone: shrink()
+ * returns null and the caller uploads the original. So are images already
+ * within maxSide and in the target format, and images the re-encode would
+ * not make smaller; those go up as picked, metadata included.
+ */
+public final class ImagePipeline {
+
+    private static final String TAG = "ImagePipeline";
+
+    public enum Target {
+        /** Profile photos: shown as small circles, WebP keeps them tiny. */
+        AVATAR(512, Format.WEBP, 80),
+        /** Image notes: readable when zoomed, JPEG so any viewer opens the download. */
+        NOTE_IMAGE(1920, Format.JPEG, 85);
+
+        final int maxSide;
+        final Format format;
+        final int quality;
+
+        Target(int maxSide, Format format, int quality) {
+            this.maxSide = maxSide;
+            this.format  = format;
+            this.quality = quality;
+        }
+    }
+
+    public enum Format {
+        JPEG("jpg", "image/jpeg"),
+        WEBP("webp", "image/webp");
+
+        public final String extension;
+        public final String mimeType;
+
+        Format(String extension, String mimeType) {
+            this.extension = extension;
+            this.mimeType  = mimeType;
+        }
+    }
+
+    /** What shrink() wrote. */
+    public static final class Result {
+        public final File file;
+        public final Format format;
+        public final long sourceBytes;
+        public final long outputBytes;
+
+        Result(File file, Format format, long sourceBytes, long outputBytes) {
+            this.file        = file;
+            this.format      = format;
+            this.sourceBytes = sourceBytes;
+            this.outputBytes = outputBytes;
+        }
+
+        /** 0 when the source's size is unknown. */
+        public long bytesSaved() {
+            return sourceBytes < 0 ? 0 : sourceBytes - outputBytes;
+        }
+    }
+
+    private static final ExecutorService IO   = Executors.newSingleThreadExecutor();
+    private static final Handler         MAIN = new Handler(Looper.getMainLooper());
+
+    private ImagePipeline() {}
+
+    /**
+     * As shrink(), on a background thread, into a new file in the cache
+     * directory. Delivers null when the image was left alone; the caller
+     * deletes the file once it is uploaded.
+     */
+    public static void shrinkAsync(Context context, Uri source, Target target,
+                                   Callback<Result> callback) {
+        Context app = context.getApplicationContext();
+        IO.execute(() -> {
+            try {
+                File out = File.createTempFile("shrunk-", "." + target.format.extension,
+                        app.getCacheDir());
+                Result result = shrink(app, source, target, out);
+                if (result == null) out.delete();
+                MAIN.post(() -> callback.onResult(result));
+            } catch (IOException | SecurityException e) {
+                Log.w(TAG, "Could not shrink " + source, e);
+                MAIN.post(() -> callback.onError(e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Writes the shrunk image to out. Blocking; not on the main thread.
+     *
+     * @return null if the source is not an image this pipeline re-encodes,
+     *         or re-encoding would not make it smaller; out is then deleted
+     */
+    public static Result shrink(Context context, Uri source, Target target, File out)
+            throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+        if ("image/gif".equals(resolver.getType(source))) return null;
+
+        // Bounds only: nothing is allocated
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, source)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+        // Nothing to scale or convert: a re-encode would only cost quality
+        if (Math.max(bounds.outWidth, bounds.outHeight) <= target.maxSide
+                && target.format.mimeType.equals(bounds.outMimeType)) {
+            return null;
+        }
+
+        Bitmap bitmap;
+        try (InputStream in = open(resolver, source)) {
+            bitmap = BitmapFactory.decodeStream(in, null, decodeOptions(bounds, target));
+        }
+        if (bitmap == null) return null;
+
+        bitmap = rotateUpright(bitmap, readOrientation(resolver, source));
+        if (target.format == Format.JPEG && bitmap.hasAlpha()) bitmap = onWhite(bitmap);
+
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(out))) {
+            if (!bitmap.compress(compressFormat(target.format), target.quality, stream)) {
+                throw new IOException("Could not encode " + source);
+            }
+        } finally {
+            bitmap.recycle();
+        }
+
+        Result result = new Result(out, target.format, sourceSize(resolver, source), out.length());
+        if (result.sourceBytes > 0 && result.bytesSaved() <= 0) {
+            Log.i(TAG, target + ": re-encoded " + result.outputBytes / 1024
+                    + " KB is not smaller than the source, keeping the original");
+            out.delete();
+            return null;
+        }
+        Log.i(TAG, target + ": " + bounds.outWidth + "x" + bounds.outHeight + ", "
+                + result.sourceBytes / 1024 + " KB → " + result.outputBytes / 1024 + " KB ("
+                + result.bytesSaved() / 1024 + " KB saved)");
+        return result;
+    }
+
+    // ── Decoding ───────────────────────────────────────────────────────────────
+
+    /**
+     * inSampleSize does the coarse power-of-two step while decoding; the
+     * density pair then scales the sampled rows to exactly maxSide, still
+     * inside the decoder, so no second full-size bitmap is made.
+     */
+    private static BitmapFactory.Options decodeOptions(BitmapFactory.Options bounds,
+                                                       Target target) {
+        int longSide = Math.max(bounds.outWidth, bounds.outHeight);
+        int sample = 1;
+        while (longSide / (sample * 2) >= target.maxSide) sample *= 2;
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sample;
+        int sampledSide = longSide / sample;
+        if (sampledSide > target.maxSide) {
+            options.inScaled        = true;
+            options.inDensity       = sampledSide;
+            options.inTargetDensity = target.maxSide;
+        }
+        return options;
+    }
+
+    private static int readOrientation(ContentResolver resolver, Uri source) {
+        try (InputStream in = open(resolver, source)) {
+            return new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            return ExifInterface.ORIENTATION_NORMAL; // not a format with EXIF
+        }
+    }
+
+    // The orientation tag is dropped with the rest of the metadata, so the
+    // pixels have to be turned instead
+    private static Bitmap rotateUpright(Bitmap bitmap, int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:       matrix.postRotate(90);  break;
+            case ExifInterface.ORIENTATION_ROTATE_180:      matrix.postRotate(180); break;
+            case ExifInterface.ORIENTATION_ROTATE_270:      matrix.postRotate(270); break;
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL: matrix.postScale(-1, 1); break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:   matrix.postScale(1, -1); break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(270);
+                matrix.postScale(-1, 1);
+                break;
+            default:
+                return bitmap;
+        }
+        Bitmap rotated = Bitmap.createBitmap(bitmap, 0, 0,
+                bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (rotated != bitmap) bitmap.recycle();
+        return rotated;
+    }
+
+    // JPEG has no alpha: transparent PNG areas would turn black
+    private static Bitmap onWhite(Bitmap bitmap) {
+        Bitmap opaque = Bitmap.createBitmap(bitmap.getWidth(), bitmap.getHeight(),
+                Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(opaque);
+        canvas.drawColor(Color.WHITE);
+        canvas.drawBitmap(bitmap, 0, 0, null);
+        bitmap.recycle();
+        return opaque;
+    }
+
+    // ── Encoding ───────────────────────────────────────────────────────────────
+
+    @SuppressWarnings("deprecation") // WEBP is lossy below quality 100 before API 30
+    private static Bitmap.CompressFormat compressFormat(Format format) {
+        if (format == Format.JPEG) return Bitmap.CompressFormat.JPEG;
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+
+    // ── Helpers ────────────────────────────────────────────────────────────────
+
+    private static InputStream open(ContentResolver resolver, Uri source) throws IOException {
+        InputStream in = resolver.openInputStream(source);
+        if (in == null) throw new IOException("No content at " + source);
+        return in;
+    }
+
+    private static long sourceSize(ContentResolver resolver, Uri source) {
+        try (AssetFileDescriptor fd = resolver.openAssetFileDescriptor(source, "r")) {
+            return fd != null ? fd.getLength() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
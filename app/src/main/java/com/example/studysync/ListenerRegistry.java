@@ -0,0 +1,172 @@
+package com.example.studysync;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ListenerRegistry
+ *
+ * Ties database listeners to a screen's lifecycle and keeps a live table of
+ * every listener the Firebase repositories have attached.
+ *
+ *   - whileStarted(): attached in onStart, removed in onStop, so a screen in
+ *     the back stack downloads nothing
+ *   - untilDestroyed(): attached now, removed in onDestroy, for feeds that
+ *     keep incremental state (chat, member rows)
+ *   - a listener attached on behalf of an owner and still alive after the
+ *     owner is destroyed is reported as a leak and removed
+ *   - dump() lists active listeners with path, owner and event count
+ *
+ * Main thread only.
+ */
+public final class ListenerRegistry {
+
+    private static final String TAG = "ListenerRegistry";
+
+    /** One active database listener; removing it detaches the listener. */
+    static final class Entry implements Registration {
+        final String path;
+        final String ownerName;
+        final WeakReference<LifecycleOwner> owner;
+        final long attachedAt = SystemClock.elapsedRealtime();
+        int events;
+        private Registration detach;
+
+        Entry(String path, LifecycleOwner owner) {
+            this.path      = path;
+            this.owner     = new WeakReference<>(owner);
+            this.ownerName = owner != null ? owner.getClass().getSimpleName() : "app";
+        }
+
+        void event() { events++; }
+
+        /** Sets what remove() undoes; returns this for the repository to hand out. */
+        Registration onRemove(Registration detach) {
+            this.detach = detach;
+            return this;
+        }
+
+        @Override
+        public void remove() {
+            if (active.remove(this) && detach != null) detach.remove();
+        }
+    }
+
+    private static final List<Entry> active = new ArrayList<>();
+    private static final Handler main = new Handler(Looper.getMainLooper());
+    private static LifecycleOwner attaching;
+
+    private ListenerRegistry() {}
+
+    // ── Binding ────────────────────────────────────────────────────────────────
+
+    /** Calls attach() on every onStart and removes what it returned on onStop. */
+    public static void whileStarted(LifecycleOwner owner, Attach attach) {
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            private Registration registration;
+
+            @Override
+            public void onStart(@NonNull LifecycleOwner source) {
+                registration = attachFor(owner, attach);
+            }
+
+            @Override
+            public void onStop(@NonNull LifecycleOwner source) {
+                if (registration != null) {
+                    registration.remove();
+                    registration = null;
+                }
+            }
+
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                source.getLifecycle().removeObserver(this);
+                checkForLeaks(owner);
+            }
+        });
+    }
+
+    /** Calls attach() now and removes what it returned on onDestroy. */
+    public static void untilDestroyed(LifecycleOwner owner, Attach attach) {
+        Registration registration = attachFor(owner, attach);
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                source.getLifecycle().removeObserver(this);
+                if (registration != null) registration.remove();
+                checkForLeaks(owner);
+            }
+        });
+    }
+
+    public interface Attach {
+        Registration attach();
+    }
+
+    private static Registration attachFor(LifecycleOwner owner, Attach attach) {
+        LifecycleOwner previous = attaching;
+        attaching = owner;
+        try {
+            return attach.attach();
+        } finally {
+            attaching = previous;
+        }
+    }
+
+    // ── Tracking (called by the Firebase repositories) ─────────────────────────
+
+    static Entry track(String path) {
+        Entry entry = new Entry(path, attaching);
+        active.add(entry);
+        return entry;
+    }
+
+    // ── Leaks ──────────────────────────────────────────────────────────────────
+
+    // ON_DESTROY is dispatched before Activity.onDestroy() runs, so give the
+    // screen's own cleanup a chance before calling anything a leak
+    private static void checkForLeaks(LifecycleOwner owner) {
+        main.post(() -> {
+            for (Entry entry : new ArrayList<>(active)) {
+                if (entry.owner.get() != owner) continue;
+                Log.w(TAG, "Listener on " + entry.path + " outlived "
+                        + entry.ownerName + " (" + entry.events + " events); removing it");
+                entry.remove();
+            }
+        });
+    }
+
+    // ── Debug ──────────────────────────────────────────────────────────────────
+
+    public static int activeCount() {
+        return active.size();
+    }
+
+    /** One line per active listener: path, owner, events, age. */
+    public static String dump() {
+        long now = SystemClock.elapsedRealtime();
+        StringBuilder out = new StringBuilder()
+                .append(active.size()).append(" active listeners\n");
+        for (Entry entry : active) {
+            out.append(String.format(Locale.ROOT, "  %-40s %-24s %6d events %6ds\n",
+                    entry.path, entry.ownerName, entry.events,
+                    (now - entry.attachedAt) / 1000));
+        }
+        return out.toString();
+    }
+
+    public static void logDump() {
+        Log.d(TAG, dump());
+    }
+}
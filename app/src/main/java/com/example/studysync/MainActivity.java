@@ -1,6 +1,5 @@
 package com.example.studysync;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 
@@ -20,13 +19,10 @@ import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.resource.bitmap.CircleCrop;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.*;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 
 public class MainActivity extends AppCompatActivity {
@@ -42,8 +38,7 @@ public class MainActivity extends AppCompatActivity {
 
     // ── Firebase ───────────────────────────────────────────────────────────────
     private FirebaseAuth      auth;
-    private DatabaseReference roomsRef;
-    private DatabaseReference usersRef;
+    private final RoomRepository rooms = Repositories.rooms();
 
     // ── State ──────────────────────────────────────────────────────────────────
     private String currentUid;
@@ -102,14 +97,11 @@ public class MainActivity extends AppCompatActivity {
         }
 
         currentUid = user.getUid();
-        usersRef   = FirebaseDatabase.getInstance().getReference("Users");
-        roomsRef   = FirebaseDatabase.getInstance().getReference("Rooms");
 
         initViews();
         setDailyQuoteAndTip();
         setGreeting(currentUid);
         loadUserPhoto(currentUid);
-        loadRoomCount(currentUid);
         loadStats(currentUid);
         loadRecentRooms(currentUid);
         loadStreakAndSessions(currentUid);
@@ -185,151 +177,80 @@ public class MainActivity extends AppCompatActivity {
 
     // ── Time-of-day greeting with user's name ──────────────────────────────────
     private void setGreeting(String uid) {
-        usersRef.child(uid).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String name = snapshot.child("name").getValue(String.class);
-                if (name == null || name.isEmpty()) name = "there";
+        UserProfileCache.get().get(uid, user -> {
+            String name = user != null ? user.name : null;
+            if (name == null || name.isEmpty()) name = "there";
 
-                // First name only
-                String firstName = name.split(" ")[0];
+            // First name only
+            String firstName = name.split(" ")[0];
 
-                int hour = Calendar.getInstance().get(Calendar.HOUR_OF_DAY);
-                String greeting = hour < 12 ? "Good Morning ☀️"
-                        : hour < 17 ? "Good Afternoon 👋"
-                        : "Good Evening 🌙";
+            int hour = Calendar.getInstance().get(Calendar.HOUR_OF_DAY);
+            String greeting = hour < 12 ? "Good Morning ☀️"
+                    : hour < 17 ? "Good Afternoon 👋"
+                    : "Good Evening 🌙";
 
-                tvWelcome.setText(greeting + ", " + firstName + "!");
-            }
-            @Override public void onCancelled(@NonNull DatabaseError error) {}
+            tvWelcome.setText(greeting + ", " + firstName + "!");
         });
     }
 
     // ── Profile photo ──────────────────────────────────────────────────────────
     private void loadUserPhoto(String uid) {
-        usersRef.child(uid).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String photoUrl = snapshot.child("photoUrl").getValue(String.class);
-                if (photoUrl != null && !photoUrl.isEmpty()) {
-                    Glide.with(MainActivity.this)
-                            .load(photoUrl)
-                            .transform(new CircleCrop())
-                            .placeholder(R.drawable.ic_profile_circle)
-                            .error(R.drawable.ic_profile_circle)
-                            .into(ivProfile);
-                } else {
-                    ivProfile.setImageResource(R.drawable.ic_profile_circle);
-                }
-            }
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+        UserProfileCache.get().get(uid, user -> {
+            String photoUrl = user != null ? user.photoUrl : null;
+            if (photoUrl != null && !photoUrl.isEmpty()) {
+                Glide.with(MainActivity.this)
+                        .load(photoUrl)
+                        .transform(new CircleCrop())
+                        .placeholder(R.drawable.ic_profile_circle)
+                        .error(R.drawable.ic_profile_circle)
+                        .into(ivProfile);
+            } else {
                 ivProfile.setImageResource(R.drawable.ic_profile_circle);
             }
         });
     }
 
-    // ── Active room count ──────────────────────────────────────────────────────
-    private void loadRoomCount(String uid) {
-        roomsRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                int count = 0;
-                for (DataSnapshot room : snapshot.getChildren()) {
-                    if (room.child("members").hasChild(uid)) count++;
-                }
-                animateCounter(tvRoomCount, count,
-                        n -> n + " Active Room" + (n != 1 ? "s" : ""));
-            }
-            @Override public void onCancelled(@NonNull DatabaseError error) {}
-        });
-    }
-
-    // ── Stats: rooms joined, notes uploaded, messages sent ─────────────────────
+    // ── Stats: active rooms, notes uploaded, messages sent ─────────────────────
     private void loadStats(String uid) {
-        // Rooms
-        roomsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                int rooms = 0;
-                for (DataSnapshot room : snapshot.getChildren()) {
-                    if (room.child("members").hasChild(uid)) rooms++;
-                }
-                int finalRooms = rooms;
-                animateCounter(tvStatRooms, finalRooms, n -> String.valueOf(n));
-                animateCounter(tvSessionCount, finalRooms,
-                        n -> n + " session" + (n != 1 ? "s" : ""));
-            }
-            @Override public void onCancelled(@NonNull DatabaseError error) {}
+        // Denormalized counters at UserStats/{uid} — one small read for all
+        // tiles. The room count comes from here too, so it matches Profile's
+        Repositories.users().loadStats(uid, stats -> {
+            int roomTotal = UserStats.read(stats, UserStats.ROOMS);
+            animateCounter(tvRoomCount, roomTotal,
+                    n -> n + " Active Room" + (n != 1 ? "s" : ""));
+            animateCounter(tvStatRooms, roomTotal, n -> String.valueOf(n));
+            animateCounter(tvSessionCount, roomTotal,
+                    n -> n + " session" + (n != 1 ? "s" : ""));
+            animateCounter(tvStatNotes,
+                    UserStats.read(stats, UserStats.NOTES_UPLOADED),
+                    n -> String.valueOf(n));
+            animateCounter(tvStatMessages,
+                    UserStats.read(stats, UserStats.MESSAGES_SENT),
+                    n -> String.valueOf(n));
         });
-
-        // Notes (count all notes where uploaderId == uid across all rooms)
-        FirebaseDatabase.getInstance().getReference("Notes")
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        int notes = 0;
-                        for (DataSnapshot room : snapshot.getChildren()) {
-                            for (DataSnapshot note : room.getChildren()) {
-                                String uploader = note.child("uploaderId").getValue(String.class);
-                                if (uid.equals(uploader)) notes++;
-                            }
-                        }
-                        animateCounter(tvStatNotes, notes, n -> String.valueOf(n));
-                    }
-                    @Override public void onCancelled(@NonNull DatabaseError error) {}
-                });
-
-        // Messages
-        FirebaseDatabase.getInstance().getReference("Messages")
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        int msgs = 0;
-                        for (DataSnapshot room : snapshot.getChildren()) {
-                            for (DataSnapshot msg : room.getChildren()) {
-                                String sender = msg.child("senderId").getValue(String.class);
-                                if (uid.equals(sender)) msgs++;
-                            }
-                        }
-                        animateCounter(tvStatMessages, msgs, n -> String.valueOf(n));
-                    }
-                    @Override public void onCancelled(@NonNull DatabaseError error) {}
-                });
     }
 
     // ── Recent rooms — last 3 rooms the user is a member of ────────────────────
     private void loadRecentRooms(String uid) {
-        roomsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                List<String[]> rooms = new ArrayList<>(); // [roomCode, roomName]
-                for (DataSnapshot room : snapshot.getChildren()) {
-                    if (room.child("members").hasChild(uid)) {
-                        String code = room.getKey();
-                        String name = room.child("roomName").getValue(String.class);
-                        if (name == null || name.isEmpty()) name = code;
-                        rooms.add(new String[]{code, name});
-                    }
-                }
-
-                recentRoomsContainer.removeAllViews();
-
-                if (rooms.isEmpty()) {
-                    tvNoRecentRooms.setVisibility(View.VISIBLE);
-                    return;
-                }
-
-                tvNoRecentRooms.setVisibility(View.GONE);
-
-                // Show up to 3 most recent chips
-                int limit = Math.min(rooms.size(), 3);
-                for (int i = rooms.size() - 1; i >= rooms.size() - limit; i--) {
-                    String[] room = rooms.get(i);
-                    addRecentRoomChip(room[0], room[1]);
-                }
+        // Oldest first
+        rooms.loadRecentRooms(uid, 3, recent -> {
+            recentRoomsContainer.removeAllViews();
+
+            if (recent.isEmpty()) {
+                tvNoRecentRooms.setVisibility(View.VISIBLE);
+                return;
+            }
+
+            tvNoRecentRooms.setVisibility(View.GONE);
+
+            // Show up to 3 most recent chips
+            int limit = Math.min(recent.size(), 3);
+            for (int i = recent.size() - 1; i >= recent.size() - limit; i--) {
+                RoomInfo room = recent.get(i);
+                String name = room.getRoomName();
+                addRecentRoomChip(room.getRoomCode(),
+                        (name == null || name.isEmpty()) ? room.getRoomCode() : name);
             }
-            @Override public void onCancelled(@NonNull DatabaseError error) {}
         });
     }
 
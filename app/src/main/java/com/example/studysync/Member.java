@@ -1,5 +1,8 @@
 package com.example.studysync;
 
+import com.example.studysync.mapper.SnapshotModel;
+
+@SnapshotModel(key = "uid")
 public class Member {
     private String uid;
     private String name;
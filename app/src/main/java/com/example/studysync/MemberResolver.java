@@ -0,0 +1,47 @@
+package com.example.studysync;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MemberResolver
+ *
+ * Turns member uids into Member profiles for the room member list.
+ * Profiles come from UserProfileCache, which shares one read between
+ * concurrent requests for the same uid; resolved Members are kept for the
+ * screen. Reads for different uids are issued together, so a room full of
+ * members resolves in one round of parallel requests instead of one after
+ * another.
+ */
+public class MemberResolver {
+
+    public interface Callback {
+        void onResolved(Member member);
+    }
+
+    private final Map<String, Member> cache = new HashMap<>();
+
+    public void resolve(String uid, Callback callback) {
+        Member cached = cache.get(uid);
+        if (cached != null) {
+            callback.onResolved(cached);
+            return;
+        }
+
+        // Backed by the app-wide profile cache, so members seen on other screens
+        // (or in another room) resolve without a read
+        UserProfileCache.get().get(uid, user -> {
+            if (user == null) {
+                // Not cached — the next request for this uid retries
+                callback.onResolved(new Member(uid, uid, "", null));
+                return;
+            }
+            String displayName  = (user.name  != null && !user.name.isEmpty())  ? user.name  : uid;
+            String displayEmail = (user.email != null && !user.email.isEmpty()) ? user.email : "";
+
+            Member member = new Member(uid, displayName, displayEmail, user.photoUrl);
+            cache.put(uid, member);
+            callback.onResolved(member);
+        });
+    }
+}
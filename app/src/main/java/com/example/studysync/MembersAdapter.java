@@ -16,30 +16,89 @@ import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.resource.bitmap.CircleCrop;
 import com.bumptech.glide.request.RequestOptions;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberViewHolder> {
+/**
+ * Room members keyed by uid. Member events edit a working list that is
+ * published once per main-loop turn; a rename only rebinds the name, so the
+ * avatar isn't reloaded.
+ */
+public class MembersAdapter extends DiffingAdapter<Member, MembersAdapter.MemberViewHolder> {
+
+    private static final Object PAYLOAD_NAME = new Object();
 
     public interface OnRemoveMemberListener {
         void onRemove(String uid);
     }
 
     private final Context context;
-    private List<Member> members;
-    private final boolean isHost;
+    private final List<Member> members = new ArrayList<>(); // working list
+    private boolean isHost;
     private final OnRemoveMemberListener removeListener;
 
     public MembersAdapter(Context context, List<Member> members,
                           boolean isHost, OnRemoveMemberListener removeListener) {
+        super(R.layout.item_member);
         this.context        = context;
-        this.members        = members;
+        this.members.addAll(members);
         this.isHost         = isHost;
         this.removeListener = removeListener;
+        submit(new ArrayList<>(members));
     }
 
+    /** Replaces every member; rows are inserted, removed and rebound as the diff finds. */
     public void updateList(List<Member> newList) {
-        this.members = newList;
-        notifyItemRangeChanged(0, newList.size());
+        members.clear();
+        members.addAll(newList);
+        publish(members);
+    }
+
+    /** Host status only affects the profile dialog — no rebind needed. */
+    public void setHost(boolean isHost) {
+        this.isHost = isHost;
+    }
+
+    /** Inserts a newly resolved member, or rebinds the row if already shown. */
+    public void addOrUpdate(Member member) {
+        int pos = indexOf(member.getUid());
+        if (pos >= 0) {
+            members.set(pos, member);
+        } else {
+            members.add(member);
+        }
+        publish(members);
+    }
+
+    public void remove(String uid) {
+        int pos = indexOf(uid);
+        if (pos < 0) return;
+        members.remove(pos);
+        publish(members);
+    }
+
+    private int indexOf(String uid) {
+        for (int i = 0; i < members.size(); i++) {
+            if (uid.equals(members.get(i).getUid())) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    protected String keyOf(Member member) {
+        return member.getUid();
+    }
+
+    @Override
+    protected boolean sameContents(Member a, Member b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getPhotoUrl(), b.getPhotoUrl());
+    }
+
+    @Override
+    protected Object changePayload(Member a, Member b) {
+        return Objects.equals(a.getPhotoUrl(), b.getPhotoUrl()) ? PAYLOAD_NAME : null;
     }
 
     @NonNull
@@ -51,7 +110,7 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
 
     @Override
     public void onBindViewHolder(@NonNull MemberViewHolder holder, int position) {
-        Member member = members.get(position);
+        Member member = getItem(position);
 
         holder.tvName.setText(member.getName());
 
@@ -66,14 +125,20 @@ public class MembersAdapter extends RecyclerView.Adapter<MembersAdapter.MemberVi
             holder.ivAvatar.setImageResource(R.drawable.ic_profile_circle);
         }
 
-        // Tap anywhere on item → open profile dialog (shows Remove button if host)
-        holder.itemView.setOnClickListener(v -> showProfileDialog(member));
-        holder.ivAvatar.setOnClickListener(v -> showProfileDialog(member));
+        // Tap anywhere on item → open profile dialog (shows Remove button if host).
+        // Reads the row at tap time: a rename rebind doesn't reach here
+        View.OnClickListener open = v -> {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos != RecyclerView.NO_POSITION) showProfileDialog(getItem(pos));
+        };
+        holder.itemView.setOnClickListener(open);
+        holder.ivAvatar.setOnClickListener(open);
     }
 
     @Override
-    public int getItemCount() {
-        return members == null ? 0 : members.size();
+    protected void onBindPayloads(@NonNull MemberViewHolder holder, int position,
+                                  @NonNull List<Object> payloads) {
+        holder.tvName.setText(getItem(position).getName());
     }
 
     /**
@@ -0,0 +1,20 @@
+package com.example.studysync;
+
+import java.util.List;
+
+/** On-device copy of recent chat history, keyed by room and push key. */
+public interface MessageCache {
+
+    /** The newest {@code limit} cached messages of a room, oldest first. */
+    void loadLatest(String roomCode, int limit, Callback<List<ChatMessage>> callback);
+
+    /** Inserts or replaces messages; older ones beyond the per-room cap are dropped. */
+    void putAll(String roomCode, List<ChatMessage> messages);
+
+    void remove(String roomCode, String key);
+
+    void clearRoom(String roomCode);
+
+    /** Drops everything, e.g. on sign-out. */
+    void clearAll();
+}
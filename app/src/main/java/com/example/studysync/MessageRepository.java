@@ -0,0 +1,35 @@
+package com.example.studysync;
+
+import java.util.List;
+
+/** Chat messages at Messages/{roomCode}, ordered by push key. */
+public interface MessageRepository {
+
+    /**
+     * Live window over the newest {@code limit} messages. Like a Firebase
+     * limitToLast query, a new message pushes the oldest one out of the
+     * window and that child is reported as removed.
+     */
+    Registration observeLatest(String roomCode, int limit, ChildListener<ChatMessage> listener);
+
+    /** Live events for {@code fromKey} and every message after it; nothing slides out. */
+    Registration observeFrom(String roomCode, String fromKey, ChildListener<ChatMessage> listener);
+
+    /** Up to {@code limit} messages immediately before {@code beforeKey}, oldest first. */
+    void loadBefore(String roomCode, String beforeKey, int limit, Callback<List<ChatMessage>> callback);
+
+    /** Up to {@code limit} messages immediately after {@code afterKey}, oldest first. */
+    void loadAfter(String roomCode, String afterKey, int limit, Callback<List<ChatMessage>> callback);
+
+    /** Push key for a new message, generated locally so it can be shown before it is sent. */
+    String newKey(String roomCode);
+
+    /**
+     * Stores the message under its messageId (from newKey()) with a server
+     * timestamp and counts it in UserStats. The callback hears back once the
+     * server has accepted or rejected it; the write itself survives restarts.
+     */
+    void send(String roomCode, ChatMessage message, Callback<Void> callback);
+
+    void delete(String roomCode, ChatMessage message, Callback<Void> callback);
+}
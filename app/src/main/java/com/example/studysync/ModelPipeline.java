@@ -0,0 +1,88 @@
+package com.example.studysync;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ModelPipeline
+ *
+ * One background thread that turns data into what the screens bind:
+ * snapshots into models in the repositories, models into adapter rows with
+ * their display strings already formatted. Results come back on the main
+ * thread, so onBindViewHolder only sets fields.
+ *
+ * Work goes through a Lane, one per list on screen. A lane only maps its
+ * newest input — when several arrive before the thread gets to them (the
+ * initial burst of child events, say) the older ones are skipped — and never
+ * delivers a result older than one it already delivered, or after close().
+ */
+public final class ModelPipeline {
+
+    public interface Mapper<S, M> {
+        /** Runs on the pipeline thread. */
+        M map(S source);
+    }
+
+    public interface Receiver<M> {
+        /** Runs on the main thread. */
+        void onModel(M model);
+    }
+
+    private static ModelPipeline instance;
+
+    public static synchronized ModelPipeline get() {
+        if (instance == null) instance = new ModelPipeline();
+        return instance;
+    }
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "model-pipeline");
+        thread.setPriority(Thread.NORM_PRIORITY - 1); // below the UI thread
+        return thread;
+    });
+    private final Handler main = new Handler(Looper.getMainLooper());
+
+    private ModelPipeline() {}
+
+    public <S, M> Lane<S, M> lane(Mapper<S, M> mapper, Receiver<M> receiver) {
+        return new Lane<>(mapper, receiver);
+    }
+
+    // ── Lane ───────────────────────────────────────────────────────────────────
+
+    public final class Lane<S, M> {
+        private final Mapper<S, M> mapper;
+        private final Receiver<M> receiver;
+
+        private volatile int latest;   // last submitted generation
+        private int delivered;         // main thread only
+        private volatile boolean closed;
+
+        private Lane(Mapper<S, M> mapper, Receiver<M> receiver) {
+            this.mapper   = mapper;
+            this.receiver = receiver;
+        }
+
+        /** Main thread. The source must not be modified afterwards. */
+        public void submit(S source) {
+            int generation = ++latest;
+            worker.execute(() -> {
+                if (closed || generation != latest) return; // a newer input is queued
+                M model = mapper.map(source);
+                main.post(() -> {
+                    if (closed || generation <= delivered) return;
+                    delivered = generation;
+                    receiver.onModel(model);
+                });
+            });
+        }
+
+        /** Drops anything still in flight; the lane can't be reused. */
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -7,6 +7,10 @@ public class MyApp extends Application {
     @Override
     public void onCreate() {
         super.onCreate();
+        OfflineSync.init(this); // before anything else uses FirebaseDatabase
+        Backfill.init();        // builds index and counter nodes older accounts lack
+        ServerClock.get();      // offset is known before the first timer screen
+        Outbox.init(this);      // re-sends writes a previous process left unacknowledged
         CloudinaryConfig.init(this);
     }
 }
\ No newline at end of file
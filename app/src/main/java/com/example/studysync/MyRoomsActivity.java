@@ -1,6 +1,5 @@
 package com.example.studysync;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -15,7 +14,6 @@ import android.widget.Toast;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,11 +27,9 @@ public class MyRoomsActivity extends AppCompatActivity {
     private FloatingActionButton fabCreateRoom;
 
     private MyRoomsAdapter adapter;
-    private List<RoomInfo> roomsList = new ArrayList<>();
 
     private FirebaseAuth auth;
-    private DatabaseReference roomsRef;
-    private ValueEventListener roomsListener;
+    private final RoomRepository rooms = Repositories.rooms();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -49,7 +45,6 @@ public class MyRoomsActivity extends AppCompatActivity {
 
         initViews();
         initRecycler();
-        initFirebase();
         loadMyRooms();
         animateHeader();
 
@@ -68,7 +63,7 @@ public class MyRoomsActivity extends AppCompatActivity {
     }
 
     private void initRecycler() {
-        adapter = new MyRoomsAdapter(this, roomsList,
+        adapter = new MyRoomsAdapter(this,
                 new MyRoomsAdapter.OnRoomClickListener() {
                     @Override public void onRoomClick(RoomInfo room) {
                         Intent intent = new Intent(MyRoomsActivity.this,
@@ -84,42 +79,49 @@ public class MyRoomsActivity extends AppCompatActivity {
                 });
 
         rvMyRooms.setLayoutManager(new LinearLayoutManager(this));
-        rvMyRooms.setAdapter(adapter);
-    }
-
-    private void initFirebase() {
-        roomsRef = FirebaseDatabase.getInstance().getReference("Rooms");
+        adapter.attachTo(rvMyRooms, this);
     }
 
+    // Reads only UserRooms/{uid} — never the whole Rooms tree. Sorting and
+    // row strings are done on the ModelPipeline.
     private void loadMyRooms() {
-        String uid = auth.getCurrentUser().getUid();
-        roomsListener = roomsRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                roomsList.clear();
-                for (DataSnapshot roomSnap : snapshot.getChildren()) {
-                    if (!roomSnap.child("members").hasChild(uid)) continue;
-                    String  roomCode   = roomSnap.getKey();
-                    String  creatorId  = roomSnap.child("createdBy").getValue(String.class);
-                    Long    timestamp  = roomSnap.child("createdAt").getValue(Long.class);
-                    int     members    = (int) roomSnap.child("members").getChildrenCount();
-                    boolean isHost     = uid.equals(creatorId);
-                    roomsList.add(new RoomInfo(roomCode, members,
-                            timestamp != null ? timestamp : 0, isHost));
+        ListenerRegistry.whileStarted(this, () -> {
+            ModelPipeline.Lane<List<RoomInfo>, List<MyRoomsAdapter.Row>> rows =
+                    ModelPipeline.get().lane(loaded -> {
+                        List<RoomInfo> sorted = new ArrayList<>(loaded);
+                        Collections.sort(sorted,
+                                (r1, r2) -> Long.compare(r2.getCreatedAt(), r1.getCreatedAt()));
+                        List<MyRoomsAdapter.Row> list = new ArrayList<>(sorted.size());
+                        for (RoomInfo room : sorted) list.add(new MyRoomsAdapter.Row(room));
+                        return list;
+                    }, this::showRooms);
+
+            Registration registration = rooms.observeMyRooms(auth.getCurrentUser().getUid(),
+                    new Callback<List<RoomInfo>>() {
+                @Override
+                public void onResult(List<RoomInfo> loaded) {
+                    rows.submit(loaded);
                 }
-                Collections.sort(roomsList,
-                        (r1, r2) -> Long.compare(r2.getCreatedAt(), r1.getCreatedAt()));
-                adapter.notifyDataSetChanged();
-                emptyLayout.setVisibility(roomsList.isEmpty() ? View.VISIBLE : View.GONE);
-                rvMyRooms.setVisibility(roomsList.isEmpty() ? View.GONE : View.VISIBLE);
-            }
-            @Override public void onCancelled(@NonNull DatabaseError e) {
-                Toast.makeText(MyRoomsActivity.this, "Failed to load rooms",
-                        Toast.LENGTH_SHORT).show();
-            }
+
+                @Override
+                public void onError(String message) {
+                    Toast.makeText(MyRoomsActivity.this, "Failed to load rooms",
+                            Toast.LENGTH_SHORT).show();
+                }
+            });
+            return () -> {
+                rows.close();
+                registration.remove();
+            };
         });
     }
 
+    private void showRooms(List<MyRoomsAdapter.Row> list) {
+        adapter.submit(list);
+        emptyLayout.setVisibility(list.isEmpty() ? View.VISIBLE : View.GONE);
+        rvMyRooms.setVisibility(list.isEmpty() ? View.GONE : View.VISIBLE);
+    }
+
     private void showDeleteDialog(RoomInfo room) {
         new AlertDialog.Builder(this)
                 .setTitle("Delete Room")
@@ -130,10 +132,12 @@ public class MyRoomsActivity extends AppCompatActivity {
     }
 
     private void deleteRoom(String roomCode) {
-        roomsRef.child(roomCode).removeValue().addOnSuccessListener(aVoid -> {
-            FirebaseDatabase.getInstance().getReference("Messages").child(roomCode).removeValue();
-            FirebaseDatabase.getInstance().getReference("Notes").child(roomCode).removeValue();
-            Toast.makeText(this, "Room deleted", Toast.LENGTH_SHORT).show();
+        rooms.delete(roomCode, new Callback<Void>() {
+            @Override
+            public void onResult(Void value) {
+                ChatCache.get(MyRoomsActivity.this).clearRoom(roomCode);
+                Toast.makeText(MyRoomsActivity.this, "Room deleted", Toast.LENGTH_SHORT).show();
+            }
         });
     }
 
@@ -148,10 +152,4 @@ public class MyRoomsActivity extends AppCompatActivity {
                 .setInterpolator(new DecelerateInterpolator())
                 .start();
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (roomsListener != null) roomsRef.removeEventListener(roomsListener);
-    }
 }
\ No newline at end of file
@@ -4,8 +4,6 @@ import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.animation.AlphaAnimation;
-import android.view.animation.Animation;
 import android.widget.Button;
 import android.widget.TextView;
 
@@ -13,16 +11,18 @@ import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
+/**
+ * Rooms keyed by room code. A new room fades in through the RecyclerView's
+ * item animator; a member count change only rebinds the count.
+ */
 public class MyRoomsAdapter
-        extends RecyclerView.Adapter<MyRoomsAdapter.RoomViewHolder> {
+        extends DiffingAdapter<MyRoomsAdapter.Row, MyRoomsAdapter.RoomViewHolder> {
+
+    private static final Object PAYLOAD_MEMBERS = new Object();
 
     private Context context;
-    private List<RoomInfo> roomsList;
     private OnRoomClickListener listener;
 
     public interface OnRoomClickListener {
@@ -30,14 +30,49 @@ public class MyRoomsAdapter
         void onDeleteClick(RoomInfo room);
     }
 
+    /** One room as shown; built on the ModelPipeline, immutable. */
+    public static final class Row {
+        final RoomInfo room;
+        final String code;
+        final String members;
+        final String created;
+
+        public Row(RoomInfo room) {
+            this.room    = room;
+            this.code    = "Room: " + room.getRoomCode();
+            this.members = "👥 " + room.getMemberCount() + " members";
+            this.created = room.getCreatedAt() != 0
+                    ? "Created: " + DisplayFormats.date(room.getCreatedAt())
+                    : "Created: --";
+        }
+    }
+
     public MyRoomsAdapter(Context context,
-                          List<RoomInfo> roomsList,
                           OnRoomClickListener listener) {
+        super(R.layout.item_room);
         this.context = context;
-        this.roomsList = roomsList;
         this.listener = listener;
     }
 
+    @Override
+    protected String keyOf(Row row) {
+        return row.room.getRoomCode();
+    }
+
+    @Override
+    protected boolean sameContents(Row a, Row b) {
+        return a.members.equals(b.members) && sameHeader(a, b);
+    }
+
+    @Override
+    protected Object changePayload(Row a, Row b) {
+        return sameHeader(a, b) ? PAYLOAD_MEMBERS : null;
+    }
+
+    private static boolean sameHeader(Row a, Row b) {
+        return a.room.isHost() == b.room.isHost() && a.created.equals(b.created);
+    }
+
     @NonNull
     @Override
     public RoomViewHolder onCreateViewHolder(
@@ -55,28 +90,12 @@ public class MyRoomsAdapter
             @NonNull RoomViewHolder holder,
             int position) {
 
-        RoomInfo room = roomsList.get(position);
+        Row row = getItem(position);
+        RoomInfo room = row.room;
 
-        holder.tvRoomCode.setText("Room: " + room.getRoomCode());
-
-        holder.tvMemberCount.setText(
-                "👥 " + room.getMemberCount() + " members");
-
-        // Safe timestamp formatting
-        if (room.getCreatedAt() != 0) {
-            SimpleDateFormat sdf =
-                    new SimpleDateFormat("MMM dd, yyyy",
-                            Locale.getDefault());
-
-            holder.tvCreatedDate.setText(
-                    "Created: " +
-                            sdf.format(
-                                    new Date(room.getCreatedAt())
-                            )
-            );
-        } else {
-            holder.tvCreatedDate.setText("Created: --");
-        }
+        holder.tvRoomCode.setText(row.code);
+        holder.tvMemberCount.setText(row.members);
+        holder.tvCreatedDate.setText(row.created);
 
         // Host badge
         if (room.isHost()) {
@@ -87,26 +106,33 @@ public class MyRoomsAdapter
             holder.btnDeleteRoom.setVisibility(View.GONE);
         }
 
-        // Click events
+        // Click events: the row is looked up on click, a payload-only
+        // rebind doesn't refresh these listeners
         holder.cardView.setOnClickListener(v -> {
-            if (listener != null)
-                listener.onRoomClick(room);
+            RoomInfo current = roomAt(holder);
+            if (listener != null && current != null)
+                listener.onRoomClick(current);
         });
 
         holder.btnDeleteRoom.setOnClickListener(v -> {
-            if (listener != null)
-                listener.onDeleteClick(room);
+            RoomInfo current = roomAt(holder);
+            if (listener != null && current != null)
+                listener.onDeleteClick(current);
         });
+    }
 
-        // Smooth fade-in animation
-        Animation fadeIn = new AlphaAnimation(0f, 1f);
-        fadeIn.setDuration(300);
-        holder.itemView.startAnimation(fadeIn);
+    private RoomInfo roomAt(RoomViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position != RecyclerView.NO_POSITION ? getItem(position).room : null;
     }
 
     @Override
-    public int getItemCount() {
-        return roomsList.size();
+    protected void onBindPayloads(
+            @NonNull RoomViewHolder holder,
+            int position,
+            @NonNull List<Object> payloads) {
+
+        holder.tvMemberCount.setText(getItem(position).members);
     }
 
     // ===========================
@@ -1,5 +1,8 @@
 package com.example.studysync;
 
+import com.example.studysync.mapper.SnapshotModel;
+
+@SnapshotModel(key = "id")
 public class Note {
     private String id;
     private String fileName;
@@ -0,0 +1,26 @@
+package com.example.studysync;
+
+import java.util.List;
+
+/** Note metadata at Notes/{roomCode}. */
+public interface NoteRepository {
+
+    Registration observe(String roomCode, Callback<List<Note>> listener);
+
+    /** Stores the note with a server upload time and counts it in UserStats. */
+    void add(String roomCode, Note note, Callback<Void> callback);
+
+    /**
+     * As add(), for several notes in one multi-path write. A note that
+     * already has an id (from newKey()) is stored under it.
+     */
+    void addAll(String roomCode, List<Note> notes, Callback<Void> callback);
+
+    /** Push key for a new note, generated locally; any thread. */
+    String newKey(String roomCode);
+
+    /** Whether Notes/{roomCode}/{noteId} exists on the server. */
+    void exists(String roomCode, String noteId, Callback<Boolean> callback);
+
+    void delete(String roomCode, Note note, Callback<Void> callback);
+}
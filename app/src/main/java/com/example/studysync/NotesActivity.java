@@ -2,6 +2,7 @@ package com.example.studysync;
 
 import android.app.DownloadManager;
 import android.content.BroadcastReceiver;
+import android.content.ClipData;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
@@ -15,25 +16,18 @@ import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.ProgressBar;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.cloudinary.android.MediaManager;
-import com.cloudinary.android.callback.ErrorInfo;
-import com.cloudinary.android.callback.UploadCallback;
+import androidx.work.WorkInfo;
+
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ServerValue;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -48,12 +42,12 @@ public class NotesActivity extends AppCompatActivity {
     private RecyclerView rvNotes;
     private Button btnUploadNote;
     private ProgressBar progressBar;
+    private TextView tvUploadStatus;
 
     private NotesAdapter notesAdapter;
-    private List<Note> notesList;
 
     private String roomCode;
-    private DatabaseReference notesRef;
+    private final NoteRepository notes = Repositories.notes();
     private FirebaseAuth auth;
 
     private ActivityResultLauncher<Intent> filePickerLauncher;
@@ -65,9 +59,10 @@ public class NotesActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_notes);
 
-        rvNotes       = findViewById(R.id.rvNotes);
-        btnUploadNote = findViewById(R.id.btnUploadNote);
-        progressBar   = findViewById(R.id.progressBarNotes);
+        rvNotes        = findViewById(R.id.rvNotes);
+        btnUploadNote  = findViewById(R.id.btnUploadNote);
+        progressBar    = findViewById(R.id.progressBarNotes);
+        tvUploadStatus = findViewById(R.id.tvUploadStatus);
 
         roomCode = getIntent().getStringExtra("roomCode");
         auth     = FirebaseAuth.getInstance();
@@ -78,10 +73,7 @@ public class NotesActivity extends AppCompatActivity {
             return;
         }
 
-        notesRef = FirebaseDatabase.getInstance().getReference("Notes").child(roomCode);
-
-        notesList    = new ArrayList<>();
-        notesAdapter = new NotesAdapter(this, notesList,
+        notesAdapter = new NotesAdapter(this,
                 new NotesAdapter.OnNoteClickListener() {
                     @Override
                     public void onDownloadClick(Note note) {
@@ -95,7 +87,7 @@ public class NotesActivity extends AppCompatActivity {
                 });
 
         rvNotes.setLayoutManager(new LinearLayoutManager(this));
-        rvNotes.setAdapter(notesAdapter);
+        notesAdapter.attachTo(rvNotes, this);
 
         downloadReceiver = new BroadcastReceiver() {
             @Override
@@ -119,25 +111,26 @@ public class NotesActivity extends AppCompatActivity {
             registerReceiver(downloadReceiver, filter);
         }
 
-        // ── File picker ───────────────────────────────────────────────────────
+        // ── File picker (one file or several) ────────────────────────────────
         filePickerLauncher = registerForActivityResult(
                 new ActivityResultContracts.StartActivityForResult(),
                 result -> {
-                    if (result.getResultCode() == RESULT_OK
-                            && result.getData() != null
-                            && result.getData().getData() != null) {
-                        Uri uri = result.getData().getData();
+                    if (result.getResultCode() != RESULT_OK || result.getData() == null) return;
+                    List<Uri> picked = pickedUris(result.getData());
+                    for (Uri uri : picked) {
+                        // Kept until UploadWorker.Stage has copied the file
                         try {
                             getContentResolver().takePersistableUriPermission(
                                     uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
                         } catch (SecurityException e) {
                             Log.w(TAG, "Could not persist URI permission", e);
                         }
-                        uploadFile(uri);
                     }
+                    if (!picked.isEmpty()) uploadFiles(picked);
                 });
 
         loadNotes();
+        watchUploads();
 
         btnUploadNote.setOnClickListener(v -> {
             Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
@@ -150,7 +143,9 @@ public class NotesActivity extends AppCompatActivity {
                     "image/*"
             });
             intent.addCategory(Intent.CATEGORY_OPENABLE);
-            intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
+            intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION
+                    | Intent.FLAG_GRANT_PERSISTABLE_URI_PERMISSION);
             filePickerLauncher.launch(intent);
         });
     }
@@ -165,118 +160,149 @@ public class NotesActivity extends AppCompatActivity {
 
     // ─── Load notes ───────────────────────────────────────────────────────────
 
+    // Rows (with their date and uploader strings) are built on the ModelPipeline
     private void loadNotes() {
-        notesRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                notesList.clear();
-                for (DataSnapshot snap : snapshot.getChildren()) {
-                    Note note = snap.getValue(Note.class);
-                    if (note != null) {
-                        note.setId(snap.getKey());
-                        notesList.add(note);
-                    }
+        String uid = auth.getCurrentUser().getUid();
+        ListenerRegistry.whileStarted(this, () -> {
+            ModelPipeline.Lane<List<Note>, List<NotesAdapter.Row>> rows =
+                    ModelPipeline.get().lane(loaded -> {
+                        List<NotesAdapter.Row> list = new ArrayList<>(loaded.size());
+                        for (Note note : loaded) list.add(new NotesAdapter.Row(note, uid));
+                        return list;
+                    }, notesAdapter::submit);
+
+            Registration registration = notes.observe(roomCode, new Callback<List<Note>>() {
+                @Override
+                public void onResult(List<Note> loaded) {
+                    rows.submit(loaded);
                 }
-                // FIX: Use notifyItemRangeChanged instead of notifyDataSetChanged
-                notesAdapter.notifyDataSetChanged();
-            }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Failed to load notes", error.toException());
-                Toast.makeText(NotesActivity.this,
-                        "Failed to load notes: " + error.getMessage(),
-                        Toast.LENGTH_SHORT).show();
-            }
+                @Override
+                public void onError(String message) {
+                    Log.e(TAG, "Failed to load notes: " + message);
+                    Toast.makeText(NotesActivity.this,
+                            "Failed to load notes: " + message,
+                            Toast.LENGTH_SHORT).show();
+                }
+            });
+            return () -> {
+                rows.close();
+                registration.remove();
+            };
         });
     }
 
     // ─── Upload ───────────────────────────────────────────────────────────────
 
-    private void uploadFile(Uri fileUri) {
-        Log.d(TAG, "=== STARTING CLOUDINARY UPLOAD ===");
+    // Several files come back as ClipData, a single one as the data URI
+    private static List<Uri> pickedUris(Intent data) {
+        List<Uri> uris = new ArrayList<>();
+        ClipData clip = data.getClipData();
+        if (clip != null) {
+            for (int i = 0; i < clip.getItemCount(); i++) {
+                Uri uri = clip.getItemAt(i).getUri();
+                if (uri != null) uris.add(uri);
+            }
+        } else if (data.getData() != null) {
+            uris.add(data.getData());
+        }
+        return uris;
+    }
 
-        long fileSize = getFileSize(fileUri);
+    /**
+     * Hands the files to UploadEngine: the transfers and the Notes write run
+     * in WorkManager, so they finish even if this screen is closed, and join
+     * this room's upload queue behind anything already uploading. The button
+     * stays usable meanwhile. Files over the size limit are skipped.
+     */
+    private void uploadFiles(List<Uri> uris) {
+        List<UploadEngine.NoteFile> files = new ArrayList<>(uris.size());
+        int tooLarge = 0, unreadable = 0;
+        for (Uri uri : uris) {
+            long fileSize = getFileSize(uri);
+            if (fileSize > MAX_FILE_SIZE) {
+                tooLarge++;
+                continue;
+            }
+            if (fileSize == -1) {
+                unreadable++;
+                continue;
+            }
 
-        if (fileSize > MAX_FILE_SIZE) {
-            Toast.makeText(this, "File too large. Maximum size is 10MB",
-                    Toast.LENGTH_LONG).show();
-            return;
+            String tempFileName = getFileName(uri);
+            String fileType     = detectFileType(uri, tempFileName);
+            String fileName = (tempFileName != null && !tempFileName.isEmpty())
+                    ? tempFileName : ("file_" + System.currentTimeMillis() + "_" + files.size());
+            files.add(new UploadEngine.NoteFile(uri, fileName, fileType));
         }
 
-        if (fileSize == -1) {
-            Toast.makeText(this, "Could not read file. Please try again",
+        if (tooLarge > 0) {
+            Toast.makeText(this, tooLarge == 1 && uris.size() == 1
+                            ? "File too large. Maximum size is 25MB"
+                            : tooLarge + " files over 25MB were skipped",
+                    Toast.LENGTH_LONG).show();
+        }
+        if (unreadable > 0) {
+            Toast.makeText(this, unreadable == 1 && uris.size() == 1
+                            ? "Could not read file. Please try again"
+                            : unreadable + " files could not be read",
                     Toast.LENGTH_SHORT).show();
-            return;
         }
+        if (files.isEmpty()) return;
+
+        // Used if the profile has no name when the worker saves the notes
+        String email = auth.getCurrentUser().getEmail();
+        String fallbackName = email != null ? email.split("@")[0] : "Unknown";
+
+        UploadEngine.uploadNotes(this, roomCode, files,
+                auth.getCurrentUser().getUid(), fallbackName);
+        Toast.makeText(this, files.size() == 1
+                        ? "Uploading " + files.get(0).fileName
+                        : "Uploading " + files.size() + " files",
+                Toast.LENGTH_SHORT).show();
+    }
 
-        progressBar.setVisibility(View.VISIBLE);
-        btnUploadNote.setEnabled(false);
-
-        String tempFileName = getFileName(fileUri);
-        String fileType     = detectFileType(fileUri, tempFileName);
-        final String fileName = (tempFileName != null && !tempFileName.isEmpty())
-                ? tempFileName : ("file_" + System.currentTimeMillis());
-
-        MediaManager.get().upload(fileUri)
-                .option("resource_type", "raw")
-                .callback(new UploadCallback() {
-                    @Override
-                    public void onStart(String requestId) {
-                        Log.d(TAG, "Upload started: " + requestId);
-                    }
-
-                    @Override
-                    public void onProgress(String requestId, long bytes, long totalBytes) {
-                        Log.d(TAG, "Upload progress: " + bytes + "/" + totalBytes);
-                    }
-
-                    @Override
-                    public void onSuccess(String requestId, Map resultData) {
-                        String url = (String) resultData.get("secure_url");
-                        Log.d(TAG, "Upload success: " + url);
-
-                        String uid = (auth.getCurrentUser() != null)
-                                ? auth.getCurrentUser().getUid() : "unknown";
-
-                        // Fetch uploader name first so "Uploaded by" is never null
-                        FirebaseDatabase.getInstance().getReference("Users").child(uid)
-                                .addListenerForSingleValueEvent(new ValueEventListener() {
-                                    @Override
-                                    public void onDataChange(@NonNull DataSnapshot userSnap) {
-                                        String uploaderName = userSnap.child("name").getValue(String.class);
-                                        if (uploaderName == null || uploaderName.isEmpty()) {
-                                            uploaderName = (auth.getCurrentUser() != null
-                                                    && auth.getCurrentUser().getEmail() != null)
-                                                    ? auth.getCurrentUser().getEmail().split("@")[0]
-                                                    : "Unknown";
-                                        }
-                                        saveNoteToFirebase(uid, uploaderName, fileName, url, fileType);
-                                    }
-                                    @Override
-                                    public void onCancelled(@NonNull DatabaseError error) {
-                                        saveNoteToFirebase(uid, "Unknown", fileName, url, fileType);
-                                    }
-                                });
-                    }
+    // Progress of this room's uploads, including ones started on an earlier
+    // visit: the bar shows the total, the status line each file
+    private void watchUploads() {
+        UploadEngine.noteUploads(this, roomCode).observe(this, new UploadEngine.Watcher() {
+            @Override
+            protected void onProgress(int active, long sent, long total) {
+                progressBar.setVisibility(active > 0 ? View.VISIBLE : View.GONE);
+                progressBar.setIndeterminate(total == 0);
+                if (total > 0) progressBar.setProgress((int) (sent * 100 / total));
+            }
 
-                    @Override
-                    public void onError(String requestId, ErrorInfo error) {
-                        Log.e(TAG, "Upload error: " + error.getDescription());
-                        runOnUiThread(() -> {
-                            progressBar.setVisibility(View.GONE);
-                            btnUploadNote.setEnabled(true);
-                            Toast.makeText(NotesActivity.this,
-                                    "Upload failed: " + error.getDescription(),
-                                    Toast.LENGTH_LONG).show();
-                        });
-                    }
+            @Override
+            protected void onTransfers(List<UploadEngine.Transfer> transfers) {
+                tvUploadStatus.setVisibility(transfers.isEmpty() ? View.GONE : View.VISIBLE);
+                StringBuilder lines = new StringBuilder();
+                for (UploadEngine.Transfer transfer : transfers) {
+                    if (lines.length() > 0) lines.append('\n');
+                    lines.append(transfer.name).append("  ");
+                    if (transfer.total == 0) lines.append("failed");
+                    else if (transfer.sent == 0) lines.append("waiting");
+                    else lines.append(transfer.sent * 100 / transfer.total).append('%');
+                }
+                tvUploadStatus.setText(lines);
+            }
 
-                    @Override
-                    public void onReschedule(String requestId, ErrorInfo error) {
-                        Log.w(TAG, "Upload rescheduled: " + error.getDescription());
-                    }
-                }).dispatch();
+            @Override
+            protected void onFinished(WorkInfo info) {
+                int failed = UploadEngine.failed(info);
+                if (info.getState() == WorkInfo.State.SUCCEEDED && failed == 0) {
+                    Toast.makeText(NotesActivity.this, "Notes uploaded successfully",
+                            Toast.LENGTH_SHORT).show();
+                } else if (info.getState() == WorkInfo.State.SUCCEEDED) {
+                    Toast.makeText(NotesActivity.this,
+                            failed + (failed == 1 ? " file" : " files") + " could not be uploaded",
+                            Toast.LENGTH_LONG).show();
+                } else if (info.getState() == WorkInfo.State.FAILED) {
+                    Toast.makeText(NotesActivity.this, UploadEngine.error(info),
+                            Toast.LENGTH_LONG).show();
+                }
+            }
+        });
     }
 
     // ─── Download ─────────────────────────────────────────────────────────────
@@ -440,13 +466,21 @@ public class NotesActivity extends AppCompatActivity {
         new androidx.appcompat.app.AlertDialog.Builder(this)
                 .setTitle("Delete Note")
                 .setMessage("Delete \"" + note.getFileName() + "\"?")
-                .setPositiveButton("Delete", (dialog, which) ->
-                        notesRef.child(note.getId()).removeValue()
-                                .addOnSuccessListener(aVoid ->
-                                        Toast.makeText(this, "Note deleted", Toast.LENGTH_SHORT).show())
-                                .addOnFailureListener(e ->
-                                        Toast.makeText(this, "Failed to delete: " + e.getMessage(),
-                                                Toast.LENGTH_SHORT).show()))
+                .setPositiveButton("Delete", (dialog, which) -> {
+                    notes.delete(roomCode, note, new Callback<Void>() {
+                        @Override
+                        public void onResult(Void value) {
+                            Toast.makeText(NotesActivity.this, "Note deleted",
+                                    Toast.LENGTH_SHORT).show();
+                        }
+
+                        @Override
+                        public void onError(String message) {
+                            Toast.makeText(NotesActivity.this, "Failed to delete: " + message,
+                                    Toast.LENGTH_SHORT).show();
+                        }
+                    });
+                })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
@@ -533,31 +567,4 @@ public class NotesActivity extends AppCompatActivity {
         }
         return "other";
     }
-    // ─── Save note to Firebase (called after fetching uploader name) ──────────
-
-    private void saveNoteToFirebase(String uid, String uploaderName,
-                                    String fileName, String url, String fileType) {
-        Map<String, Object> noteData = new HashMap<>();
-        noteData.put("fileName",     fileName);
-        noteData.put("fileUrl",      url);
-        noteData.put("fileType",     fileType);
-        noteData.put("uploaderId",   uid);
-        noteData.put("uploaderName", uploaderName);   // FIX: was missing → showed "null"
-        noteData.put("uploadedAt",   ServerValue.TIMESTAMP); // FIX: was "timestamp" → showed Jan 1970
-
-        notesRef.push().setValue(noteData)
-                .addOnSuccessListener(aVoid -> runOnUiThread(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    btnUploadNote.setEnabled(true);
-                    Toast.makeText(this, "Note uploaded successfully", Toast.LENGTH_SHORT).show();
-                }))
-                .addOnFailureListener(e -> runOnUiThread(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    btnUploadNote.setEnabled(true);
-                    Toast.makeText(this, "Failed to save note: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                }));
-    }
-
-
-}
\ No newline at end of file
+}
@@ -11,17 +11,11 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.auth.FirebaseAuth;
+import java.util.Objects;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
-
-public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHolder> {
+public class NotesAdapter extends DiffingAdapter<NotesAdapter.Row, NotesAdapter.NoteViewHolder> {
 
     private final Context context;
-    private final List<Note> notesList;
     private final OnNoteClickListener listener;
 
     public interface OnNoteClickListener {
@@ -29,10 +23,57 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
         void onDeleteClick(Note note);
     }
 
-    public NotesAdapter(Context context, List<Note> notesList, OnNoteClickListener listener) {
-        this.context   = context;
-        this.notesList = notesList;
-        this.listener  = listener;
+    /** One note as shown; built on the ModelPipeline, immutable. */
+    public static final class Row {
+        final Note note;
+        final String uploader;
+        final String date;
+        final int iconRes;
+        final boolean isOwner;
+
+        public Row(Note note, String currentUserId) {
+            this.note     = note;
+            this.uploader = "Uploaded by: " + note.getUploaderName();
+            this.date     = DisplayFormats.date(note.getUploadedAt());
+            this.iconRes  = iconFor(note.getFileType());
+            this.isOwner  = note.getUploaderId() != null
+                    && note.getUploaderId().equals(currentUserId);
+        }
+
+        // File icon based on type
+        private static int iconFor(String fileType) {
+            if (fileType == null) return android.R.drawable.ic_menu_info_details;
+            switch (fileType.toLowerCase()) {
+                case "pdf":
+                    return android.R.drawable.ic_menu_gallery;
+                case "text":
+                case "document":
+                    return android.R.drawable.ic_menu_edit;
+                default:
+                    return android.R.drawable.ic_menu_info_details;
+            }
+        }
+    }
+
+    public NotesAdapter(Context context, OnNoteClickListener listener) {
+        super(R.layout.item_note);
+        this.context  = context;
+        this.listener = listener;
+    }
+
+    @Override
+    protected String keyOf(Row row) {
+        return row.note.getId();
+    }
+
+    @Override
+    protected boolean sameContents(Row a, Row b) {
+        return a.isOwner == b.isOwner
+                && a.iconRes == b.iconRes
+                && a.date.equals(b.date)
+                && a.uploader.equals(b.uploader)
+                && Objects.equals(a.note.getFileName(), b.note.getFileName())
+                && Objects.equals(a.note.getFileUrl(), b.note.getFileUrl());
     }
 
     @NonNull
@@ -44,38 +85,16 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
 
     @Override
     public void onBindViewHolder(@NonNull NoteViewHolder holder, int position) {
-        Note note = notesList.get(position);
+        Row row = getItem(position);
+        Note note = row.note;
 
         holder.tvFileName.setText(note.getFileName());
-        holder.tvUploader.setText("Uploaded by: " + note.getUploaderName());
-
-        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-        holder.tvDate.setText(sdf.format(new Date(note.getUploadedAt())));
-
-        // File icon based on type
-        String fileType = note.getFileType();
-        if (fileType != null) {
-            switch (fileType.toLowerCase()) {
-                case "pdf":
-                    holder.ivFileIcon.setImageResource(android.R.drawable.ic_menu_gallery);
-                    break;
-                case "text":
-                case "document":
-                    holder.ivFileIcon.setImageResource(android.R.drawable.ic_menu_edit);
-                    break;
-                default:
-                    holder.ivFileIcon.setImageResource(android.R.drawable.ic_menu_info_details);
-            }
-        } else {
-            holder.ivFileIcon.setImageResource(android.R.drawable.ic_menu_info_details);
-        }
+        holder.tvUploader.setText(row.uploader);
+        holder.tvDate.setText(row.date);
+        holder.ivFileIcon.setImageResource(row.iconRes);
 
         // Show delete button only for the uploader
-        String currentUserId = FirebaseAuth.getInstance().getCurrentUser() != null
-                ? FirebaseAuth.getInstance().getCurrentUser().getUid() : "";
-        boolean isOwner = note.getUploaderId() != null
-                && note.getUploaderId().equals(currentUserId);
-        holder.btnDelete.setVisibility(isOwner ? View.VISIBLE : View.GONE);
+        holder.btnDelete.setVisibility(row.isOwner ? View.VISIBLE : View.GONE);
 
         // Download — consume click so it doesn't bubble up
         holder.btnDownload.setOnClickListener(v -> {
@@ -90,11 +109,6 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return notesList == null ? 0 : notesList.size();
-    }
-
     public static class NoteViewHolder extends RecyclerView.ViewHolder {
         ImageView   ivFileIcon;
         TextView    tvFileName, tvUploader, tvDate;
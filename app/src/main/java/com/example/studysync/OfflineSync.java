@@ -0,0 +1,131 @@
+package com.example.studysync;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OfflineSync
+ *
+ * Realtime Database disk persistence plus the keepSynced policy for the
+ * signed-in user. Kept synced while signed in:
+ *
+ *   - Tasks/{uid}, UserRooms/{uid}, UserStats/{uid}
+ *   - for every joined room: Rooms/{code}/timer and the newest
+ *     ChatFeed.PAGE_SIZE messages of Messages/{code} (the same query the
+ *     chat screen opens with, so it is answered from the local cache)
+ *
+ * Screens that read these nodes open from the local cache, even on a bad
+ * connection. Rooms are added and dropped as UserRooms/{uid} changes;
+ * everything is released on sign-out.
+ */
+public final class OfflineSync {
+
+    private static OfflineSync instance;
+
+    private final FirebaseDatabase database;
+
+    private String uid;
+    private final List<Query> userNodes = new ArrayList<>();
+    private final Map<String, List<Query>> roomNodes = new HashMap<>();
+    private ChildEventListener roomsListener;
+
+    /**
+     * Must run before anything else touches FirebaseDatabase, i.e. from
+     * Application.onCreate().
+     */
+    public static void init(Context context) {
+        if (instance != null) return;
+        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        long cacheMb = context.getResources().getInteger(R.integer.rtdb_cache_size_mb);
+        database.setPersistenceCacheSizeBytes(cacheMb * 1024 * 1024);
+        database.setPersistenceEnabled(true);
+
+        instance = new OfflineSync(database);
+        FirebaseAuth.getInstance().addAuthStateListener(auth -> instance.onUser(auth.getCurrentUser()));
+    }
+
+    private OfflineSync(FirebaseDatabase database) {
+        this.database = database;
+    }
+
+    // ── Policy ─────────────────────────────────────────────────────────────────
+
+    private void onUser(FirebaseUser user) {
+        String newUid = user != null ? user.getUid() : null;
+        if (newUid != null && newUid.equals(uid)) return;
+        release();
+        uid = newUid;
+        if (uid == null) return;
+
+        keep(userNodes, database.getReference("Tasks").child(uid));
+        keep(userNodes, database.getReference(UserStats.NODE).child(uid));
+
+        DatabaseReference userRooms = database.getReference(UserRoomsIndex.NODE).child(uid);
+        keep(userNodes, userRooms);
+        roomsListener = userRooms.addChildEventListener(new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousKey) {
+                addRoom(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                dropRoom(snapshot.getKey());
+            }
+
+            @Override public void onChildChanged(@NonNull DataSnapshot snapshot, String previousKey) {}
+            @Override public void onChildMoved(@NonNull DataSnapshot snapshot, String previousKey) {}
+            @Override public void onCancelled(@NonNull DatabaseError error) {}
+        });
+    }
+
+    private void addRoom(String roomCode) {
+        if (roomNodes.containsKey(roomCode)) return;
+        List<Query> nodes = new ArrayList<>();
+        keep(nodes, database.getReference("Rooms").child(roomCode).child("timer"));
+        keep(nodes, database.getReference("Messages").child(roomCode)
+                .orderByKey().limitToLast(ChatFeed.PAGE_SIZE));
+        roomNodes.put(roomCode, nodes);
+    }
+
+    private void dropRoom(String roomCode) {
+        List<Query> nodes = roomNodes.remove(roomCode);
+        if (nodes != null) unkeep(nodes);
+    }
+
+    private void release() {
+        if (roomsListener != null && uid != null) {
+            database.getReference(UserRoomsIndex.NODE).child(uid)
+                    .removeEventListener(roomsListener);
+        }
+        roomsListener = null;
+        unkeep(userNodes);
+        for (List<Query> nodes : roomNodes.values()) unkeep(nodes);
+        roomNodes.clear();
+    }
+
+    private static void keep(List<Query> into, Query query) {
+        query.keepSynced(true);
+        into.add(query);
+    }
+
+    private static void unkeep(List<Query> queries) {
+        for (Query query : queries) query.keepSynced(false);
+        queries.clear();
+    }
+}
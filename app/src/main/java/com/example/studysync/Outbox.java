@@ -0,0 +1,366 @@
+package com.example.studysync;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Outbox
+ *
+ * Durable queue of user-authored writes (chat messages, tasks, notes).
+ * Each entry is one multi-path update keyed by a client-generated push key,
+ * stored in SQLite before the caller is told it was sent.
+ *
+ *   - handed to the database right away, so the local echo is immediate;
+ *     the row is deleted once the server acknowledges it
+ *   - rows left over from a previous process (killed before the ack) are
+ *     re-sent in order when .info/connected turns true — unless the entity
+ *     at checkPath already exists, which means the write landed. That check
+ *     keeps the counter increments in the update from being applied twice.
+ *   - stats(): queue depth and enqueue-to-ack latency
+ *
+ * Main thread only; disk I/O runs on one background thread.
+ */
+public final class Outbox extends SQLiteOpenHelper {
+
+    private static final String TAG = "Outbox";
+
+    private static final String DB_NAME    = "outbox.db";
+    private static final int    DB_VERSION = 1;
+    private static final String TABLE      = "outbox";
+
+    private static Outbox instance;
+
+    public static synchronized void init(Context context) {
+        if (instance == null) instance = new Outbox(context.getApplicationContext());
+    }
+
+    /** Null until init() — callers fall back to writing directly. */
+    public static Outbox get() {
+        return instance;
+    }
+
+    private static final class Entry {
+        final String clientId;
+        final String kind;
+        final String checkPath;
+        final Map<String, Object> updates;
+        final long enqueuedAt;
+        boolean restored;  // from a previous process: may or may not have landed
+        boolean inFlight;
+        Callback<Void> delivery; // hears the server's answer; null for restored rows
+
+        Entry(String clientId, String kind, String checkPath,
+              Map<String, Object> updates, long enqueuedAt) {
+            this.clientId   = clientId;
+            this.kind       = kind;
+            this.checkPath  = checkPath;
+            this.updates    = updates;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /** Snapshot for debug screens and logs. */
+    public static final class Stats {
+        public final int  depth;
+        public final int  sent;
+        public final long lastLatencyMs;
+        public final long averageLatencyMs;
+        public final long maxLatencyMs;
+
+        Stats(int depth, int sent, long lastLatencyMs, long averageLatencyMs, long maxLatencyMs) {
+            this.depth            = depth;
+            this.sent             = sent;
+            this.lastLatencyMs    = lastLatencyMs;
+            this.averageLatencyMs = averageLatencyMs;
+            this.maxLatencyMs     = maxLatencyMs;
+        }
+
+        @Override
+        public String toString() {
+            return "depth=" + depth + " sent=" + sent + " latency last/avg/max="
+                    + lastLatencyMs + "/" + averageLatencyMs + "/" + maxLatencyMs + "ms";
+        }
+    }
+
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final LinkedHashMap<String, Entry> pending = new LinkedHashMap<>(); // enqueue order
+    private boolean connected;
+    private boolean flushing;
+
+    private int  sent;
+    private long lastLatencyMs, totalLatencyMs, maxLatencyMs;
+
+    private Outbox(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+        io.execute(this::restore);
+        FirebaseDatabase.getInstance().getReference(".info/connected")
+                .addValueEventListener(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        connected = Boolean.TRUE.equals(snapshot.getValue(Boolean.class));
+                        if (connected) flushRestored();
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {}
+                });
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + "seq INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "client_id TEXT NOT NULL UNIQUE, "
+                + "kind TEXT NOT NULL, "
+                + "check_path TEXT NOT NULL, "
+                + "updates TEXT NOT NULL, "
+                + "enqueued_at INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // First version — nothing to migrate yet
+    }
+
+    // ── Enqueue ────────────────────────────────────────────────────────────────
+
+    /**
+     * Stores the update and sends it. callback (may be null) hears back once
+     * the write is on disk — from then on it survives restarts and offline
+     * periods; the database listeners show the result.
+     *
+     * @param clientId  the push key the update writes under; enqueuing the
+     *                  same id twice is a no-op
+     * @param checkPath the entity the update creates; if it exists the
+     *                  write has landed
+     */
+    public void enqueue(String kind, String clientId, String checkPath,
+                        Map<String, Object> updates, Callback<Void> callback) {
+        enqueue(kind, clientId, checkPath, updates, callback, null);
+    }
+
+    /**
+     * As above; delivery (may be null) additionally hears back when the
+     * server acknowledges the write, or onError if it was rejected. Only
+     * within this process — a row re-sent after a restart has no listener.
+     */
+    public void enqueue(String kind, String clientId, String checkPath,
+                        Map<String, Object> updates, Callback<Void> callback,
+                        Callback<Void> delivery) {
+        if (pending.containsKey(clientId)) {
+            if (callback != null) callback.onResult(null);
+            return;
+        }
+        Entry entry = new Entry(clientId, kind, checkPath, updates, System.currentTimeMillis());
+        entry.delivery = delivery;
+        pending.put(clientId, entry);
+
+        String json;
+        try {
+            json = toJson(updates).toString();
+        } catch (JSONException e) {
+            pending.remove(clientId);
+            if (callback != null) callback.onError(e.getMessage());
+            if (delivery != null) delivery.onError(e.getMessage());
+            return;
+        }
+        io.execute(() -> {
+            ContentValues values = new ContentValues();
+            values.put("client_id",   clientId);
+            values.put("kind",        kind);
+            values.put("check_path",  checkPath);
+            values.put("updates",     json);
+            values.put("enqueued_at", entry.enqueuedAt);
+            boolean stored;
+            try {
+                stored = getWritableDatabase().insertWithOnConflict(TABLE, null, values,
+                        SQLiteDatabase.CONFLICT_IGNORE) != -1;
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Outbox write failed", e);
+                stored = false;
+            }
+            boolean ok = stored;
+            if (callback != null) {
+                mainHandler.post(() -> {
+                    if (ok) callback.onResult(null);
+                    else callback.onError("Could not queue the change");
+                });
+            }
+        });
+
+        send(entry);
+    }
+
+    // ── Sending ────────────────────────────────────────────────────────────────
+
+    private void send(Entry entry) {
+        entry.inFlight = true;
+        FirebaseRepositories.root().updateChildren(entry.updates)
+                .addOnSuccessListener(aVoid -> {
+                    acknowledged(entry, true);
+                    if (entry.delivery != null) entry.delivery.onResult(null);
+                })
+                .addOnFailureListener(e -> {
+                    // Rejected (rules, validation) — retrying would fail the same way
+                    Log.w(TAG, entry.kind + " " + entry.clientId + " rejected: " + e.getMessage());
+                    acknowledged(entry, false);
+                    if (entry.delivery != null) entry.delivery.onError(e.getMessage());
+                });
+    }
+
+    private void acknowledged(Entry entry, boolean success) {
+        entry.inFlight = false;
+        if (pending.remove(entry.clientId) == null) return;
+        if (success && !entry.restored) {
+            long latency = System.currentTimeMillis() - entry.enqueuedAt;
+            sent++;
+            lastLatencyMs   = latency;
+            totalLatencyMs += latency;
+            maxLatencyMs    = Math.max(maxLatencyMs, latency);
+        }
+        io.execute(() -> getWritableDatabase().delete(TABLE,
+                "client_id = ?", new String[]{entry.clientId}));
+    }
+
+    /** Re-sends leftovers from earlier processes, oldest first, one at a time. */
+    private void flushRestored() {
+        if (flushing || !connected) return;
+        Entry next = null;
+        for (Entry entry : pending.values()) {
+            if (entry.restored && !entry.inFlight) {
+                next = entry;
+                break;
+            }
+        }
+        if (next == null) return;
+
+        Entry entry = next;
+        flushing = true;
+        entry.inFlight = true;
+        FirebaseRepositories.root().child(entry.checkPath).get()
+                .addOnSuccessListener(snapshot -> {
+                    flushing = false;
+                    if (snapshot.exists()) {
+                        acknowledged(entry, true); // landed before the process died
+                    } else {
+                        send(entry);
+                    }
+                    flushRestored();
+                })
+                .addOnFailureListener(e -> {
+                    flushing = false;
+                    entry.inFlight = false; // try again on the next connection
+                });
+    }
+
+    private void restore() {
+        List<Entry> rows = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE,
+                new String[]{"client_id", "kind", "check_path", "updates", "enqueued_at"},
+                null, null, null, null, "seq ASC")) {
+            while (c.moveToNext()) {
+                try {
+                    Entry entry = new Entry(c.getString(0), c.getString(1), c.getString(2),
+                            toMap(new JSONObject(c.getString(3))), c.getLong(4));
+                    entry.restored = true;
+                    rows.add(entry);
+                } catch (JSONException e) {
+                    Log.w(TAG, "Dropping unreadable outbox row " + c.getString(0), e);
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Outbox read failed", e);
+        }
+        mainHandler.post(() -> {
+            // Restored rows are older than anything enqueued since start-up
+            LinkedHashMap<String, Entry> merged = new LinkedHashMap<>();
+            for (Entry entry : rows) merged.put(entry.clientId, entry);
+            for (Entry entry : pending.values()) merged.putIfAbsent(entry.clientId, entry);
+            pending.clear();
+            pending.putAll(merged);
+            flushRestored();
+        });
+    }
+
+    // ── Metrics ────────────────────────────────────────────────────────────────
+
+    public int depth() {
+        return pending.size();
+    }
+
+    public Stats stats() {
+        return new Stats(pending.size(), sent, lastLatencyMs,
+                sent > 0 ? totalLatencyMs / sent : 0, maxLatencyMs);
+    }
+
+    // ── JSON (ServerValue placeholders are plain maps, so they round-trip) ─────
+
+    private static JSONObject toJson(Map<String, Object> map) throws JSONException {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            json.put(e.getKey(), toJsonValue(e.getValue()));
+        }
+        return json;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object toJsonValue(Object value) throws JSONException {
+        if (value == null) return JSONObject.NULL;
+        if (value instanceof Map) return toJson((Map<String, Object>) value);
+        if (value instanceof List) {
+            JSONArray array = new JSONArray();
+            for (Object item : (List<Object>) value) array.put(toJsonValue(item));
+            return array;
+        }
+        return value;
+    }
+
+    private static Map<String, Object> toMap(JSONObject json) throws JSONException {
+        Map<String, Object> map = new HashMap<>();
+        for (Iterator<String> it = json.keys(); it.hasNext(); ) {
+            String key = it.next();
+            map.put(key, fromJsonValue(json.get(key)));
+        }
+        return map;
+    }
+
+    private static Object fromJsonValue(Object value) throws JSONException {
+        if (value == JSONObject.NULL) return null;
+        if (value instanceof JSONObject) return toMap((JSONObject) value);
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            List<Object> list = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) list.add(fromJsonValue(array.get(i)));
+            return list;
+        }
+        return value;
+    }
+}
@@ -1,11 +1,9 @@
 package com.example.studysync;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import android.os.Bundle;
-import android.os.CountDownTimer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
@@ -14,17 +12,22 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.*;
 
 public class PomodoroActivity extends AppCompatActivity {
 
     private TextView tvTimer, tvStatus, tvTimerType;
     private Button btnStart, btnStop, btnReset, btnSettings;
 
-    private CountDownTimer countDownTimer;
+    // Ticks only while a block is running; see render()
+    private final Ticker.Listener countdown = this::onTick;
+    private final char[] clockChars = new char[Ticker.CLOCK_CHARS];
+    private long shownSeconds = -1;
 
     private String roomCode;
-    private DatabaseReference timerRef;
+    private final TimerRepository timer = Repositories.timer();
+
+    private TimerState schedule = TimerState.IDLE;
+    private TimerState.Phase shownPhase;
 
     private boolean isHost = false;
     private boolean isBreak = false;
@@ -32,8 +35,6 @@ public class PomodoroActivity extends AppCompatActivity {
     private int workDuration = 25;
     private int breakDuration = 5;
 
-    private long remainingMillis = 0;
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -54,11 +55,6 @@ public class PomodoroActivity extends AppCompatActivity {
             return;
         }
 
-        timerRef = FirebaseDatabase.getInstance()
-                .getReference("Rooms")
-                .child(roomCode)
-                .child("timer");
-
         checkHost();
         listenForTimer();
         loadTimerSettings();
@@ -74,51 +70,44 @@ public class PomodoroActivity extends AppCompatActivity {
     // ===============================
 
     private void checkHost() {
-        DatabaseReference roomRef = FirebaseDatabase.getInstance()
-                .getReference("Rooms")
-                .child(roomCode);
-
-        roomRef.child("createdBy").addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String creator = snapshot.getValue(String.class);
-                String myUid = FirebaseAuth.getInstance().getCurrentUser().getUid();
-
-                isHost = myUid.equals(creator);
-
-                btnStart.setEnabled(isHost);
-                btnStop.setEnabled(isHost);
-                btnReset.setEnabled(isHost);
-                btnSettings.setEnabled(isHost);
-
-                if (!isHost) {
-                    tvStatus.setText("Host controls the timer");
-                    btnSettings.setVisibility(View.GONE);
-                }
-            }
+        Repositories.rooms().loadHost(roomCode, creator -> {
+            String myUid = FirebaseAuth.getInstance().getCurrentUser().getUid();
+
+            isHost = myUid.equals(creator);
+
+            btnStart.setEnabled(isHost);
+            btnStop.setEnabled(isHost);
+            btnReset.setEnabled(isHost);
+            btnSettings.setEnabled(isHost);
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
+            if (!isHost) {
+                btnSettings.setVisibility(View.GONE);
+            }
+            render();
         });
     }
 
     // ===============================
-    // TIMER START
+    // TIMER START / RESUME
     // ===============================
 
     private void startTimer() {
 
         if (!isHost) return;
 
-        if (remainingMillis == 0) {
-            remainingMillis = (isBreak ? breakDuration : workDuration) * 60L * 1000L;
+        long now = ServerClock.get().now();
+        switch (schedule.phaseAt(now).status) {
+            case PAUSED:
+                timer.resume(roomCode, schedule.pausedTotalAfterResume(now));
+                break;
+            case IDLE:
+            case FINISHED:
+                timer.start(roomCode, workDuration * 60L * 1000L,
+                        breakDuration * 60L * 1000L, TimerState.DEFAULT_CYCLES);
+                break;
+            default:
+                break; // already running
         }
-
-        long endTime = System.currentTimeMillis() + remainingMillis;
-
-        timerRef.child("running").setValue(true);
-        timerRef.child("endTime").setValue(endTime);
-        timerRef.child("isBreak").setValue(isBreak);
     }
 
     // ===============================
@@ -129,11 +118,9 @@ public class PomodoroActivity extends AppCompatActivity {
 
         if (!isHost) return;
 
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
+        if (schedule.phaseAt(ServerClock.get().now()).status == TimerState.Status.RUNNING) {
+            timer.pause(roomCode);
         }
-
-        timerRef.child("running").setValue(false);
     }
 
     // ===============================
@@ -144,51 +131,27 @@ public class PomodoroActivity extends AppCompatActivity {
 
         if (!isHost) return;
 
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
-
-        remainingMillis = (isBreak ? breakDuration : workDuration) * 60L * 1000L;
-
-        timerRef.child("running").setValue(false);
-        timerRef.child("endTime").setValue(0);
-        timerRef.child("isBreak").setValue(isBreak);
-
-        updateTimerUI(remainingMillis);
-        tvStatus.setText("Reset");
+        timer.reset(roomCode);
     }
 
     // ===============================
     // LISTEN FIREBASE TIMER
     // ===============================
 
+    // Only host actions arrive here; work/break transitions are computed locally
     private void listenForTimer() {
 
-        timerRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-
-                Boolean running = snapshot.child("running").getValue(Boolean.class);
-                Long endTime = snapshot.child("endTime").getValue(Long.class);
-                Boolean breakState = snapshot.child("isBreak").getValue(Boolean.class);
-
-                if (running == null) running = false;
-                if (endTime == null) endTime = 0L;
-                if (breakState == null) breakState = false;
-
-                isBreak = breakState;
-
-                if (running) {
-                    startLocalTimer(endTime);
-                    tvStatus.setText(isBreak ? "Break Time" : "Focus Time");
-                } else {
-                    if (countDownTimer != null) countDownTimer.cancel();
-                    tvStatus.setText("Paused");
-                }
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
+        // Detached while the screen is stopped; the schedule is re-read on return
+        ListenerRegistry.whileStarted(this, () -> {
+            Registration registration = timer.observe(roomCode, state -> {
+                schedule = state;
+                shownPhase = null; // a new schedule is not a transition
+                render();
+            });
+            return () -> {
+                registration.remove();
+                Ticker.get().unsubscribe(countdown);
+            };
         });
     }
 
@@ -196,66 +159,79 @@ public class PomodoroActivity extends AppCompatActivity {
     // LOCAL COUNTDOWN
     // ===============================
 
-    private void startLocalTimer(long endTime) {
+    private void render() {
 
-        if (countDownTimer != null) countDownTimer.cancel();
+        TimerState.Phase phase = schedule.phaseAt(ServerClock.get().now());
+        if (shownPhase != null && !phase.sameBlock(shownPhase)) {
+            onBlockFinished(shownPhase, phase);
+        }
+        shownPhase = phase;
+        isBreak = phase.isBreak;
+
+        updateTimerUI(phase.status == TimerState.Status.IDLE
+                ? workDuration * 60L * 1000L : phase.remainingMillis);
+        tvTimerType.setText(isBreak ?
+                "Break (" + breakDuration + " min)" :
+                "Work (" + workDuration + " min)");
+        tvStatus.setText(statusText(phase));
 
-        remainingMillis = endTime - System.currentTimeMillis();
+        if (phase.status == TimerState.Status.RUNNING) {
+            Ticker.get().subscribe(countdown);
+        } else {
+            Ticker.get().unsubscribe(countdown);
+        }
+    }
 
-        if (remainingMillis <= 0) {
-            switchSession();
+    private void onTick(long serverNow) {
+        TimerState.Phase phase = schedule.phaseAt(serverNow);
+        if (!phase.sameBlock(shownPhase)) {
+            render(); // next block, straight from the schedule
             return;
         }
+        updateTimerUI(phase.remainingMillis);
+    }
 
-        countDownTimer = new CountDownTimer(remainingMillis, 1000) {
-
-            @Override
-            public void onTick(long millisUntilFinished) {
-                remainingMillis = millisUntilFinished;
-                updateTimerUI(millisUntilFinished);
-            }
-
-            @Override
-            public void onFinish() {
-                remainingMillis = 0;
-                updateTimerUI(0);
-                switchSession();
-            }
-        }.start();
+    private String statusText(TimerState.Phase phase) {
+        switch (phase.status) {
+            case RUNNING:  return phase.isBreak ? "Break Time" : "Focus Time";
+            case PAUSED:   return "Paused";
+            case FINISHED: return "Session complete";
+            default:       return isHost ? "Ready" : "Host controls the timer";
+        }
     }
 
     // ===============================
-    // SWITCH WORK <-> BREAK
+    // WORK <-> BREAK TRANSITION
     // ===============================
 
-    private void switchSession() {
-
-        if (!isHost) return;
+    private void onBlockFinished(TimerState.Phase previous, TimerState.Phase current) {
 
-        isBreak = !isBreak;
-
-        timerRef.child("isBreak").setValue(isBreak);
-        timerRef.child("running").setValue(false);
-
-        remainingMillis = (isBreak ? breakDuration : workDuration) * 60L * 1000L;
+        if (previous.status == TimerState.Status.RUNNING && !previous.isBreak) {
+            countCompletedSession();
+        }
 
         Toast.makeText(this,
-                isBreak ? "Break Started!" : "Focus Time!",
+                current.status == TimerState.Status.FINISHED ? "Pomodoro complete!"
+                        : current.isBreak ? "Break Started!" : "Focus Time!",
                 Toast.LENGTH_LONG).show();
     }
 
+    // Every member who sat through the focus block gets it on their own stats
+    private void countCompletedSession() {
+        String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
+        Repositories.users().incrementStat(uid, UserStats.POMODORO_SESSIONS, 1);
+    }
+
     // ===============================
     // UI UPDATE
     // ===============================
 
+    // Called every tick: no formatting allocations, no redundant setText
     private void updateTimerUI(long millis) {
-        int minutes = (int) (millis / 1000) / 60;
-        int seconds = (int) (millis / 1000) % 60;
-
-        tvTimer.setText(String.format("%02d:%02d", minutes, seconds));
-        tvTimerType.setText(isBreak ?
-                "Break (" + breakDuration + " min)" :
-                "Work (" + workDuration + " min)");
+        long seconds = millis / 1000;
+        if (seconds == shownSeconds) return;
+        shownSeconds = seconds;
+        tvTimer.setText(clockChars, 0, Ticker.formatClock(seconds, clockChars));
     }
 
     // ===============================
@@ -263,26 +239,13 @@ public class PomodoroActivity extends AppCompatActivity {
     // ===============================
 
     private void loadTimerSettings() {
-        DatabaseReference settingsRef = FirebaseDatabase.getInstance()
-                .getReference("Rooms")
-                .child(roomCode)
-                .child("timerSettings");
-
-        settingsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                Integer work = snapshot.child("workDuration").getValue(Integer.class);
-                Integer breakTime = snapshot.child("breakDuration").getValue(Integer.class);
-
-                if (work != null) workDuration = work;
-                if (breakTime != null) breakDuration = breakTime;
-
-                remainingMillis = workDuration * 60L * 1000L;
-                updateTimerUI(remainingMillis);
+        timer.loadSettings(roomCode, settings -> {
+            if (settings != null) {
+                if (settings.getWorkDuration() > 0) workDuration = settings.getWorkDuration();
+                if (settings.getBreakDuration() > 0) breakDuration = settings.getBreakDuration();
             }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
+            render();
         });
     }
 
@@ -311,22 +274,9 @@ public class PomodoroActivity extends AppCompatActivity {
                     workDuration = newWork;
                     breakDuration = newBreak;
 
-                    FirebaseDatabase.getInstance()
-                            .getReference("Rooms")
-                            .child(roomCode)
-                            .child("timerSettings")
-                            .child("workDuration")
-                            .setValue(newWork);
-
-                    FirebaseDatabase.getInstance()
-                            .getReference("Rooms")
-                            .child(roomCode)
-                            .child("timerSettings")
-                            .child("breakDuration")
-                            .setValue(newBreak);
-
-                    remainingMillis = workDuration * 60L * 1000L;
-                    updateTimerUI(remainingMillis);
+                    timer.saveSettings(roomCode, new TimerState.Settings(newWork, newBreak));
+
+                    render();
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -335,8 +285,6 @@ public class PomodoroActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
+        Ticker.get().unsubscribe(countdown);
     }
 }
\ No newline at end of file
@@ -2,22 +2,21 @@ package com.example.studysync;
 
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.work.WorkInfo;
 
+import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
 import android.text.TextUtils;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.*;
 
 import com.bumptech.glide.Glide;
-import com.cloudinary.android.MediaManager;
-import com.cloudinary.android.callback.UploadCallback;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.*;
 
 import java.util.Map;
 
@@ -25,6 +24,9 @@ import de.hdodenhof.circleimageview.CircleImageView;
 
 public class ProfileActivity extends AppCompatActivity {
 
+    private static final String TAG = "ProfileActivity";
+    private static final String[] IMAGE_TYPES = {"image/*"};
+
     private CircleImageView ivProfileImage;
     private ImageView ivEditPhoto;
     private TextView tvProfileName, tvProfileEmail;
@@ -34,12 +36,12 @@ public class ProfileActivity extends AppCompatActivity {
     private View rowEditName, rowChangePhoto;
 
     private FirebaseAuth auth;
-    private DatabaseReference userRef;
 
     private Uri selectedImageUri;
     private String currentName = "";
+    private String currentPhotoUrl;
 
-    private ActivityResultLauncher<String> imagePicker;
+    private ActivityResultLauncher<String[]> imagePicker;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,6 +54,7 @@ public class ProfileActivity extends AppCompatActivity {
         loadProfile();
         loadStats();
         setupClicks();
+        watchPhotoUpload();
 
         // ✅ Persistent navbar — marks "Profile" tab as active
         BottomNavHelper.setup(this, BottomNavHelper.Tab.PROFILE);
@@ -73,17 +76,21 @@ public class ProfileActivity extends AppCompatActivity {
 
     private void initFirebase() {
         auth = FirebaseAuth.getInstance();
-        String uid = auth.getCurrentUser().getUid();
-        userRef = FirebaseDatabase.getInstance()
-                .getReference("Users")
-                .child(uid);
     }
 
     private void setupImagePicker() {
         imagePicker = registerForActivityResult(
-                new ActivityResultContracts.GetContent(),
+                new ActivityResultContracts.OpenDocument(),
                 uri -> {
                     if (uri != null) {
+                        // Kept until UploadWorker.Stage has read the photo;
+                        // a GetContent grant can lapse before the worker runs
+                        try {
+                            getContentResolver().takePersistableUriPermission(
+                                    uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+                        } catch (SecurityException e) {
+                            Log.w(TAG, "Could not persist URI permission", e);
+                        }
                         selectedImageUri = uri;
                         uploadToCloudinary();
                     }
@@ -96,11 +103,13 @@ public class ProfileActivity extends AppCompatActivity {
         rowEditName.setOnClickListener(v -> showEditNameDialog());
 
         // Photo picker via image or edit row
-        ivProfileImage.setOnClickListener(v -> imagePicker.launch("image/*"));
-        ivEditPhoto.setOnClickListener(v -> imagePicker.launch("image/*"));
-        rowChangePhoto.setOnClickListener(v -> imagePicker.launch("image/*"));
+        ivProfileImage.setOnClickListener(v -> imagePicker.launch(IMAGE_TYPES));
+        ivEditPhoto.setOnClickListener(v -> imagePicker.launch(IMAGE_TYPES));
+        rowChangePhoto.setOnClickListener(v -> imagePicker.launch(IMAGE_TYPES));
 
         btnLogout.setOnClickListener(v -> {
+            UserProfileCache.get().clear();
+            ChatCache.get(this).clearAll();
             auth.signOut();
             finish();
         });
@@ -109,28 +118,22 @@ public class ProfileActivity extends AppCompatActivity {
     private void loadProfile() {
         progressBar.setVisibility(View.VISIBLE);
 
-        userRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                progressBar.setVisibility(View.GONE);
+        UserProfileCache.get().get(auth.getCurrentUser().getUid(), user -> {
+            progressBar.setVisibility(View.GONE);
+            if (user == null) return;
 
-                currentName     = snapshot.child("name").getValue(String.class);
-                String email    = snapshot.child("email").getValue(String.class);
-                String photoUrl = snapshot.child("photoUrl").getValue(String.class);
+            currentName     = user.name;
+            String email    = user.email;
+            String photoUrl = user.photoUrl;
+            currentPhotoUrl = photoUrl;
 
-                tvProfileName.setText(currentName != null ? currentName : "User");
-                tvProfileEmail.setText(email != null ? email : auth.getCurrentUser().getEmail());
+            tvProfileName.setText(currentName != null ? currentName : "User");
+            tvProfileEmail.setText(email != null ? email : auth.getCurrentUser().getEmail());
 
-                if (photoUrl != null && !photoUrl.isEmpty()) {
-                    Glide.with(ProfileActivity.this)
-                            .load(photoUrl)
-                            .into(ivProfileImage);
-                }
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                progressBar.setVisibility(View.GONE);
+            if (photoUrl != null && !photoUrl.isEmpty()) {
+                Glide.with(ProfileActivity.this)
+                        .load(photoUrl)
+                        .into(ivProfileImage);
             }
         });
     }
@@ -139,57 +142,25 @@ public class ProfileActivity extends AppCompatActivity {
     private void loadStats() {
         String uid = auth.getCurrentUser().getUid();
 
-        // Count rooms
-        FirebaseDatabase.getInstance().getReference("Rooms")
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        int count = 0;
-                        for (DataSnapshot room : snapshot.getChildren()) {
-                            if (room.child("members").hasChild(uid)) count++;
-                        }
-                        tvStatRooms.setText(String.valueOf(count));
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        tvStatRooms.setText("0");
-                    }
-                });
-
-        // Count completed tasks
-        FirebaseDatabase.getInstance().getReference("Tasks").child(uid)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        int done = 0;
-                        for (DataSnapshot task : snapshot.getChildren()) {
-                            Boolean completed = task.child("completed").getValue(Boolean.class);
-                            if (Boolean.TRUE.equals(completed)) done++;
-                        }
-                        tvStatTasks.setText(String.valueOf(done));
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        tvStatTasks.setText("0");
-                    }
-                });
-
-        // Count pomodoro sessions (stored per user)
-        userRef.child("pomodoroSessions")
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        Long sessions = snapshot.getValue(Long.class);
-                        tvStatSessions.setText(sessions != null ? String.valueOf(sessions) : "0");
-                    }
+        // Rooms, completed tasks and pomodoro sessions — one read of UserStats/{uid}
+        Repositories.users().loadStats(uid, new Callback<Map<String, Long>>() {
+            @Override
+            public void onResult(Map<String, Long> stats) {
+                tvStatRooms.setText(String.valueOf(
+                        UserStats.read(stats, UserStats.ROOMS)));
+                tvStatTasks.setText(String.valueOf(
+                        UserStats.read(stats, UserStats.TASKS_COMPLETED)));
+                tvStatSessions.setText(String.valueOf(
+                        UserStats.read(stats, UserStats.POMODORO_SESSIONS)));
+            }
 
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        tvStatSessions.setText("0");
-                    }
-                });
+            @Override
+            public void onError(String message) {
+                tvStatRooms.setText("0");
+                tvStatTasks.setText("0");
+                tvStatSessions.setText("0");
+            }
+        });
     }
 
     private void showEditNameDialog() {
@@ -209,49 +180,65 @@ public class ProfileActivity extends AppCompatActivity {
                 etNewName.setError("Enter a valid name");
                 return;
             }
-            userRef.child("name").setValue(newName)
-                    .addOnSuccessListener(aVoid -> {
-                        tvProfileName.setText(newName);
-                        currentName = newName;
-                        dialog.dismiss();
-                        Toast.makeText(this, "Name updated ✅", Toast.LENGTH_SHORT).show();
-                    });
+            saveProfileField("name", newName, value -> {
+                tvProfileName.setText(newName);
+                currentName = newName;
+                dialog.dismiss();
+                Toast.makeText(this, "Name updated ✅", Toast.LENGTH_SHORT).show();
+            });
         });
 
         view.findViewById(R.id.btnCancelName).setOnClickListener(v -> dialog.dismiss());
         dialog.show();
     }
 
+    /**
+     * UploadEngine uploads the photo and writes photoUrl from WorkManager,
+     * so leaving this screen doesn't lose it; watchPhotoUpload() shows it.
+     */
     private void uploadToCloudinary() {
         progressBar.setVisibility(View.VISIBLE);
+        UploadEngine.uploadProfilePhoto(this, auth.getCurrentUser().getUid(), selectedImageUri);
+    }
 
-        MediaManager.get().upload(selectedImageUri)
-                .unsigned("studysync_profiles")
-                .callback(new UploadCallback() {
-                    @Override public void onStart(String requestId) {}
-                    @Override public void onProgress(String requestId, long bytes, long totalBytes) {}
-
-                    @Override
-                    public void onSuccess(String requestId, Map resultData) {
-                        String imageUrl = resultData.get("secure_url").toString();
-                        userRef.child("photoUrl").setValue(imageUrl);
-                        Glide.with(ProfileActivity.this).load(imageUrl).into(ivProfileImage);
-                        progressBar.setVisibility(View.GONE);
-                        Toast.makeText(ProfileActivity.this, "Photo updated ✅", Toast.LENGTH_SHORT).show();
-                    }
+    private void watchPhotoUpload() {
+        String uid = auth.getCurrentUser().getUid();
+        UploadEngine.photoUploads(this, uid).observe(this, new UploadEngine.Watcher() {
+            @Override
+            protected void onProgress(int active, long sent, long total) {
+                if (active > 0) progressBar.setVisibility(View.VISIBLE);
+            }
 
-                    @Override
-                    public void onError(String requestId,
-                                        com.cloudinary.android.callback.ErrorInfo error) {
-                        progressBar.setVisibility(View.GONE);
-                        Toast.makeText(ProfileActivity.this,
-                                "Upload failed: " + error.getDescription(), Toast.LENGTH_LONG).show();
-                    }
+            @Override
+            protected void onFinished(WorkInfo info) {
+                progressBar.setVisibility(View.GONE);
+                if (info.getState() == WorkInfo.State.SUCCEEDED) {
+                    // The worker already saved it and updated the profile cache
+                    currentPhotoUrl = UploadEngine.url(info);
+                    Glide.with(ProfileActivity.this).load(currentPhotoUrl).into(ivProfileImage);
+                    Toast.makeText(ProfileActivity.this, "Photo updated ✅", Toast.LENGTH_SHORT).show();
+                } else if (info.getState() == WorkInfo.State.FAILED) {
+                    Toast.makeText(ProfileActivity.this,
+                            UploadEngine.error(info), Toast.LENGTH_LONG).show();
+                }
+            }
+        });
+    }
 
-                    @Override
-                    public void onReschedule(String requestId,
-                                             com.cloudinary.android.callback.ErrorInfo error) {}
-                })
-                .dispatch();
+    /**
+     * One-field profile edit. UserRepository writes the updatedAt stamp with
+     * it, so every UserProfileCache (here and on other devices) picks up the
+     * change; our own cache is updated right away.
+     */
+    private void saveProfileField(String field, String value, Callback<Void> callback) {
+        String uid = auth.getCurrentUser().getUid();
+        User edited = new User(
+                "name".equals(field) ? value : currentName,
+                tvProfileEmail.getText().toString(),
+                "photoUrl".equals(field) ? value : currentPhotoUrl);
+        if ("photoUrl".equals(field)) currentPhotoUrl = value;
+
+        UserProfileCache.get().edited(uid, edited);
+        Repositories.users().updateProfile(uid, field, value, callback);
     }
-}
\ No newline at end of file
+}
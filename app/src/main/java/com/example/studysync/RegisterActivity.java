@@ -135,10 +135,34 @@ public class RegisterActivity extends AppCompatActivity {
         return true;
     }
 
+    // The photo is downscaled and stripped of its metadata first; if that
+    // fails the original is uploaded
     private void uploadProfileImage(String uid, String name, String email) {
-        StorageReference ref = storageRef.child(uid + ".jpg");
+        ImagePipeline.shrinkAsync(this, selectedImageUri, ImagePipeline.Target.AVATAR,
+                new Callback<ImagePipeline.Result>() {
+                    @Override
+                    public void onResult(ImagePipeline.Result shrunk) {
+                        putProfileImage(uid, name, email, shrunk);
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        putProfileImage(uid, name, email, null);
+                    }
+                });
+    }
 
-        ref.putFile(selectedImageUri)
+    private void putProfileImage(String uid, String name, String email,
+                                 ImagePipeline.Result shrunk) {
+        Uri file = shrunk != null ? Uri.fromFile(shrunk.file) : selectedImageUri;
+        StorageReference ref = shrunk != null
+                ? storageRef.child(uid + "." + shrunk.format.extension)
+                : storageRef.child(uid + ".jpg");
+        StorageMetadata metadata = shrunk != null
+                ? new StorageMetadata.Builder().setContentType(shrunk.format.mimeType).build()
+                : new StorageMetadata();
+
+        ref.putFile(file, metadata)
                 .addOnSuccessListener(taskSnapshot ->
                         ref.getDownloadUrl().addOnSuccessListener(uri ->
                                 saveUserToDatabase(uid, name, email, uri.toString())
@@ -146,7 +170,10 @@ public class RegisterActivity extends AppCompatActivity {
                 )
                 .addOnFailureListener(e ->
                         saveUserToDatabase(uid, name, email, "")
-                );
+                )
+                .addOnCompleteListener(task -> {
+                    if (shrunk != null) shrunk.file.delete();
+                });
     }
 
     private void saveUserToDatabase(String uid, String name, String email, String photoUrl) {
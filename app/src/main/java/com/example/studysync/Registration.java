@@ -0,0 +1,7 @@
+package com.example.studysync;
+
+/** Handle for a live repository listener. */
+public interface Registration {
+
+    void remove();
+}
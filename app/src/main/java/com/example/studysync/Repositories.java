@@ -0,0 +1,62 @@
+package com.example.studysync;
+
+/**
+ * Repositories
+ *
+ * Single place screens get their data access from. Defaults to the Firebase
+ * implementations; tests and benchmarks swap in another backend with
+ * {@link #install} (see InMemoryBackend under app/src/test).
+ */
+public final class Repositories {
+
+    private static RoomRepository    rooms;
+    private static MessageRepository messages;
+    private static NoteRepository    notes;
+    private static TaskRepository    tasks;
+    private static UserRepository    users;
+    private static TimerRepository   timer;
+
+    private Repositories() {}
+
+    public static synchronized RoomRepository rooms() {
+        if (rooms == null) rooms = new FirebaseRoomRepository();
+        return rooms;
+    }
+
+    public static synchronized MessageRepository messages() {
+        if (messages == null) messages = new FirebaseMessageRepository();
+        return messages;
+    }
+
+    public static synchronized NoteRepository notes() {
+        if (notes == null) notes = new FirebaseNoteRepository();
+        return notes;
+    }
+
+    public static synchronized TaskRepository tasks() {
+        if (tasks == null) tasks = new FirebaseTaskRepository();
+        return tasks;
+    }
+
+    public static synchronized UserRepository users() {
+        if (users == null) users = new FirebaseUserRepository();
+        return users;
+    }
+
+    public static synchronized TimerRepository timer() {
+        if (timer == null) timer = new FirebaseTimerRepository();
+        return timer;
+    }
+
+    /** Replaces every repository; pass nulls to go back to Firebase. */
+    public static synchronized void install(RoomRepository rooms, MessageRepository messages,
+                                            NoteRepository notes, TaskRepository tasks,
+                                            UserRepository users, TimerRepository timer) {
+        Repositories.rooms    = rooms;
+        Repositories.messages = messages;
+        Repositories.notes    = notes;
+        Repositories.tasks    = tasks;
+        Repositories.users    = users;
+        Repositories.timer    = timer;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.studysync;
 
+import com.example.studysync.mapper.SnapshotModel;
+
+@SnapshotModel(key = "roomCode")
 public class RoomInfo {
     private String roomCode;
+    private String roomName;
     private int memberCount;
     private long createdAt;
     private boolean isHost;
@@ -18,6 +22,9 @@ public class RoomInfo {
     public String getRoomCode() { return roomCode; }
     public void setRoomCode(String roomCode) { this.roomCode = roomCode; }
 
+    public String getRoomName() { return roomName != null ? roomName : roomCode; }
+    public void setRoomName(String roomName) { this.roomName = roomName; }
+
     public int getMemberCount() { return memberCount; }
     public void setMemberCount(int memberCount) { this.memberCount = memberCount; }
 
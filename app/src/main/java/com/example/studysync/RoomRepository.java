@@ -0,0 +1,36 @@
+package com.example.studysync;
+
+import java.util.Collection;
+import java.util.List;
+
+/** Rooms/{roomCode} and the UserRooms/{uid} membership index. */
+public interface RoomRepository {
+
+    /** Delivers false when the code is already taken. */
+    void create(String roomCode, String creatorUid, Callback<Boolean> callback);
+
+    /** Delivers false when the room doesn't exist. */
+    void join(String roomCode, String uid, Callback<Boolean> callback);
+
+    /**
+     * Removes {@code uid} from the room.
+     *
+     * @param memberUids current members, used to update their cached member count
+     */
+    void leave(String roomCode, String uid, Collection<String> memberUids, Callback<Void> callback);
+
+    /** Deletes the room with its messages, notes and index entries. */
+    void delete(String roomCode, Callback<Void> callback);
+
+    void exists(String roomCode, Callback<Boolean> callback);
+
+    void loadHost(String roomCode, Callback<String> callback);
+
+    /** Child events on Rooms/{roomCode}/members, keyed by uid. */
+    Registration observeMembers(String roomCode, ChildListener<Boolean> listener);
+
+    Registration observeMyRooms(String uid, Callback<List<RoomInfo>> listener);
+
+    /** The {@code limit} most recently created rooms of a user, oldest first. */
+    void loadRecentRooms(String uid, int limit, Callback<List<RoomInfo>> callback);
+}
@@ -0,0 +1,52 @@
+package com.example.studysync;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+/**
+ * ServerClock
+ *
+ * Estimate of the Firebase server's clock, from the local clock plus
+ * .info/serverTimeOffset. The offset is pushed by the client SDK, so
+ * keeping it current costs no reads.
+ *
+ * Shared timestamps written with ServerValue.TIMESTAMP must be compared
+ * against now() rather than System.currentTimeMillis(); then devices with
+ * skewed clocks still agree on elapsed and remaining time.
+ */
+public final class ServerClock {
+
+    private static ServerClock instance;
+
+    private volatile long offsetMs;
+
+    public static synchronized ServerClock get() {
+        if (instance == null) instance = new ServerClock();
+        return instance;
+    }
+
+    private ServerClock() {
+        FirebaseDatabase.getInstance().getReference(".info/serverTimeOffset")
+                .addValueEventListener(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        Long offset = snapshot.getValue(Long.class);
+                        offsetMs = offset != null ? offset : 0L;
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        // Keep the last known offset
+                    }
+                });
+    }
+
+    /** Current server time in epoch millis. */
+    public long now() {
+        return System.currentTimeMillis() + offsetMs;
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.studysync;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 
@@ -21,11 +20,8 @@ import android.widget.Toast;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.*;
 
 import java.security.SecureRandom;
-import java.util.HashMap;
-import java.util.Map;
 
 public class StudyRoomActivity extends AppCompatActivity {
 
@@ -156,52 +152,26 @@ public class StudyRoomActivity extends AppCompatActivity {
         setInProgress(true);
         String roomCode = generateRandomCode();
 
-        DatabaseReference roomsRef = FirebaseDatabase.getInstance().getReference("Rooms");
-        roomsRef.child(roomCode).get().addOnCompleteListener(task -> {
-            if (!task.isSuccessful()) {
-                handleError("Failed to check room availability. Try again.");
-                return;
+        Repositories.rooms().create(roomCode, currentUser.getUid(), new Callback<Boolean>() {
+            @Override
+            public void onResult(Boolean created) {
+                if (!created) {
+                    setInProgress(false);
+                    createRoom(); // code collision — regenerate
+                    return;
+                }
+                Log.d(TAG, "✅ Room created: " + roomCode);
+                showSuccessToast("Room created! Code: " + roomCode);
+                navigateToRoom(roomCode);
             }
-            DataSnapshot snap = task.getResult();
-            if (snap != null && snap.exists()) {
-                setInProgress(false);
-                createRoom(); // code collision — regenerate
-            } else {
-                createRoomInDatabase(roomCode, currentUser.getUid());
+
+            @Override
+            public void onError(String message) {
+                handleError("Error creating room: " + message);
             }
         });
     }
 
-    private void createRoomInDatabase(String roomCode, String creatorUid) {
-        DatabaseReference roomRef = FirebaseDatabase.getInstance()
-                .getReference("Rooms").child(roomCode);
-
-        // Save room name = roomCode for now (can be extended to let user name it)
-        Map<String, Object> roomData = new HashMap<>();
-        roomData.put("roomCode",  roomCode);
-        roomData.put("roomName",  roomCode);      // used by Recent Rooms chips
-        roomData.put("createdBy", creatorUid);
-        roomData.put("createdAt", ServerValue.TIMESTAMP);
-
-        Map<String, Object> members = new HashMap<>();
-        members.put(creatorUid, true);
-        roomData.put("members", members);
-
-        Map<String, Object> timer = new HashMap<>();
-        timer.put("running", false);
-        timer.put("endTime", 0);
-        timer.put("isBreak", false);
-        roomData.put("timer", timer);
-
-        roomRef.setValue(roomData)
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "✅ Room created: " + roomCode);
-                    showSuccessToast("Room created! Code: " + roomCode);
-                    navigateToRoom(roomCode);
-                })
-                .addOnFailureListener(e -> handleError("Error creating room: " + e.getMessage()));
-    }
-
     // ── Join Room ──────────────────────────────────────────────────────────────
     private void joinRoom() {
         String roomCode = etRoomCode.getText() != null
@@ -229,27 +199,24 @@ public class StudyRoomActivity extends AppCompatActivity {
         }
 
         setInProgress(true);
-        DatabaseReference roomRef = FirebaseDatabase.getInstance()
-                .getReference("Rooms").child(roomCode);
-
-        roomRef.get().addOnCompleteListener(task -> {
-            if (!task.isSuccessful()) {
-                handleError("Failed to check room. Try again.");
-                return;
-            }
-            DataSnapshot snap = task.getResult();
-            if (snap != null && snap.exists()) {
-                roomRef.child("members").child(currentUser.getUid()).setValue(true)
-                        .addOnSuccessListener(aVoid -> {
-                            showSuccessToast("Joined room " + roomCode + "!");
-                            navigateToRoom(roomCode);
-                        })
-                        .addOnFailureListener(e -> handleError("Failed to join: " + e.getMessage()));
-            } else {
+        Repositories.rooms().join(roomCode, currentUser.getUid(), new Callback<Boolean>() {
+            @Override
+            public void onResult(Boolean joined) {
+                if (joined) {
+                    showSuccessToast("Joined room " + roomCode + "!");
+                    navigateToRoom(roomCode);
+                    return;
+                }
                 setInProgress(false);
                 etRoomCode.setError("This room doesn't exist.");
                 shakeView(etRoomCode);
-                Toast.makeText(this, "Room not found — check the code.", Toast.LENGTH_SHORT).show();
+                Toast.makeText(StudyRoomActivity.this,
+                        "Room not found — check the code.", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(String message) {
+                handleError("Failed to join: " + message);
             }
         });
     }
@@ -1,6 +1,5 @@
 package com.example.studysync;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -13,7 +12,6 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.*;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,14 +25,15 @@ public class StudyRoomInsideActivity extends AppCompatActivity {
 
     private RecyclerView rvMembers;
     private MembersAdapter membersAdapter;
-    private List<Member> membersList;
+    private final List<String> memberUids = new ArrayList<>(); // raw keys of Rooms/{roomCode}/members
+    private final MemberResolver memberResolver = new MemberResolver();
 
     private String roomCode;
     private String currentUserId;
     private boolean isHost = false;
 
     private FirebaseAuth auth;
-    private DatabaseReference roomRef;
+    private final RoomRepository rooms = Repositories.rooms();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -80,14 +79,11 @@ public class StudyRoomInsideActivity extends AppCompatActivity {
 
         rvMembers.setLayoutManager(
                 new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false));
-        membersList    = new ArrayList<>();
-        membersAdapter = new MembersAdapter(this, membersList, false, this::removeMember);
-        rvMembers.setAdapter(membersAdapter);
+        membersAdapter = new MembersAdapter(this, new ArrayList<>(), false, this::removeMember);
+        membersAdapter.attachTo(rvMembers, this);
 
         tvRoomCode.setText("Room Code: " + roomCode);
 
-        roomRef = FirebaseDatabase.getInstance().getReference("Rooms").child(roomCode);
-
         verifyRoomExists();
         checkIfHost();   // ← determines isHost, then calls loadMembers()
 
@@ -121,21 +117,21 @@ public class StudyRoomInsideActivity extends AppCompatActivity {
     /**
      * Reads Rooms/{roomCode}/hostId from Firebase.
      * If it matches the current user → isHost = true.
-     * Then loads members so the adapter already knows the host status.
+     * Then loads members (the adapter is told the host status first).
      */
     private void checkIfHost() {
-        roomRef.child("createdBy").addListenerForSingleValueEvent(new ValueEventListener() {
+        rooms.loadHost(roomCode, new Callback<String>() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String hostId = snapshot.getValue(String.class);
+            public void onResult(String hostId) {
                 isHost = currentUserId.equals(hostId);
                 Log.d(TAG, "isHost=" + isHost);
+                membersAdapter.setHost(isHost);
                 loadMembers();
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "checkIfHost cancelled: " + error.getMessage());
+            public void onError(String message) {
+                Log.e(TAG, "checkIfHost cancelled: " + message);
                 loadMembers(); // load anyway, isHost stays false
             }
         });
@@ -145,15 +141,24 @@ public class StudyRoomInsideActivity extends AppCompatActivity {
 
     /**
      * Called by MembersAdapter when the host confirms removal.
-     * Removes the member's UID from Rooms/{roomCode}/members.
+     * Removes the member's UID from Rooms/{roomCode}/members together with
+     * their UserRooms entry.
      */
     private void removeMember(String uid) {
         if (!isHost) return;
-        roomRef.child("members").child(uid).removeValue()
-                .addOnSuccessListener(aVoid ->
-                        Toast.makeText(this, "Member removed", Toast.LENGTH_SHORT).show())
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Failed to remove member", Toast.LENGTH_SHORT).show());
+        rooms.leave(roomCode, uid, memberUids, new Callback<Void>() {
+            @Override
+            public void onResult(Void value) {
+                Toast.makeText(StudyRoomInsideActivity.this, "Member removed",
+                        Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(String message) {
+                Toast.makeText(StudyRoomInsideActivity.this, "Failed to remove member",
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     // ─── Video call ───────────────────────────────────────────────────────────
@@ -164,38 +169,23 @@ public class StudyRoomInsideActivity extends AppCompatActivity {
     }
 
     private void openVideoCall() {
-        DatabaseReference userRef = FirebaseDatabase.getInstance()
-                .getReference("Users").child(currentUserId);
-
-        userRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String userName = "User";
-                if (snapshot.exists()) {
-                    String name = snapshot.child("name").getValue(String.class);
-                    if (name != null && !name.isEmpty()) userName = name;
-                }
-                Intent intent = new Intent(StudyRoomInsideActivity.this, VideoCallActivity.class);
-                intent.putExtra("roomCode", roomCode);
-                intent.putExtra("userName", userName);
-                startActivity(intent);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(StudyRoomInsideActivity.this,
-                        "Failed to load user data", Toast.LENGTH_SHORT).show();
-            }
+        UserProfileCache.get().get(currentUserId, user -> {
+            String userName = "User";
+            if (user != null && user.name != null && !user.name.isEmpty()) userName = user.name;
+            Intent intent = new Intent(StudyRoomInsideActivity.this, VideoCallActivity.class);
+            intent.putExtra("roomCode", roomCode);
+            intent.putExtra("userName", userName);
+            startActivity(intent);
         });
     }
 
     // ─── Room existence ───────────────────────────────────────────────────────
 
     private void verifyRoomExists() {
-        roomRef.addListenerForSingleValueEvent(new ValueEventListener() {
+        rooms.exists(roomCode, new Callback<Boolean>() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (!snapshot.exists()) {
+            public void onResult(Boolean exists) {
+                if (!exists) {
                     Toast.makeText(StudyRoomInsideActivity.this,
                             "This room no longer exists", Toast.LENGTH_SHORT).show();
                     finish();
@@ -203,84 +193,43 @@ public class StudyRoomInsideActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error verifying room: " + error.getMessage());
+            public void onError(String message) {
+                Log.e(TAG, "Error verifying room: " + message);
             }
         });
     }
 
     // ─── Members loader ───────────────────────────────────────────────────────
 
+    /**
+     * Child events on Rooms/{roomCode}/members: a join resolves only the new
+     * uid (through MemberResolver's cache) and inserts one row; a leave
+     * removes one row. The adapter is never rebuilt.
+     */
     private void loadMembers() {
-        roomRef.child("members").addValueEventListener(new ValueEventListener() {
+        ListenerRegistry.untilDestroyed(this, () -> rooms.observeMembers(roomCode, new ChildListener<Boolean>() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                membersList.clear();
-                long total = snapshot.getChildrenCount();
-
-                if (total == 0) {
-                    // Rebuild adapter with current isHost so long-press logic is correct
-                    membersAdapter = new MembersAdapter(
-                            StudyRoomInsideActivity.this, membersList, isHost,
-                            StudyRoomInsideActivity.this::removeMember);
-                    rvMembers.setAdapter(membersAdapter);
-                    membersAdapter.updateList(membersList);
-                    return;
-                }
+            public void onAdded(String uid, Boolean value) {
+                memberUids.add(uid);
+                memberResolver.resolve(uid, member -> {
+                    if (memberUids.contains(uid)) membersAdapter.addOrUpdate(member);
+                });
+            }
 
-                final long[] processed = {0};
-
-                for (DataSnapshot memberSnap : snapshot.getChildren()) {
-                    String uid = memberSnap.getKey();
-
-                    FirebaseDatabase.getInstance()
-                            .getReference("Users").child(uid)
-                            .addListenerForSingleValueEvent(new ValueEventListener() {
-                                @Override
-                                public void onDataChange(@NonNull DataSnapshot userSnap) {
-                                    String name  = userSnap.child("name").getValue(String.class);
-                                    String email = userSnap.child("email").getValue(String.class);
-                                    String photo = userSnap.child("photoUrl").getValue(String.class);
-
-                                    String displayName  = (name  != null && !name.isEmpty())  ? name  : uid;
-                                    String displayEmail = (email != null && !email.isEmpty()) ? email : "";
-
-                                    membersList.add(new Member(uid, displayName, displayEmail, photo));
-
-                                    processed[0]++;
-                                    if (processed[0] == total) {
-                                        // Rebuild adapter with correct isHost value
-                                        membersAdapter = new MembersAdapter(
-                                                StudyRoomInsideActivity.this,
-                                                new ArrayList<>(membersList),
-                                                isHost,
-                                                StudyRoomInsideActivity.this::removeMember);
-                                        rvMembers.setAdapter(membersAdapter);
-                                    }
-                                }
-
-                                @Override
-                                public void onCancelled(@NonNull DatabaseError error) {
-                                    processed[0]++;
-                                    if (processed[0] == total) {
-                                        membersAdapter = new MembersAdapter(
-                                                StudyRoomInsideActivity.this,
-                                                new ArrayList<>(membersList),
-                                                isHost,
-                                                StudyRoomInsideActivity.this::removeMember);
-                                        rvMembers.setAdapter(membersAdapter);
-                                    }
-                                }
-                            });
-                }
+            @Override
+            public void onRemoved(String uid) {
+                memberUids.remove(uid);
+                membersAdapter.remove(uid);
             }
 
+            @Override public void onChanged(String uid, Boolean value) {}
+
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            public void onError(String message) {
                 Toast.makeText(StudyRoomInsideActivity.this,
                         "Failed to load members", Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
 
     // ─── Leave room ───────────────────────────────────────────────────────────
@@ -288,12 +237,19 @@ public class StudyRoomInsideActivity extends AppCompatActivity {
     private void leaveRoom() {
         if (auth.getCurrentUser() == null) return;
         String uid = auth.getCurrentUser().getUid();
-        roomRef.child("members").child(uid).removeValue()
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(this, "You left the room", Toast.LENGTH_SHORT).show();
-                    finish();
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Failed to leave room", Toast.LENGTH_SHORT).show());
+        rooms.leave(roomCode, uid, memberUids, new Callback<Void>() {
+            @Override
+            public void onResult(Void value) {
+                Toast.makeText(StudyRoomInsideActivity.this, "You left the room",
+                        Toast.LENGTH_SHORT).show();
+                finish();
+            }
+
+            @Override
+            public void onError(String message) {
+                Toast.makeText(StudyRoomInsideActivity.this, "Failed to leave room",
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -1,27 +1,29 @@
 package com.example.studysync;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ImageButton;
+import android.widget.LinearLayout;
+import android.widget.PopupMenu;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class TaskActivity extends AppCompatActivity {
 
@@ -29,15 +31,41 @@ public class TaskActivity extends AppCompatActivity {
     private FloatingActionButton fabAddTask;
     private TextView tvProgress;
     private ProgressBar progressBar;
+    private ImageButton btnTaskActions;
+    private LinearLayout selectionBar;
+    private TextView tvSelectedCount;
 
     private TaskAdapter taskAdapter;
     private List<Task> taskList = new ArrayList<>();
 
-    private DatabaseReference tasksRef;
+    private final TaskRepository tasks = Repositories.tasks();
     private FirebaseAuth auth;
     private String userId;
 
-    private ValueEventListener taskListener;
+    private int completedCount;
+    private boolean progressUpdatePending;
+
+    // Checkbox toggles are shown at once and written once the user pauses
+    private static final long TOGGLE_WINDOW_MS = 600;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final WriteCoalescer<Boolean> toggleWrites = new WriteCoalescer<>(
+            new WriteCoalescer.Timer() {
+                @Override
+                public void schedule(Runnable task, long delayMs) {
+                    handler.postDelayed(task, delayMs);
+                }
+
+                @Override
+                public void cancel(Runnable task) {
+                    handler.removeCallbacks(task);
+                }
+            },
+            TOGGLE_WINDOW_MS,
+            (taskId, base, completed) -> {
+                Task stored = new Task(taskId, null, base, 0);
+                tasks.setCompleted(userId, stored, completed);
+            });
+
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -59,8 +87,16 @@ public class TaskActivity extends AppCompatActivity {
         fabAddTask  = findViewById(R.id.fabAddTask);
         tvProgress  = findViewById(R.id.tvProgress);
         progressBar = findViewById(R.id.progressBarTask);
+        btnTaskActions  = findViewById(R.id.btnTaskActions);
+        selectionBar    = findViewById(R.id.selectionBar);
+        tvSelectedCount = findViewById(R.id.tvSelectedCount);
+        Button btnCancelSelection = findViewById(R.id.btnCancelSelection);
+        Button btnDeleteSelected  = findViewById(R.id.btnDeleteSelected);
 
         fabAddTask.setOnClickListener(v -> showAddTaskDialog());
+        btnTaskActions.setOnClickListener(v -> showTaskActions());
+        btnCancelSelection.setOnClickListener(v -> taskAdapter.clearSelection());
+        btnDeleteSelected.setOnClickListener(v -> deleteSelected());
     }
 
     private void initFirebase() {
@@ -72,10 +108,7 @@ public class TaskActivity extends AppCompatActivity {
             return;
         }
 
-        userId   = auth.getCurrentUser().getUid();
-        tasksRef = FirebaseDatabase.getInstance()
-                .getReference("Tasks")
-                .child(userId);
+        userId = auth.getCurrentUser().getUid();
     }
 
     private void setupRecyclerView() {
@@ -83,47 +116,78 @@ public class TaskActivity extends AppCompatActivity {
                 new TaskAdapter.OnTaskClickListener() {
                     @Override
                     public void onTaskChecked(Task task, boolean isChecked) {
-                        updateTaskCompletion(task.getId(), isChecked);
+                        updateTaskCompletion(task, isChecked);
                     }
 
                     @Override
                     public void onTaskDelete(Task task) {
-                        deleteTask(task.getId());
+                        deleteTask(task);
+                    }
+
+                    @Override
+                    public void onSelectionChanged(int selectedCount) {
+                        showSelection(selectedCount);
                     }
                 });
 
         rvTasks.setLayoutManager(new LinearLayoutManager(this));
-        rvTasks.setAdapter(taskAdapter);
+        taskAdapter.attachTo(rvTasks, this);
     }
 
+    /**
+     * Child events on Tasks/{uid}: each add, toggle or delete touches one row
+     * and adjusts the counters by its own delta — nothing is recounted.
+     * The list is built once: the listener lives as long as the screen, like
+     * ChatActivity's feed, so coming back to it doesn't rebuild every row.
+     * Tasks/{uid} is kept synced anyway (OfflineSync).
+     */
     private void loadTasks() {
-        taskListener = tasksRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                taskList.clear();
-
-                int completed = 0;
-                int total     = 0;
-
-                for (DataSnapshot taskSnap : snapshot.getChildren()) {
-                    Task task = taskSnap.getValue(Task.class);
-                    if (task != null) {
-                        task.setId(taskSnap.getKey());
-                        taskList.add(task);
-                        total++;
-                        if (task.isCompleted()) completed++;
+        ListenerRegistry.untilDestroyed(this, () ->
+                tasks.observe(userId, new ChildListener<Task>() {
+                    @Override
+                    public void onAdded(String key, Task task) {
+                        apply(taskAdapter.upsert(withPendingToggle(task)), task);
                     }
-                }
 
-                taskAdapter.notifyDataSetChanged();
-                updateProgress(completed, total);
-            }
+                    @Override
+                    public void onChanged(String key, Task task) {
+                        apply(taskAdapter.upsert(withPendingToggle(task)), task);
+                    }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(TaskActivity.this,
-                        "Failed to load tasks", Toast.LENGTH_SHORT).show();
-            }
+                    @Override
+                    public void onRemoved(String key) {
+                        apply(taskAdapter.remove(key), null);
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        Toast.makeText(TaskActivity.this,
+                                "Failed to load tasks", Toast.LENGTH_SHORT).show();
+                    }
+                }));
+    }
+
+    // A toggle not yet written wins over what the database still says
+    private Task withPendingToggle(Task task) {
+        Boolean pending = toggleWrites.pending(task.getId());
+        if (pending != null) task.setCompleted(pending);
+        return task;
+    }
+
+    private void apply(Task previous, Task current) {
+        if (previous != null && previous.isCompleted()) completedCount--;
+        if (current != null && current.isCompleted()) completedCount++;
+        if (current == null) taskAdapter.retainSelection();
+        scheduleProgressUpdate();
+    }
+
+    // A bulk action arrives as a burst of child events; redraw once after it
+    private void scheduleProgressUpdate() {
+        if (progressUpdatePending) return;
+        progressUpdatePending = true;
+        rvTasks.post(() -> {
+            progressUpdatePending = false;
+            updateProgress(completedCount, taskList.size());
         });
     }
 
@@ -154,39 +218,126 @@ public class TaskActivity extends AppCompatActivity {
     }
 
     private void addTask(String title) {
-        String taskId = tasksRef.push().getKey();
-        if (taskId == null) return;
+        tasks.add(userId, title, new Callback<Void>() {
+            @Override
+            public void onResult(Void value) {
+                Toast.makeText(TaskActivity.this, "Task added ✅", Toast.LENGTH_SHORT).show();
+            }
 
-        Map<String, Object> taskData = new HashMap<>();
-        taskData.put("title", title);
-        taskData.put("completed", false);
-        taskData.put("createdAt", ServerValue.TIMESTAMP);
+            @Override
+            public void onError(String message) {
+                Toast.makeText(TaskActivity.this, "Failed to add task", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 
-        tasksRef.child(taskId).setValue(taskData)
-                .addOnSuccessListener(aVoid ->
-                        Toast.makeText(this, "Task added ✅", Toast.LENGTH_SHORT).show())
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Failed to add task", Toast.LENGTH_SHORT).show());
+    // Optimistic: the row and counters change now; the write is coalesced
+    private void updateTaskCompletion(Task task, boolean completed) {
+        toggleWrites.set(task.getId(), task.isCompleted(), completed);
+        Task toggled = new Task(task.getId(), task.getTitle(), completed, task.getCreatedAt());
+        apply(taskAdapter.upsert(toggled), toggled);
     }
 
-    private void updateTaskCompletion(String taskId, boolean completed) {
-        tasksRef.child(taskId).child("completed").setValue(completed);
+    @Override
+    protected void onStop() {
+        super.onStop();
+        toggleWrites.flushAll();
     }
 
-    private void deleteTask(String taskId) {
+    private void deleteTask(Task task) {
+        toggleWrites.flush(task.getId()); // the delete's counter delta assumes it
         new AlertDialog.Builder(this)
                 .setTitle("Delete Task")
                 .setMessage("Are you sure you want to delete this task?")
                 .setPositiveButton("Delete", (dialog, which) ->
-                        tasksRef.child(taskId).removeValue()
-                                .addOnSuccessListener(aVoid ->
-                                        Toast.makeText(this, "Task deleted", Toast.LENGTH_SHORT).show())
-                                .addOnFailureListener(e ->
-                                        Toast.makeText(this, "Failed to delete", Toast.LENGTH_SHORT).show()))
+                        tasks.delete(userId, task, new Callback<Void>() {
+                            @Override
+                            public void onResult(Void value) {
+                                Toast.makeText(TaskActivity.this, "Task deleted",
+                                        Toast.LENGTH_SHORT).show();
+                            }
+
+                            @Override
+                            public void onError(String message) {
+                                Toast.makeText(TaskActivity.this, "Failed to delete",
+                                        Toast.LENGTH_SHORT).show();
+                            }
+                        }))
                 .setNegativeButton("Cancel", null)
                 .show();
     }
 
+    // ─── Bulk actions ─────────────────────────────────────────────────────────
+    // Each is one multi-path write, so the task list refreshes once per action
+
+    private void showTaskActions() {
+        PopupMenu menu = new PopupMenu(this, btnTaskActions);
+        menu.getMenu().add(0, 1, 0, "Complete all");
+        menu.getMenu().add(0, 2, 1, "Clear completed");
+        menu.setOnMenuItemClickListener(item -> {
+            if (item.getItemId() == 1) completeAll();
+            else clearCompleted();
+            return true;
+        });
+        menu.show();
+    }
+
+    private void completeAll() {
+        toggleWrites.flushAll();
+        tasks.completeAll(userId, new ArrayList<>(taskList), bulkCallback("Failed to update tasks"));
+    }
+
+    private void clearCompleted() {
+        List<Task> completed = new ArrayList<>();
+        for (Task task : taskList) {
+            if (task.isCompleted()) completed.add(task);
+        }
+        if (completed.isEmpty()) {
+            Toast.makeText(this, "No completed tasks", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        confirmBulkDelete(completed, "Clear " + completed.size() + " completed task"
+                + (completed.size() != 1 ? "s" : "") + "?");
+    }
+
+    private void deleteSelected() {
+        List<Task> selected = taskAdapter.getSelectedTasks();
+        if (selected.isEmpty()) return;
+        confirmBulkDelete(selected, "Delete " + selected.size() + " selected task"
+                + (selected.size() != 1 ? "s" : "") + "?");
+    }
+
+    private void confirmBulkDelete(List<Task> victims, String message) {
+        new AlertDialog.Builder(this)
+                .setTitle("Delete Tasks")
+                .setMessage(message)
+                .setPositiveButton("Delete", (dialog, which) -> {
+                    taskAdapter.clearSelection();
+                    toggleWrites.flushAll();
+                    tasks.deleteAll(userId, victims, bulkCallback("Failed to delete"));
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private Callback<Void> bulkCallback(String failure) {
+        return new Callback<Void>() {
+            @Override
+            public void onResult(Void value) {}
+
+            @Override
+            public void onError(String message) {
+                Toast.makeText(TaskActivity.this, failure, Toast.LENGTH_SHORT).show();
+            }
+        };
+    }
+
+    private void showSelection(int selectedCount) {
+        selectionBar.setVisibility(selectedCount > 0 ? View.VISIBLE : View.GONE);
+        tvSelectedCount.setText(selectedCount + " selected");
+        fabAddTask.setVisibility(selectedCount > 0 ? View.GONE : View.VISIBLE);
+    }
+
     private void updateProgress(int completed, int total) {
         if (total == 0) {
             tvProgress.setText("No tasks yet");
@@ -197,12 +348,4 @@ public class TaskActivity extends AppCompatActivity {
         tvProgress.setText(completed + "/" + total + " tasks completed (" + pct + "%)");
         progressBar.setProgress(pct);
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (taskListener != null && tasksRef != null) {
-            tasksRef.removeEventListener(taskListener);
-        }
-    }
 }
\ No newline at end of file
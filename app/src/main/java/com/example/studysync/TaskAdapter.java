@@ -1,52 +1,186 @@
 package com.example.studysync;
 
 import android.content.Context;
+import android.graphics.Color;
 import android.graphics.Paint;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.CheckBox;
+import android.widget.CompoundButton;
 import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
-public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder> {
+/**
+ * Tasks keyed by Firebase key. The activity's task list is the working list:
+ * child events edit it in place and it is published once per main-loop turn.
+ * Toggling a task only rebinds its checkbox and strike-through; selecting one
+ * only its background.
+ */
+public class TaskAdapter extends DiffingAdapter<Task, TaskAdapter.TaskViewHolder> {
+
+    private static final Object PAYLOAD_COMPLETED = new Object();
+    private static final Object PAYLOAD_SELECTION = new Object();
 
     private Context context;
-    private List<Task> taskList;
+    private List<Task> taskList; // working list
     private OnTaskClickListener listener;
 
+    // Multi-select: long-press starts it, taps toggle while anything is selected
+    private static final int SELECTED_COLOR = Color.parseColor("#E3F2FD");
+    private final Set<String> selectedIds = new HashSet<>();
+
     public interface OnTaskClickListener {
         void onTaskChecked(Task task, boolean isChecked);
         void onTaskDelete(Task task);
+        void onSelectionChanged(int selectedCount);
     }
 
+    // Created-date strings, formatted when a task arrives rather than per bind
+    private final Map<String, String> dateTexts = new HashMap<>();
+
     public TaskAdapter(Context context, List<Task> taskList, OnTaskClickListener listener) {
+        super(R.layout.item_task);
         this.context = context;
         this.taskList = taskList;
         this.listener = listener;
     }
 
+    @Override
+    protected String keyOf(Task task) {
+        return task.getId();
+    }
+
+    @Override
+    protected boolean sameContents(Task a, Task b) {
+        return a.isCompleted() == b.isCompleted() && sameText(a, b);
+    }
+
+    @Override
+    protected Object changePayload(Task a, Task b) {
+        return sameText(a, b) ? PAYLOAD_COMPLETED : null;
+    }
+
+    private static boolean sameText(Task a, Task b) {
+        return a.getCreatedAt() == b.getCreatedAt() && Objects.equals(a.getTitle(), b.getTitle());
+    }
+
+    // ── Child-event updates (list is kept in key order) ────────────────────────
+
+    /** Inserts or replaces one task; returns the replaced task, if any. */
+    public Task upsert(Task task) {
+        int index = indexOf(task.getId());
+        if (index >= 0) {
+            Task previous = taskList.set(index, task);
+            if (previous.getCreatedAt() != task.getCreatedAt()) formatDate(task);
+            publish(taskList);
+            return previous;
+        }
+        formatDate(task);
+        taskList.add(-index - 1, task);
+        publish(taskList);
+        return null;
+    }
+
+    /** Removes one task; returns it, or null if it was not listed. */
+    public Task remove(String taskId) {
+        int index = indexOf(taskId);
+        if (index < 0) return null;
+        Task removed = taskList.remove(index);
+        dateTexts.remove(taskId);
+        publish(taskList);
+        return removed;
+    }
+
+    private void formatDate(Task task) {
+        dateTexts.put(task.getId(), DisplayFormats.date(task.getCreatedAt()));
+    }
+
+    // Binary search by key; (-(insertion point) - 1) when absent
+    private int indexOf(String taskId) {
+        int low = 0, high = taskList.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = taskList.get(mid).getId().compareTo(taskId);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
     @NonNull
     @Override
     public TaskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.item_task, parent, false);
-        return new TaskViewHolder(view);
+        TaskViewHolder holder = new TaskViewHolder(view);
+        // Checkbox listener — resolves the row's current task when it fires
+        holder.checkedListener = (buttonView, isChecked) -> {
+            Task current = taskAt(holder);
+            if (current != null && current.isCompleted() != isChecked && listener != null) {
+                listener.onTaskChecked(current, isChecked);
+            }
+        };
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        Task task = taskList.get(position);
+        Task task = getItem(position);
 
         holder.tvTaskTitle.setText(task.getTitle());
+        bindCompleted(holder, task);
+
+        // Show created date
+        holder.tvTaskDate.setText(dateTexts.get(task.getId()));
+
+        // Delete button listener
+        holder.btnDelete.setOnClickListener(v -> {
+            Task current = taskAt(holder);
+            if (current != null && listener != null) {
+                listener.onTaskDelete(current);
+            }
+        });
+
+        // Selection
+        bindSelection(holder, task);
+        holder.itemView.setOnLongClickListener(v -> {
+            toggleSelection(holder);
+            return true;
+        });
+        holder.itemView.setOnClickListener(v -> {
+            if (!selectedIds.isEmpty()) toggleSelection(holder);
+        });
+    }
+
+    @Override
+    protected void onBindPayloads(@NonNull TaskViewHolder holder, int position,
+                                  @NonNull List<Object> payloads) {
+        Task task = getItem(position);
+        for (Object payload : payloads) {
+            if (payload == PAYLOAD_COMPLETED) bindCompleted(holder, task);
+            else if (payload == PAYLOAD_SELECTION) bindSelection(holder, task);
+        }
+    }
+
+    private void bindCompleted(TaskViewHolder holder, Task task) {
+        // Detach the listener while setting the state: binding must never write
+        holder.cbTaskComplete.setOnCheckedChangeListener(null);
         holder.cbTaskComplete.setChecked(task.isCompleted());
+        holder.cbTaskComplete.setOnCheckedChangeListener(holder.checkedListener);
 
         // Strike through completed tasks
         if (task.isCompleted()) {
@@ -54,35 +188,61 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
         } else {
             holder.tvTaskTitle.setPaintFlags(holder.tvTaskTitle.getPaintFlags() & ~Paint.STRIKE_THRU_TEXT_FLAG);
         }
+    }
 
-        // Show created date
-        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-        holder.tvTaskDate.setText(sdf.format(new Date(task.getCreatedAt())));
+    private void bindSelection(TaskViewHolder holder, Task task) {
+        ((CardView) holder.itemView).setCardBackgroundColor(
+                selectedIds.contains(task.getId()) ? SELECTED_COLOR : Color.WHITE);
+    }
 
-        // Checkbox listener
-        holder.cbTaskComplete.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            if (listener != null) {
-                listener.onTaskChecked(task, isChecked);
-            }
-        });
+    private Task taskAt(TaskViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position != RecyclerView.NO_POSITION ? getItem(position) : null;
+    }
 
-        // Delete button listener
-        holder.btnDelete.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onTaskDelete(task);
-            }
-        });
+    private void toggleSelection(TaskViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        if (position == RecyclerView.NO_POSITION) return;
+        String id = getItem(position).getId();
+        if (!selectedIds.remove(id)) selectedIds.add(id);
+        notifyItemChanged(position, PAYLOAD_SELECTION);
+        if (listener != null) listener.onSelectionChanged(selectedIds.size());
     }
 
-    @Override
-    public int getItemCount() {
-        return taskList.size();
+    public List<Task> getSelectedTasks() {
+        List<Task> selected = new ArrayList<>();
+        for (Task task : taskList) {
+            if (selectedIds.contains(task.getId())) selected.add(task);
+        }
+        return selected;
+    }
+
+    public void clearSelection() {
+        if (selectedIds.isEmpty()) return;
+        selectedIds.clear();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        if (listener != null) listener.onSelectionChanged(0);
+    }
+
+    /** Drops selected ids that are no longer in the list, e.g. deleted elsewhere. */
+    public void retainSelection() {
+        if (selectedIds.isEmpty()) return;
+        Set<String> present = new HashSet<>();
+        for (Task task : taskList) present.add(task.getId());
+        int before = selectedIds.size();
+        for (Iterator<String> it = selectedIds.iterator(); it.hasNext(); ) {
+            if (!present.contains(it.next())) it.remove();
+        }
+        if (selectedIds.size() != before && listener != null) {
+            listener.onSelectionChanged(selectedIds.size());
+        }
     }
 
     public static class TaskViewHolder extends RecyclerView.ViewHolder {
         CheckBox cbTaskComplete;
         TextView tvTaskTitle, tvTaskDate;
         ImageButton btnDelete;
+        CompoundButton.OnCheckedChangeListener checkedListener;
 
         public TaskViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -0,0 +1,25 @@
+package com.example.studysync;
+
+import java.util.Collection;
+
+/** Personal tasks at Tasks/{uid}. */
+public interface TaskRepository {
+
+    /** Child events in key (creation) order; the Task's id is set. */
+    Registration observe(String uid, ChildListener<Task> listener);
+
+    void add(String uid, String title, Callback<Void> callback);
+
+    /** Flips the completed flag and keeps UserStats tasksCompleted in step. */
+    void setCompleted(String uid, Task task, boolean completed);
+
+    void delete(String uid, Task task, Callback<Void> callback);
+
+    // Bulk actions: one write and one observer event however many tasks
+
+    /** Marks the given tasks completed; ones already completed are skipped. */
+    void completeAll(String uid, Collection<Task> tasks, Callback<Void> callback);
+
+    /** Deletes the given tasks, keeping tasksCompleted in step. */
+    void deleteAll(String uid, Collection<Task> tasks, Callback<Void> callback);
+}
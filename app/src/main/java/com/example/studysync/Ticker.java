@@ -0,0 +1,100 @@
+package com.example.studysync;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+
+/**
+ * Ticker
+ *
+ * One app-wide once-a-second tick for countdowns and elapsed-time labels.
+ *
+ *   - ticks land on whole seconds of ServerClock time, so every device
+ *     in a room flips its display at the same instant
+ *   - nothing is posted while there are no subscribers
+ *   - formatClock() writes into a caller-owned char[] for
+ *     TextView.setText(char[], int, int), so a tick allocates nothing
+ *
+ * Main thread only.
+ */
+public final class Ticker {
+
+    public interface Listener {
+        /** @param serverNow ServerClock.now() at the second boundary */
+        void onTick(long serverNow);
+    }
+
+    private static Ticker instance;
+
+    public static Ticker get() {
+        if (instance == null) instance = new Ticker();
+        return instance;
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayList<Listener> listeners = new ArrayList<>();
+
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            long now = ServerClock.get().now();
+            // Backwards, so listeners may unsubscribe from inside onTick()
+            for (int i = listeners.size() - 1; i >= 0; i--) {
+                if (i < listeners.size()) listeners.get(i).onTick(now);
+            }
+            if (!listeners.isEmpty()) scheduleNext(now);
+        }
+    };
+
+    private Ticker() {}
+
+    /** Subscribes and delivers one tick right away so the view is filled in. */
+    public void subscribe(Listener listener) {
+        if (listeners.contains(listener)) return;
+        listeners.add(listener);
+        long now = ServerClock.get().now();
+        if (listeners.size() == 1) scheduleNext(now);
+        listener.onTick(now);
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) handler.removeCallbacks(tick);
+    }
+
+    private void scheduleNext(long serverNow) {
+        handler.removeCallbacks(tick);
+        handler.postAtTime(tick, SystemClock.uptimeMillis() + 1000 - serverNow % 1000);
+    }
+
+    // ── Formatting ─────────────────────────────────────────────────────────────
+
+    /** Big enough for any duration formatClock() is given. */
+    public static final int CLOCK_CHARS = 24;
+
+    /**
+     * Writes seconds as "MM:SS" (more minute digits when needed) into out.
+     *
+     * @return number of chars written
+     */
+    public static int formatClock(long seconds, char[] out) {
+        if (seconds < 0) seconds = 0;
+        long minutes = seconds / 60;
+        int  secs    = (int) (seconds % 60);
+
+        int digits = 2;
+        for (long m = minutes / 100; m > 0; m /= 10) digits++;
+
+        long m = minutes;
+        for (int i = digits - 1; i >= 0; i--) {
+            out[i] = (char) ('0' + m % 10);
+            m /= 10;
+        }
+        out[digits]     = ':';
+        out[digits + 1] = (char) ('0' + secs / 10);
+        out[digits + 2] = (char) ('0' + secs % 10);
+        return digits + 3;
+    }
+}
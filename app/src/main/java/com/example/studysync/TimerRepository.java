@@ -0,0 +1,29 @@
+package com.example.studysync;
+
+/** Shared Pomodoro state at Rooms/{roomCode}/timer and timerSettings. */
+public interface TimerRepository {
+
+    /** Delivers TimerState.IDLE while the room has no schedule. */
+    Registration observe(String roomCode, Callback<TimerState> listener);
+
+    /** Replaces the schedule with a new one starting now (server time). */
+    void start(String roomCode, long workMillis, long breakMillis, int cycles);
+
+    /** Freezes the schedule at the current server time. */
+    void pause(String roomCode);
+
+    /**
+     * Continues a paused schedule.
+     *
+     * @param pausedTotal TimerState.pausedTotalAfterResume(ServerClock.now())
+     */
+    void resume(String roomCode, long pausedTotal);
+
+    /** Back to an idle schedule. */
+    void reset(String roomCode);
+
+    /** Delivers null when the room has no custom settings; a missing value is 0. */
+    void loadSettings(String roomCode, Callback<TimerState.Settings> callback);
+
+    void saveSettings(String roomCode, TimerState.Settings settings);
+}
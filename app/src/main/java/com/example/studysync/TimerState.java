@@ -0,0 +1,121 @@
+package com.example.studysync;
+
+/**
+ * Rooms/{roomCode}/timer — the room's shared Pomodoro schedule.
+ *
+ * The node is written only when the host starts, pauses, resumes or resets;
+ * it never changes at a work/break transition. Every client derives the
+ * current phase and time left from it with phaseAt(ServerClock.now()), so
+ * the timer keeps running (and agrees across devices) with no host present.
+ *
+ *   startedAt    server time the schedule started, 0 = never started / reset
+ *   workMillis   length of a work block
+ *   breakMillis  length of a break block
+ *   cycles       work + break pairs before the schedule finishes
+ *   pausedAt     server time of the current pause, 0 = not paused
+ *   pausedTotal  millis spent in earlier, already resumed pauses
+ */
+public final class TimerState {
+
+    public static final int DEFAULT_CYCLES = 4;
+
+    /** A schedule that has not been started. */
+    public static final TimerState IDLE = new TimerState(0, 0, 0, 0, 0, 0);
+
+    private final long startedAt;
+    private final long workMillis;
+    private final long breakMillis;
+    private final int  cycles;
+    private final long pausedAt;
+    private final long pausedTotal;
+
+    public TimerState(long startedAt, long workMillis, long breakMillis, int cycles,
+                      long pausedAt, long pausedTotal) {
+        this.startedAt   = startedAt;
+        this.workMillis  = workMillis;
+        this.breakMillis = breakMillis;
+        this.cycles      = cycles;
+        this.pausedAt    = pausedAt;
+        this.pausedTotal = pausedTotal;
+    }
+
+    public long getStartedAt()   { return startedAt; }
+    public long getWorkMillis()  { return workMillis; }
+    public long getBreakMillis() { return breakMillis; }
+    public int  getCycles()      { return cycles; }
+    public long getPausedAt()    { return pausedAt; }
+    public long getPausedTotal() { return pausedTotal; }
+
+    public boolean isStarted() { return startedAt > 0 && workMillis > 0; }
+    public boolean isPaused()  { return isStarted() && pausedAt > 0; }
+
+    /** pausedTotal after resuming at serverNow. */
+    public long pausedTotalAfterResume(long serverNow) {
+        return pausedTotal + Math.max(0, serverNow - pausedAt);
+    }
+
+    // ── Phase ──────────────────────────────────────────────────────────────────
+
+    public enum Status { IDLE, RUNNING, PAUSED, FINISHED }
+
+    /** Where the schedule stands at one instant. */
+    public static final class Phase {
+        public final Status  status;
+        public final boolean isBreak;
+        public final int     cycle;           // 0-based work + break pair
+        public final long    remainingMillis; // left in the current block
+
+        Phase(Status status, boolean isBreak, int cycle, long remainingMillis) {
+            this.status          = status;
+            this.isBreak         = isBreak;
+            this.cycle           = cycle;
+            this.remainingMillis = remainingMillis;
+        }
+
+        /** Same block of the same schedule — no transition in between. */
+        public boolean sameBlock(Phase other) {
+            return other != null && status == other.status
+                    && isBreak == other.isBreak && cycle == other.cycle;
+        }
+    }
+
+    /** @param serverNow ServerClock.now() */
+    public Phase phaseAt(long serverNow) {
+        if (!isStarted()) return new Phase(Status.IDLE, false, 0, workMillis);
+
+        long at      = pausedAt > 0 ? pausedAt : serverNow;
+        long elapsed = Math.max(0, at - startedAt - pausedTotal);
+        long cycleMs = workMillis + Math.max(0, breakMillis);
+
+        if (cycles > 0 && elapsed >= cycles * cycleMs) {
+            return new Phase(Status.FINISHED, false, cycles - 1, 0);
+        }
+
+        int  cycle  = (int) (elapsed / cycleMs);
+        long within = elapsed % cycleMs;
+        boolean inBreak = within >= workMillis;
+        long remaining  = inBreak ? cycleMs - within : workMillis - within;
+
+        return new Phase(pausedAt > 0 ? Status.PAUSED : Status.RUNNING,
+                inBreak, cycle, remaining);
+    }
+
+    /** Rooms/{roomCode}/timerSettings, in minutes. */
+    public static class Settings {
+        private int workDuration;
+        private int breakDuration;
+
+        public Settings() {}
+
+        public Settings(int workDuration, int breakDuration) {
+            this.workDuration = workDuration;
+            this.breakDuration = breakDuration;
+        }
+
+        public int getWorkDuration() { return workDuration; }
+        public void setWorkDuration(int workDuration) { this.workDuration = workDuration; }
+
+        public int getBreakDuration() { return breakDuration; }
+        public void setBreakDuration(int breakDuration) { this.breakDuration = breakDuration; }
+    }
+}
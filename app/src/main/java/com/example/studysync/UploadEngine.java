@@ -0,0 +1,277 @@
+package com.example.studysync;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UploadEngine
+ *
+ * Starts and observes the app's Cloudinary uploads. Each upload is two
+ * WorkManager jobs, so it outlives the screen that started it:
+ *
+ *   - UploadWorker.Stage copies the picked files into app storage
+ *   - UploadWorker sends them in resumable chunks once there is a network,
+ *     a few at a time, then commits the metadata (the notes, or the
+ *     profile's photoUrl) itself
+ *
+ * Note uploads queue per room: a batch starts once the room's previous one
+ * is done. Screens watch a room's note uploads or a user's photo upload
+ * through LiveData<List<WorkInfo>>, usually with a Watcher.
+ */
+public final class UploadEngine {
+
+    /** Files of one note batch sent at the same time, unless the caller says otherwise. */
+    public static final int DEFAULT_TRANSFERS = 3;
+
+    // A batch's names and URIs travel in WorkManager Data, which is capped at
+    // 10 KB; bigger selections are queued as several batches
+    static final int MAX_BATCH = 20;
+
+    // Input
+    static final String KEY_KIND          = "kind";
+    static final String KEY_SOURCES       = "sources";
+    static final String KEY_FILES         = "files";
+    static final String KEY_FILE_NAMES    = "fileNames";
+    static final String KEY_FILE_TYPES    = "fileTypes";
+    static final String KEY_TRANSFERS     = "transfers";
+    static final String KEY_RESOURCE_TYPE = "resourceType";
+    static final String KEY_PRESET        = "preset";
+    static final String KEY_UID           = "uid";
+    static final String KEY_ROOM          = "roomCode";
+    static final String KEY_FALLBACK_NAME = "fallbackName";
+
+    // Progress and output
+    static final String KEY_SENT       = "sent";
+    static final String KEY_TOTAL      = "total";
+    static final String KEY_SENT_EACH  = "sentEach";
+    static final String KEY_TOTAL_EACH = "totalEach";
+    static final String KEY_URL        = "url";
+    static final String KEY_FAILED     = "failed";
+    static final String KEY_ERROR      = "error";
+    static final String KEY_BYTES_SAVED = "bytesSaved"; // Stage: what ImagePipeline saved
+
+    static final String KIND_NOTE  = "note";
+    static final String KIND_PHOTO = "photo";
+
+    private static final String PROFILE_PRESET = "studysync_profiles";
+
+    /** One picked file of a note upload. */
+    public static final class NoteFile {
+        final Uri source;
+        final String fileName;
+        final String fileType;
+
+        public NoteFile(Uri source, String fileName, String fileType) {
+            this.source   = source;
+            this.fileName = fileName;
+            this.fileType = fileType;
+        }
+    }
+
+    private UploadEngine() {}
+
+    // ── Start ──────────────────────────────────────────────────────────────────
+
+    public static void uploadNotes(Context context, String roomCode, List<NoteFile> files,
+                                   String uid, String fallbackName) {
+        uploadNotes(context, roomCode, files, uid, fallbackName, DEFAULT_TRANSFERS);
+    }
+
+    /**
+     * Uploads note files and adds them to Notes/{roomCode}, one multi-path
+     * write per batch of up to MAX_BATCH files.
+     *
+     * @param transfers how many files of a batch are sent at the same time
+     */
+    public static void uploadNotes(Context context, String roomCode, List<NoteFile> files,
+                                   String uid, String fallbackName, int transfers) {
+        WorkManager workManager = WorkManager.getInstance(context);
+        for (int from = 0; from < files.size(); from += MAX_BATCH) {
+            List<NoteFile> batch = files.subList(from, Math.min(files.size(), from + MAX_BATCH));
+            String[] sources = new String[batch.size()];
+            String[] names   = new String[batch.size()];
+            String[] types   = new String[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                sources[i] = batch.get(i).source.toString();
+                names[i]   = batch.get(i).fileName;
+                types[i]   = batch.get(i).fileType;
+            }
+
+            Data input = new Data.Builder()
+                    .putString(KEY_KIND, KIND_NOTE)
+                    .putStringArray(KEY_SOURCES, sources)
+                    .putStringArray(KEY_FILE_NAMES, names)
+                    .putStringArray(KEY_FILE_TYPES, types)
+                    .putInt(KEY_TRANSFERS, transfers)
+                    .putString(KEY_RESOURCE_TYPE, "raw")
+                    .putString(KEY_UID, uid)
+                    .putString(KEY_ROOM, roomCode)
+                    .putString(KEY_FALLBACK_NAME, fallbackName)
+                    .build();
+            workManager
+                    .beginUniqueWork(noteTag(roomCode), ExistingWorkPolicy.APPEND_OR_REPLACE,
+                            stage(input))
+                    .then(upload(input, noteTag(roomCode)))
+                    .enqueue();
+        }
+    }
+
+    /** Uploads a profile photo and stores it as Users/{uid}/photoUrl; replaces one in flight. */
+    public static void uploadProfilePhoto(Context context, String uid, Uri source) {
+        Data input = new Data.Builder()
+                .putString(KEY_KIND, KIND_PHOTO)
+                .putStringArray(KEY_SOURCES, new String[]{source.toString()})
+                .putStringArray(KEY_FILE_NAMES, new String[]{"photo"})
+                .putString(KEY_RESOURCE_TYPE, "image")
+                .putString(KEY_PRESET, PROFILE_PRESET)
+                .putString(KEY_UID, uid)
+                .build();
+        WorkManager.getInstance(context)
+                .beginUniqueWork(photoTag(uid), ExistingWorkPolicy.REPLACE, stage(input))
+                .then(upload(input, photoTag(uid)))
+                .enqueue();
+    }
+
+    private static OneTimeWorkRequest stage(Data input) {
+        return new OneTimeWorkRequest.Builder(UploadWorker.Stage.class)
+                .setInputData(input)
+                .build();
+    }
+
+    private static OneTimeWorkRequest upload(Data input, String tag) {
+        return new OneTimeWorkRequest.Builder(UploadWorker.class)
+                .setInputData(input)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .addTag(tag)
+                .build();
+    }
+
+    // ── Observe ────────────────────────────────────────────────────────────────
+
+    public static LiveData<List<WorkInfo>> noteUploads(Context context, String roomCode) {
+        return WorkManager.getInstance(context).getWorkInfosByTagLiveData(noteTag(roomCode));
+    }
+
+    public static LiveData<List<WorkInfo>> photoUploads(Context context, String uid) {
+        return WorkManager.getInstance(context).getWorkInfosByTagLiveData(photoTag(uid));
+    }
+
+    private static String noteTag(String roomCode) {
+        return "upload-notes-" + roomCode;
+    }
+
+    private static String photoTag(String uid) {
+        return "upload-photo-" + uid;
+    }
+
+    /** Bytes confirmed by the server so far, over the whole batch. */
+    public static long sent(WorkInfo info) {
+        return info.getProgress().getLong(KEY_SENT, 0);
+    }
+
+    /** Size of the batch's staged files; 0 until they are staged. */
+    public static long total(WorkInfo info) {
+        return info.getProgress().getLong(KEY_TOTAL, 0);
+    }
+
+    /** The first uploaded file's URL, once the upload succeeded. */
+    public static String url(WorkInfo info) {
+        return info.getOutputData().getString(KEY_URL);
+    }
+
+    /** Files of a finished batch that were left out (unreadable or rejected). */
+    public static int failed(WorkInfo info) {
+        return info.getOutputData().getInt(KEY_FAILED, 0);
+    }
+
+    public static String error(WorkInfo info) {
+        String error = info.getOutputData().getString(KEY_ERROR);
+        return error != null ? error : "Could not read the file";
+    }
+
+    // ── Watcher ────────────────────────────────────────────────────────────────
+
+    /** One file in flight. */
+    public static final class Transfer {
+        public final String name;
+        public final long sent;
+        public final long total; // 0 until staged
+
+        Transfer(String name, long sent, long total) {
+            this.name  = name;
+            this.sent  = sent;
+            this.total = total;
+        }
+    }
+
+    /**
+     * Sums up the uploads in flight on every change and reports each upload
+     * that finishes while the screen watches, once. Uploads that had already
+     * finished when watching started are not reported.
+     */
+    public abstract static class Watcher implements Observer<List<WorkInfo>> {
+        private final Set<UUID> finished = new HashSet<>();
+        private boolean primed;
+
+        @Override
+        public final void onChanged(List<WorkInfo> infos) {
+            int active = 0;
+            long sent = 0, total = 0;
+            List<Transfer> transfers = new ArrayList<>();
+            for (WorkInfo info : infos) {
+                if (info.getState().isFinished()) {
+                    if (finished.add(info.getId()) && primed) onFinished(info);
+                    continue;
+                }
+                active++;
+                sent  += sent(info);
+                total += total(info);
+
+                Data progress = info.getProgress();
+                String[] names = progress.getStringArray(KEY_FILE_NAMES);
+                long[] sentEach  = progress.getLongArray(KEY_SENT_EACH);
+                long[] totalEach = progress.getLongArray(KEY_TOTAL_EACH);
+                if (names == null || sentEach == null || totalEach == null) continue;
+                for (int i = 0; i < names.length; i++) {
+                    transfers.add(new Transfer(names[i], sentEach[i], totalEach[i]));
+                }
+            }
+            primed = true;
+            onProgress(active, sent, total);
+            onTransfers(transfers);
+        }
+
+        /**
+         * @param active batches queued or running
+         * @param total  0 while no batch in flight has been staged
+         */
+        protected abstract void onProgress(int active, long sent, long total);
+
+        /** The files of the batches that have started; empty when none has. */
+        protected void onTransfers(List<Transfer> transfers) {}
+
+        /** SUCCEEDED, FAILED or CANCELLED. */
+        protected abstract void onFinished(WorkInfo info);
+    }
+}
@@ -0,0 +1,479 @@
+package com.example.studysync;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.cloudinary.Uploader;
+import com.cloudinary.android.MediaManager;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UploadWorker
+ *
+ * Sends a batch of staged files to Cloudinary, then commits what points at
+ * them, so neither step depends on the screen that started the upload.
+ * Started by UploadEngine after Stage has copied the files into app storage.
+ *
+ *   - up to KEY_TRANSFERS files go up at once; each in CHUNK_SIZE pieces
+ *     under its own X-Unique-Upload-Id. The offset the server has confirmed
+ *     is saved after every piece, so a retry (network lost, process killed)
+ *     resumes there instead of at byte 0
+ *   - a file's URL is saved as soon as it is done, so a retry only sends
+ *     the files that aren't
+ *   - the batch commits once: every uploaded note in one multi-path write,
+ *     or the profile's photoUrl. Files that could not be read or were
+ *     rejected are left out and counted in the output
+ *   - note keys are saved before the commit is sent; a retried commit reuses
+ *     them and is skipped if the first note already exists, so a batch whose
+ *     write landed is not added (and counted) twice
+ *   - progress, per file and in total, goes out through setProgressAsync
+ */
+public class UploadWorker extends Worker {
+
+    private static final String TAG = "UploadWorker";
+
+    // Cloudinary wants every chunk but the last to be at least 5 MB
+    private static final int  CHUNK_SIZE       = 6 * 1024 * 1024;
+    private static final int  MAX_ATTEMPTS     = 5;
+    private static final long COMMIT_TIMEOUT_S = 60;
+
+    private static final String STATE         = "uploads";
+    private static final String OFFSET_SUFFIX = ".offset";
+    private static final String URL_SUFFIX    = ".url";
+    private static final String KEY_SUFFIX    = ".key";
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    // One file's transfer outcome
+    private static final int PENDING  = 0;
+    private static final int DONE     = 1;
+    private static final int RETRY    = 2; // network, or the worker was stopped
+    private static final int REJECTED = 3;
+
+    private String[] names;
+    private long[] sent;
+    private long[] total;
+
+    public UploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Data input = getInputData();
+        String[] files = input.getStringArray(UploadEngine.KEY_FILES);
+        names = input.getStringArray(UploadEngine.KEY_FILE_NAMES);
+        int count = files.length;
+        sent  = new long[count];
+        total = new long[count];
+
+        SharedPreferences state =
+                getApplicationContext().getSharedPreferences(STATE, Context.MODE_PRIVATE);
+        String[] urls = new String[count];
+        String[] keys = new String[count];
+        int[] outcome = new int[count];
+        boolean committing = false;
+
+        for (int i = 0; i < count; i++) {
+            total[i] = files[i].isEmpty() ? 0 : new File(files[i]).length();
+            urls[i]  = state.getString(stateKey(i) + URL_SUFFIX, null);
+            keys[i]  = state.getString(stateKey(i) + KEY_SUFFIX, null);
+            committing |= keys[i] != null;
+            if (urls[i] != null) {
+                outcome[i] = DONE;
+                sent[i] = total[i];
+            } else if (total[i] == 0) {
+                outcome[i] = REJECTED; // Stage could not read it
+            } else {
+                sent[i] = state.getLong(stateKey(i) + OFFSET_SUFFIX, 0);
+            }
+        }
+        publishProgress();
+
+        // A commit that was already sent is retried with the same notes:
+        // sending more files now would change the batch it checks for
+        if (!committing) {
+            try {
+                transferAll(files, urls, outcome, state, input);
+            } catch (InterruptedException e) {
+                return Result.retry();
+            }
+
+            boolean retryable = false;
+            for (int o : outcome) retryable |= o == RETRY;
+            if (retryable && (isStopped() || getRunAttemptCount() + 1 < MAX_ATTEMPTS)) {
+                return Result.retry(); // finished files keep their URLs
+            }
+        }
+
+        List<Integer> uploaded = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (committing ? keys[i] != null : outcome[i] == DONE) uploaded.add(i);
+        }
+        int failed = count - uploaded.size();
+        if (uploaded.isEmpty()) {
+            cleanUp(files, state);
+            return Result.failure(output(null, failed, "Upload failed"));
+        }
+
+        try {
+            if (!commit(input, urls, keys, uploaded, committing, state)) {
+                if (getRunAttemptCount() + 1 < MAX_ATTEMPTS) return Result.retry();
+                cleanUp(files, state);
+                return Result.failure(output(null, count, "Could not save the upload"));
+            }
+        } catch (InterruptedException e) {
+            return Result.retry();
+        }
+
+        cleanUp(files, state);
+        return Result.success(output(urls[uploaded.get(0)], failed, null));
+    }
+
+    private static Data output(String url, int failed, String error) {
+        return new Data.Builder()
+                .putString(UploadEngine.KEY_URL, url)
+                .putInt(UploadEngine.KEY_FAILED, failed)
+                .putString(UploadEngine.KEY_ERROR, error)
+                .build();
+    }
+
+    // ── Transfer ───────────────────────────────────────────────────────────────
+
+    private void transferAll(String[] files, String[] urls, int[] outcome,
+                             SharedPreferences state, Data input) throws InterruptedException {
+        int transfers = Math.max(1, input.getInt(UploadEngine.KEY_TRANSFERS, 1));
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(transfers, files.length));
+        try {
+            for (int i = 0; i < files.length; i++) {
+                if (outcome[i] != PENDING) continue;
+                int index = i;
+                pool.execute(() -> {
+                    try {
+                        String url = transfer(index, new File(files[index]), state, input);
+                        if (url == null) {
+                            outcome[index] = RETRY;
+                        } else {
+                            state.edit().putString(stateKey(index) + URL_SUFFIX, url).apply();
+                            urls[index] = url;
+                            outcome[index] = DONE;
+                        }
+                    } catch (IOException e) {
+                        Log.w(TAG, "Transfer of " + names[index] + " interrupted", e);
+                        outcome[index] = RETRY;
+                    } catch (RuntimeException e) {
+                        // The SDK reports a rejected upload (size, preset, format) this way
+                        Log.e(TAG, "Transfer of " + names[index] + " rejected", e);
+                        outcome[index] = REJECTED;
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+        }
+        // Writes by the pool threads are visible once it has terminated
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    /** @return the secure URL, or null if the worker was stopped between chunks */
+    private String transfer(int index, File file, SharedPreferences state, Data input)
+            throws IOException {
+        long length = total[index];
+        long offset = sent[index];
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("X-Unique-Upload-Id", stateKey(index));
+
+        Map<String, Object> options = new HashMap<>();
+        options.put("resource_type", input.getString(UploadEngine.KEY_RESOURCE_TYPE));
+        options.put("extra_headers", headers);
+        String preset = input.getString(UploadEngine.KEY_PRESET);
+        if (preset != null) {
+            options.put("unsigned", true);
+            options.put("upload_preset", preset);
+        }
+
+        Uploader uploader = MediaManager.get().getCloudinary().uploader();
+        try (RandomAccessFile source = new RandomAccessFile(file, "r")) {
+            while (true) {
+                if (isStopped()) return null;
+
+                byte[] chunk = new byte[(int) Math.min(CHUNK_SIZE, length - offset)];
+                source.seek(offset);
+                source.readFully(chunk);
+                headers.put("Content-Range", "bytes " + offset + "-"
+                        + (offset + chunk.length - 1) + "/" + length);
+
+                Map<?, ?> result = uploader.upload(chunk, options);
+                offset += chunk.length;
+                sent(index, offset);
+                if (offset >= length) return (String) result.get("secure_url");
+
+                state.edit().putLong(stateKey(index) + OFFSET_SUFFIX, offset).apply();
+            }
+        }
+    }
+
+    private String stateKey(int index) {
+        return getId() + "-" + index;
+    }
+
+    private synchronized void sent(int index, long bytes) {
+        sent[index] = bytes;
+        publishProgress();
+    }
+
+    private synchronized void publishProgress() {
+        long sentAll = 0, totalAll = 0;
+        for (int i = 0; i < sent.length; i++) {
+            sentAll  += sent[i];
+            totalAll += total[i];
+        }
+        setProgressAsync(new Data.Builder()
+                .putStringArray(UploadEngine.KEY_FILE_NAMES, names)
+                .putLongArray(UploadEngine.KEY_SENT_EACH, sent.clone())
+                .putLongArray(UploadEngine.KEY_TOTAL_EACH, total.clone())
+                .putLong(UploadEngine.KEY_SENT, sentAll)
+                .putLong(UploadEngine.KEY_TOTAL, totalAll)
+                .build());
+    }
+
+    private void cleanUp(String[] files, SharedPreferences state) {
+        SharedPreferences.Editor editor = state.edit();
+        for (int i = 0; i < files.length; i++) {
+            if (!files[i].isEmpty()) new File(files[i]).delete();
+            editor.remove(stateKey(i) + OFFSET_SUFFIX)
+                    .remove(stateKey(i) + URL_SUFFIX)
+                    .remove(stateKey(i) + KEY_SUFFIX);
+        }
+        editor.apply();
+    }
+
+    // ── Metadata ───────────────────────────────────────────────────────────────
+    // Repositories and UserProfileCache are main-thread APIs (newKey() aside):
+    // post the write there and wait for its callback
+
+    private boolean commit(Data input, String[] urls, String[] keys, List<Integer> uploaded,
+                           boolean retried, SharedPreferences state)
+            throws InterruptedException {
+        boolean notes = UploadEngine.KIND_NOTE.equals(input.getString(UploadEngine.KEY_KIND));
+        if (notes && !retried && !saveKeys(input, keys, uploaded, state)) return false;
+
+        CountDownLatch done = new CountDownLatch(1);
+        boolean[] saved = new boolean[1];
+        Callback<Void> callback = new Callback<Void>() {
+            @Override
+            public void onResult(Void value) {
+                saved[0] = true;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                Log.w(TAG, "Metadata write failed: " + message);
+                done.countDown();
+            }
+        };
+
+        MAIN.post(() -> {
+            if (notes) {
+                commitNotes(input, urls, keys, uploaded, retried, callback);
+            } else {
+                commitPhoto(input, urls[uploaded.get(0)], callback);
+            }
+        });
+        return done.await(COMMIT_TIMEOUT_S, TimeUnit.SECONDS) && saved[0];
+    }
+
+    // Synchronously, before the write goes out: a retry must find the same keys
+    private boolean saveKeys(Data input, String[] keys, List<Integer> uploaded,
+                             SharedPreferences state) {
+        String roomCode = input.getString(UploadEngine.KEY_ROOM);
+        SharedPreferences.Editor editor = state.edit();
+        for (int i : uploaded) {
+            keys[i] = Repositories.notes().newKey(roomCode);
+            editor.putString(stateKey(i) + KEY_SUFFIX, keys[i]);
+        }
+        return editor.commit();
+    }
+
+    // The notes land in one write, so the first one shows whether it did
+    private void commitNotes(Data input, String[] urls, String[] keys, List<Integer> uploaded,
+                             boolean retried, Callback<Void> callback) {
+        if (!retried) {
+            addNotes(input, urls, keys, uploaded, callback);
+            return;
+        }
+        String roomCode = input.getString(UploadEngine.KEY_ROOM);
+        Repositories.notes().exists(roomCode, keys[uploaded.get(0)], new Callback<Boolean>() {
+            @Override
+            public void onResult(Boolean exists) {
+                if (exists) {
+                    callback.onResult(null);
+                } else {
+                    addNotes(input, urls, keys, uploaded, callback);
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    // Uploader name first so "Uploaded by" is never null
+    private void addNotes(Data input, String[] urls, String[] keys, List<Integer> uploaded,
+                          Callback<Void> callback) {
+        String uid = input.getString(UploadEngine.KEY_UID);
+        String[] types = input.getStringArray(UploadEngine.KEY_FILE_TYPES);
+        UserProfileCache.get().get(uid, user -> {
+            String uploaderName = user != null ? user.name : null;
+            if (uploaderName == null || uploaderName.isEmpty()) {
+                uploaderName = input.getString(UploadEngine.KEY_FALLBACK_NAME);
+            }
+            List<Note> notes = new ArrayList<>(uploaded.size());
+            for (int i : uploaded) {
+                notes.add(new Note(keys[i], names[i], urls[i], uid, uploaderName, 0, types[i]));
+            }
+            Repositories.notes().addAll(input.getString(UploadEngine.KEY_ROOM), notes, callback);
+        });
+    }
+
+    private static void commitPhoto(Data input, String url, Callback<Void> callback) {
+        String uid = input.getString(UploadEngine.KEY_UID);
+        UserProfileCache.get().get(uid, user -> {
+            if (user != null) {
+                UserProfileCache.get().edited(uid, new User(user.name, user.email, url));
+            }
+            Repositories.users().updateProfile(uid, "photoUrl", url, callback);
+        });
+    }
+
+    // ── Stage ──────────────────────────────────────────────────────────────────
+
+    /**
+     * Copies the picked files into no-backup storage — images through
+     * ImagePipeline — and hands their paths on to the UploadWorker; a file
+     * that can't be read gets an empty path, and KEY_BYTES_SAVED tells what
+     * shrinking saved. No constraints: it runs as soon as the room's queue
+     * reaches it. Pickers keep a persisted read grant until then, released
+     * here.
+     */
+    public static class Stage extends Worker {
+
+        public Stage(@NonNull Context context, @NonNull WorkerParameters params) {
+            super(context, params);
+        }
+
+        @NonNull
+        @Override
+        public Result doWork() {
+            Context context = getApplicationContext();
+            String[] sources = getInputData().getStringArray(UploadEngine.KEY_SOURCES);
+            File dir = new File(context.getNoBackupFilesDir(), "uploads");
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                return Result.failure(new Data.Builder()
+                        .putString(UploadEngine.KEY_ERROR, "No room to stage the upload")
+                        .build());
+            }
+
+            String[] files = new String[sources.length];
+            boolean any = false;
+            long bytesSaved = 0;
+            for (int i = 0; i < sources.length; i++) {
+                Uri source = Uri.parse(sources[i]);
+                File file = new File(dir, getId() + "-" + i);
+                ImagePipeline.Target target = imageTarget(i);
+                ImagePipeline.Result shrunk = target != null
+                        ? shrink(context, source, target, file) : null;
+                boolean staged = shrunk != null;
+                if (staged) bytesSaved += shrunk.bytesSaved();
+                else staged = copy(context, source, file);
+                files[i] = staged ? file.getPath() : "";
+                any |= !files[i].isEmpty();
+                try {
+                    context.getContentResolver().releasePersistableUriPermission(
+                            source, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+                } catch (SecurityException ignored) {
+                    // the grant wasn't persisted
+                }
+            }
+
+            if (!any) {
+                return Result.failure(new Data.Builder()
+                        .putString(UploadEngine.KEY_ERROR, "Could not read the file")
+                        .build());
+            }
+            return Result.success(new Data.Builder()
+                    .putStringArray(UploadEngine.KEY_FILES, files)
+                    .putLong(UploadEngine.KEY_BYTES_SAVED, bytesSaved)
+                    .build());
+        }
+
+        // Photos and image notes go up downscaled and without their metadata
+        private ImagePipeline.Target imageTarget(int index) {
+            Data input = getInputData();
+            if (UploadEngine.KIND_PHOTO.equals(input.getString(UploadEngine.KEY_KIND))) {
+                return ImagePipeline.Target.AVATAR;
+            }
+            String[] types = input.getStringArray(UploadEngine.KEY_FILE_TYPES);
+            return types != null && "image".equals(types[index])
+                    ? ImagePipeline.Target.NOTE_IMAGE : null;
+        }
+
+        // Null leaves it to copy(): the original is uploaded as picked
+        private static ImagePipeline.Result shrink(Context context, Uri source,
+                                                   ImagePipeline.Target target, File file) {
+            try {
+                return ImagePipeline.shrink(context, source, target, file);
+            } catch (IOException | SecurityException e) {
+                Log.w(TAG, "Could not shrink " + source + ", uploading it as is", e);
+                return null;
+            }
+        }
+
+        private static boolean copy(Context context, Uri source, File file) {
+            long copied = 0;
+            try (InputStream in = context.getContentResolver().openInputStream(source);
+                 OutputStream out = new FileOutputStream(file)) {
+                if (in == null) throw new IOException("No content at " + source);
+                byte[] buffer = new byte[64 * 1024];
+                for (int n; (n = in.read(buffer)) != -1; ) {
+                    out.write(buffer, 0, n);
+                    copied += n;
+                }
+            } catch (IOException | SecurityException e) {
+                Log.e(TAG, "Could not stage " + source, e);
+                copied = 0;
+            }
+            if (copied == 0) file.delete();
+            return copied > 0;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.studysync;
 
+import com.example.studysync.mapper.SnapshotModel;
+
 // app/src/main/java/com/example/studysync/User.java
+@SnapshotModel
 public class User {
     public String name;
     public String email;
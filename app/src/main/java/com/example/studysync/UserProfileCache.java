@@ -0,0 +1,180 @@
+package com.example.studysync;
+
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserProfileCache
+ *
+ * Process-wide cache of Users/{uid} profiles (name, email, photoUrl).
+ *
+ *   - LRU, at most MAX_ENTRIES profiles, each valid for TTL_MS
+ *   - concurrent requests for the same uid share one database read
+ *   - every cached uid has a listener on Users/{uid}/updatedAt only; when a
+ *     profile is edited the stamp changes and the entry is dropped
+ *
+ * Cache hits call back synchronously, so screens that were visited before
+ * render names and avatars without touching the network.
+ * Must be used from the main thread.
+ */
+public final class UserProfileCache {
+
+    public interface Callback {
+        /** @param user the profile, or null if it could not be loaded */
+        void onProfile(@Nullable User user);
+    }
+
+    private static final int  MAX_ENTRIES = 100;
+    private static final long TTL_MS      = 10 * 60 * 1000L; // 10 min
+
+    /** Written next to every profile edit so caches can invalidate cheaply. */
+    public static final String UPDATED_AT = "updatedAt";
+
+    private static UserProfileCache instance;
+
+    public static UserProfileCache get() {
+        if (instance == null) instance = new UserProfileCache();
+        return instance;
+    }
+
+    private static final class Entry {
+        User user;
+        long loadedAt;
+        Object stamp;                 // last seen updatedAt value
+        boolean stampSeen;
+        Registration stampRegistration;
+    }
+
+    private final UserRepository users = Repositories.users();
+
+    private final LinkedHashMap<String, Entry> entries =
+            new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() <= MAX_ENTRIES) return false;
+                    detach(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+            };
+
+    private final Map<String, List<Callback>> inFlight = new LinkedHashMap<>();
+
+    private UserProfileCache() {}
+
+    // ── Reads ──────────────────────────────────────────────────────────────────
+
+    public void get(String uid, Callback callback) {
+        Entry entry = entries.get(uid);
+        if (entry != null && entry.user != null
+                && SystemClock.elapsedRealtime() - entry.loadedAt < TTL_MS) {
+            callback.onProfile(entry.user);
+            return;
+        }
+
+        List<Callback> waiting = inFlight.get(uid);
+        if (waiting != null) {
+            waiting.add(callback);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(callback);
+        inFlight.put(uid, waiting);
+
+        users.load(uid, new com.example.studysync.Callback<User>() {
+            @Override
+            public void onResult(User user) {
+                if (user != null) store(uid, user);
+                deliver(uid, user);
+            }
+
+            @Override
+            public void onError(String message) {
+                deliver(uid, null);
+            }
+        });
+    }
+
+    // ── Writes ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Records a local profile edit so this device shows it immediately. The
+     * write itself goes through UserRepository.updateProfile(), which bumps
+     * updatedAt so other devices' caches drop their copy.
+     */
+    public void edited(String uid, User user) {
+        store(uid, user);
+        entries.get(uid).stampSeen = false; // our own stamp becomes the new baseline
+    }
+
+    public void invalidate(String uid) {
+        Entry entry = entries.remove(uid);
+        if (entry != null) detach(uid, entry);
+    }
+
+    /** Drops everything, e.g. on sign-out. */
+    public void clear() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            detach(e.getKey(), e.getValue());
+            it.remove();
+        }
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    private void store(String uid, User user) {
+        Entry entry = entries.get(uid);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(uid, entry);
+            attach(uid, entry);
+        }
+        entry.user     = user;
+        entry.loadedAt = SystemClock.elapsedRealtime();
+    }
+
+    private void attach(String uid, Entry entry) {
+        entry.stampRegistration = users.observeUpdatedAt(uid,
+                new com.example.studysync.Callback<Object>() {
+                    @Override
+                    public void onResult(Object stamp) {
+                        if (entry.stampSeen && !equal(stamp, entry.stamp)) {
+                            invalidate(uid); // profile changed somewhere else
+                            return;
+                        }
+                        entry.stamp     = stamp;
+                        entry.stampSeen = true;
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        entry.stampRegistration = null; // TTL still bounds staleness
+                    }
+                });
+    }
+
+    private void detach(String uid, Entry entry) {
+        if (entry.stampRegistration != null) {
+            entry.stampRegistration.remove();
+            entry.stampRegistration = null;
+        }
+    }
+
+    private void deliver(String uid, User user) {
+        List<Callback> waiting = inFlight.remove(uid);
+        if (waiting == null) return;
+        for (Callback callback : waiting) callback.onProfile(user);
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
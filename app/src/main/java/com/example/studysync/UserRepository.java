@@ -0,0 +1,21 @@
+package com.example.studysync;
+
+import java.util.Map;
+
+/** Profiles at Users/{uid} and counters at UserStats/{uid}. */
+public interface UserRepository {
+
+    /** Delivers null when the profile doesn't exist. */
+    void load(String uid, Callback<User> callback);
+
+    /** Watches Users/{uid}/updatedAt, which every profile edit bumps. */
+    Registration observeUpdatedAt(String uid, Callback<Object> listener);
+
+    /** Writes one profile field together with a new updatedAt stamp. */
+    void updateProfile(String uid, String field, String value, Callback<Void> callback);
+
+    /** All UserStats counters of a user; missing counters are absent. */
+    void loadStats(String uid, Callback<Map<String, Long>> callback);
+
+    void incrementStat(String uid, String counter, long delta);
+}
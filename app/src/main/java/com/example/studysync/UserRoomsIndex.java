@@ -0,0 +1,143 @@
+package com.example.studysync;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.ServerValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * UserRoomsIndex
+ *
+ * Per-user room membership index stored at UserRooms/{uid}/{roomCode}:
+ *   { roomName, memberCount, createdAt, isHost }
+ *
+ * Screens that list "my rooms" read this node instead of scanning the whole
+ * Rooms tree, so the read cost scales with the user's rooms only.
+ *
+ * Every write that changes Rooms/{roomCode}/members must add the matching
+ * index paths from here to the same updateChildren() call, so the index and
+ * the members node never drift apart. The UserStats rooms counter is kept
+ * in step by the same calls.
+ *
+ * memberCount is bumped on every member's entry without reading it first,
+ * so a member whose entry doesn't exist yet gets one holding memberCount
+ * only. Readers skip such entries (isComplete); Backfill replaces them
+ * with full ones.
+ */
+public final class UserRoomsIndex {
+
+    public static final String NODE = "UserRooms";
+
+    private UserRoomsIndex() {}
+
+    // ── Paths ──────────────────────────────────────────────────────────────────
+    public static String entryPath(String uid, String roomCode) {
+        return NODE + "/" + uid + "/" + roomCode;
+    }
+
+    private static String memberPath(String roomCode, String uid) {
+        return "Rooms/" + roomCode + "/members/" + uid;
+    }
+
+    // ── Entry ──────────────────────────────────────────────────────────────────
+    public static Map<String, Object> entry(String roomName, long memberCount,
+                                            Object createdAt, boolean isHost) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("roomName",    roomName);
+        entry.put("memberCount", memberCount);
+        entry.put("createdAt",   createdAt);
+        entry.put("isHost",      isHost);
+        return entry;
+    }
+
+    /** False for a memberCount-only entry left by a join or leave. */
+    public static boolean isComplete(DataSnapshot entry) {
+        return entry.hasChild("roomName");
+    }
+
+    /**
+     * Builds a RoomInfo from a UserRooms/{uid}/{roomCode} snapshot. The entry
+     * keys match RoomInfo's fields, so the generated mapper reads it.
+     */
+    public static RoomInfo toRoomInfo(DataSnapshot entry) {
+        return RoomInfoMapper.map(entry);
+    }
+
+    // ── Multi-path updates ─────────────────────────────────────────────────────
+
+    /** Room creation: the creator is the only member and the host. */
+    public static void putCreate(Map<String, Object> updates,
+                                 String roomCode, String creatorUid) {
+        updates.put(entryPath(creatorUid, roomCode),
+                entry(roomCode, 1, ServerValue.TIMESTAMP, true));
+        UserStats.putIncrement(updates, creatorUid, UserStats.ROOMS, 1);
+    }
+
+    /**
+     * Join: adds the member, writes the joiner's own entry and bumps the
+     * cached memberCount of everyone already in the room.
+     *
+     * @param room snapshot of Rooms/{roomCode} taken just before joining
+     */
+    public static void putJoin(Map<String, Object> updates,
+                               DataSnapshot room, String uid) {
+        String roomCode = room.getKey();
+        DataSnapshot members = room.child("members");
+        if (members.hasChild(uid)) return; // already a member — nothing to index
+
+        updates.put(memberPath(roomCode, uid), true);
+        updates.put(entryPath(uid, roomCode), entry(room, uid, members.getChildrenCount() + 1));
+        UserStats.putIncrement(updates, uid, UserStats.ROOMS, 1);
+
+        for (DataSnapshot member : members.getChildren()) {
+            updates.put(entryPath(member.getKey(), roomCode) + "/memberCount",
+                    ServerValue.increment(1));
+        }
+    }
+
+    /**
+     * Leave / remove: drops the member and their entry and decrements the
+     * cached memberCount of the remaining members.
+     */
+    public static void putLeave(Map<String, Object> updates, String roomCode,
+                                String uid, Iterable<String> remainingUids) {
+        updates.put(memberPath(roomCode, uid), null);
+        updates.put(entryPath(uid, roomCode), null);
+        UserStats.putIncrement(updates, uid, UserStats.ROOMS, -1);
+        for (String other : remainingUids) {
+            if (other.equals(uid)) continue;
+            updates.put(entryPath(other, roomCode) + "/memberCount",
+                    ServerValue.increment(-1));
+        }
+    }
+
+    /**
+     * Backfill: the full entry of a room uid is already a member of,
+     * replacing a memberCount-only one.
+     *
+     * @param room snapshot of Rooms/{roomCode}
+     */
+    public static void putExisting(Map<String, Object> updates,
+                                   DataSnapshot room, String uid) {
+        updates.put(entryPath(uid, room.getKey()),
+                entry(room, uid, room.child("members").getChildrenCount()));
+    }
+
+    private static Map<String, Object> entry(DataSnapshot room, String uid, long memberCount) {
+        String roomName  = room.child("roomName").getValue(String.class);
+        Long   createdAt = room.child("createdAt").getValue(Long.class);
+        String createdBy = room.child("createdBy").getValue(String.class);
+        return entry(roomName != null ? roomName : room.getKey(), memberCount,
+                createdAt != null ? createdAt : 0L, uid.equals(createdBy));
+    }
+
+    /** Room deletion: removes the index entry of every member. */
+    public static void putDelete(Map<String, Object> updates, String roomCode,
+                                 Iterable<String> memberUids) {
+        for (String uid : memberUids) {
+            updates.put(entryPath(uid, roomCode), null);
+            UserStats.putIncrement(updates, uid, UserStats.ROOMS, -1);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.studysync;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.ServerValue;
+
+import java.util.Map;
+
+/**
+ * UserStats
+ *
+ * Denormalized per-user activity counters stored at UserStats/{uid}:
+ *   { rooms, notesUploaded, messagesSent, tasksCompleted, pomodoroSessions }
+ *
+ * The dashboard and profile stat tiles read this one small node instead of
+ * scanning Rooms, Notes, Messages and Tasks. Counters are only ever changed
+ * with ServerValue.increment inside the same updateChildren() call as the
+ * write they count, so concurrent devices can't lose updates. Accounts older
+ * than the counters get them once from Backfill.
+ */
+public final class UserStats {
+
+    public static final String NODE = "UserStats";
+
+    public static final String ROOMS             = "rooms";
+    public static final String NOTES_UPLOADED    = "notesUploaded";
+    public static final String MESSAGES_SENT     = "messagesSent";
+    public static final String TASKS_COMPLETED   = "tasksCompleted";
+    public static final String POMODORO_SESSIONS = "pomodoroSessions";
+
+    private UserStats() {}
+
+    public static String path(String uid, String counter) {
+        return NODE + "/" + uid + "/" + counter;
+    }
+
+    /** Adds a counter change to a multi-path update. */
+    public static void putIncrement(Map<String, Object> updates,
+                                    String uid, String counter, long delta) {
+        if (uid == null || delta == 0) return;
+        updates.put(path(uid, counter), ServerValue.increment(delta));
+    }
+
+    /**
+     * Reads one counter from a UserStats/{uid} snapshot, 0 when missing. Not
+     * clamped: a negative value means the counter drifted and should show.
+     */
+    public static int read(DataSnapshot stats, String counter) {
+        Long value = stats.child(counter).getValue(Long.class);
+        return value != null ? value.intValue() : 0;
+    }
+
+    /** Same as {@link #read(DataSnapshot, String)} for UserRepository.loadStats() results. */
+    public static int read(Map<String, Long> stats, String counter) {
+        Long value = stats.get(counter);
+        return value != null ? value.intValue() : 0;
+    }
+}
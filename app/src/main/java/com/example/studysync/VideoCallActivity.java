@@ -3,7 +3,6 @@ package com.example.studysync;
 import android.Manifest;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
-import android.os.Handler;
 import android.view.SurfaceView;
 import android.view.View;
 import android.widget.*;
@@ -14,7 +13,6 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
 import java.util.*;
-import java.util.Locale;
 
 import io.agora.rtc2.*;
 import io.agora.rtc2.video.VideoCanvas;
@@ -40,17 +38,14 @@ public class VideoCallActivity extends AppCompatActivity {
     private final Map<Integer, View> videoTiles = new HashMap<>();
 
     // ── Timer ──────────────────────────────────────────────────────────────────
-    private final Handler  timerHandler  = new Handler();
-    private int            secondsElapsed = 0;
-    private final Runnable timerRunnable  = new Runnable() {
-        @Override public void run() {
-            secondsElapsed++;
-            int min = secondsElapsed / 60, sec = secondsElapsed % 60;
-            if (tvCallDuration != null)
-                tvCallDuration.setText(
-                        String.format(Locale.getDefault(), "%02d:%02d", min, sec));
-            timerHandler.postDelayed(this, 1000);
-        }
+    private long           callStartedAt;
+    private long           shownSeconds  = -1;
+    private final char[]   durationChars = new char[Ticker.CLOCK_CHARS];
+    private final Ticker.Listener durationTicker = now -> {
+        long seconds = (now - callStartedAt) / 1000;
+        if (seconds == shownSeconds || tvCallDuration == null) return;
+        shownSeconds = seconds;
+        tvCallDuration.setText(durationChars, 0, Ticker.formatClock(seconds, durationChars));
     };
 
     // ──────────────────────────────────────────────────────────────────────────
@@ -61,7 +56,8 @@ public class VideoCallActivity extends AppCompatActivity {
         if (getSupportActionBar() != null) getSupportActionBar().hide();
 
         initUI();
-        timerHandler.postDelayed(timerRunnable, 1000);
+        callStartedAt = ServerClock.get().now();
+        Ticker.get().subscribe(durationTicker);
 
         if (hasPermissions()) initAgora();
         else ActivityCompat.requestPermissions(this,
@@ -359,7 +355,7 @@ public class VideoCallActivity extends AppCompatActivity {
     }
 
     private void leaveAndFinish() {
-        timerHandler.removeCallbacks(timerRunnable);
+        Ticker.get().unsubscribe(durationTicker);
         if (rtcEngine != null) {
             rtcEngine.leaveChannel();
             RtcEngine.destroy();
@@ -410,7 +406,7 @@ public class VideoCallActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         // Only cleanup here if leaveAndFinish wasn't already called
-        timerHandler.removeCallbacks(timerRunnable);
+        Ticker.get().unsubscribe(durationTicker);
         if (rtcEngine != null) {
             rtcEngine.leaveChannel();
             RtcEngine.destroy();
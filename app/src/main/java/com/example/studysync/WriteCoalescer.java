@@ -0,0 +1,88 @@
+package com.example.studysync;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * WriteCoalescer
+ *
+ * Holds rapid changes to the same key for a short quiet window and writes
+ * only the final value — and nothing at all when the value ends up back
+ * where it started (tick, untick). Callers show pending() values locally,
+ * so the UI never waits for the write.
+ *
+ * Not thread-safe; use from the thread the Timer posts to.
+ */
+public final class WriteCoalescer<V> {
+
+    public interface Writer<V> {
+        /** @param base the value the backend had when the first change came in */
+        void write(String key, V base, V value);
+    }
+
+    /** Delayed execution, e.g. a main-thread Handler. */
+    public interface Timer {
+        void schedule(Runnable task, long delayMs);
+
+        void cancel(Runnable task);
+    }
+
+    private static final class Pending<V> {
+        V base;
+        V latest;
+        Runnable flush;
+    }
+
+    private final Map<String, Pending<V>> pending = new HashMap<>();
+    private final Timer timer;
+    private final long windowMs;
+    private final Writer<V> writer;
+
+    public WriteCoalescer(Timer timer, long windowMs, Writer<V> writer) {
+        this.timer    = timer;
+        this.windowMs = windowMs;
+        this.writer   = writer;
+    }
+
+    /** Records value for key; the window restarts with every change. */
+    public void set(String key, V base, V value) {
+        Pending<V> entry = pending.get(key);
+        if (entry == null) {
+            entry = new Pending<>();
+            entry.base = base;
+            pending.put(key, entry);
+        } else {
+            timer.cancel(entry.flush);
+        }
+        entry.latest = value;
+        entry.flush  = () -> flush(key);
+        timer.schedule(entry.flush, windowMs);
+    }
+
+    public boolean isPending(String key) {
+        return pending.containsKey(key);
+    }
+
+    /** The value waiting to be written for key, or null. */
+    public V pending(String key) {
+        Pending<V> entry = pending.get(key);
+        return entry != null ? entry.latest : null;
+    }
+
+    /** Writes key's final value now (if it differs from its base). */
+    public void flush(String key) {
+        Pending<V> entry = pending.remove(key);
+        if (entry == null) return;
+        timer.cancel(entry.flush);
+        if (!Objects.equals(entry.base, entry.latest)) {
+            writer.write(key, entry.base, entry.latest);
+        }
+    }
+
+    /** Before leaving the screen or a bulk write that must see every change. */
+    public void flushAll() {
+        for (String key : new ArrayList<>(pending.keySet())) flush(key);
+    }
+}
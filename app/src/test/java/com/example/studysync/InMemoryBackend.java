@@ -0,0 +1,785 @@
+package com.example.studysync;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+
+/**
+ * InMemoryBackend
+ *
+ * Pure-Java stand-in for the Firebase repositories, for unit tests and
+ * benchmarks. It keeps the listener semantics the screens depend on:
+ *
+ *   - nothing is delivered synchronously; callbacks queue up like on the
+ *     main looper and run on {@link #flush()}
+ *   - value listeners fire once on registration and after every change
+ *   - child listeners replay existing children as added
+ *   - a limitToLast window reports the child pushed out by a new message as
+ *     removed (before the new child's added), and an older child sliding
+ *     back in after a delete as added; a startAfter() listener never slides
+ *   - push keys sort by creation order; server timestamps come from a
+ *     counter that advances on every write
+ *
+ * Values are copied on the way in and out, as with real snapshots.
+ * Not thread-safe — drive it from the test thread.
+ */
+public class InMemoryBackend {
+
+    public final RoomRepository    rooms    = new Rooms();
+    public final MessageRepository messages = new Messages();
+    public final NoteRepository    notes    = new Notes();
+    public final TaskRepository    tasks    = new Tasks();
+    public final UserRepository    users    = new Users();
+    public final TimerRepository   timer    = new Timer();
+
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private long pushCounter;
+    /** Server clock behind TIMESTAMP-style values; tests may move it forward. */
+    public long serverTime = 1_000_000L;
+    private int writes;
+    /** Makes the server refuse new chat messages, as security rules would. */
+    public boolean rejectMessages;
+    private int messagesDownloaded;
+
+    // ── Scheduling ─────────────────────────────────────────────────────────────
+
+    /** Executor that queues onto the same loop as the backend's callbacks. */
+    public final Executor mainExecutor = this::post;
+
+    public void post(Runnable task) {
+        pending.add(task);
+    }
+
+    /** Runs queued callbacks, including ones they queue, until idle. */
+    public int flush() {
+        int ran = 0;
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            task.run();
+            ran++;
+        }
+        return ran;
+    }
+
+    /** Makes these repositories the ones the app code gets from Repositories. */
+    public void install() {
+        Repositories.install(rooms, messages, notes, tasks, users, timer);
+    }
+
+    /** Number of write operations (each one a single Firebase round trip). */
+    public int writeCount() {
+        return writes;
+    }
+
+    /** Chat messages delivered to clients, by listeners and page loads. */
+    public int messagesDownloaded() {
+        return messagesDownloaded;
+    }
+
+    public long stat(String uid, String counter) {
+        Long value = stats(uid).get(counter);
+        return value != null ? value : 0;
+    }
+
+    private String pushKey() {
+        return String.format(Locale.ROOT, "-N%012d", ++pushCounter);
+    }
+
+    private long now() {
+        return ++serverTime;
+    }
+
+    private void write() {
+        writes++;
+    }
+
+    private final Map<String, Map<String, Long>> stats = new HashMap<>();
+
+    private Map<String, Long> stats(String uid) {
+        return stats.computeIfAbsent(uid, k -> new HashMap<>());
+    }
+
+    private void increment(String uid, String counter, long delta) {
+        if (uid == null || delta == 0) return;
+        stats(uid).merge(counter, delta, Long::sum);
+    }
+
+    private <T> void succeed(Callback<T> callback, T value) {
+        if (callback != null) post(() -> callback.onResult(value));
+    }
+
+    // ── Messages ───────────────────────────────────────────────────────────────
+
+    private final Map<String, TreeMap<String, ChatMessage>> messageData = new HashMap<>();
+    private final List<Window> windows = new ArrayList<>();
+
+    /** A live query: the newest {@code limit} children, or everything from {@code fromKey} on. */
+    private final class Window implements Registration {
+        final String roomCode;
+        final int limit;
+        final String fromKey;
+        final ChildListener<ChatMessage> listener;
+        final Map<String, ChatMessage> visible = new LinkedHashMap<>();
+        boolean removed;
+
+        Window(String roomCode, int limit, String fromKey, ChildListener<ChatMessage> listener) {
+            this.roomCode = roomCode;
+            this.limit    = limit;
+            this.fromKey  = fromKey;
+            this.listener = listener;
+        }
+
+        /** Diffs the children matching the query against what was delivered. */
+        void sync() {
+            Map<String, ChatMessage> now = new TreeMap<>();
+            if (fromKey != null) {
+                now.putAll(room(roomCode).tailMap(fromKey, true));
+            } else {
+                for (Map.Entry<String, ChatMessage> e : room(roomCode).descendingMap().entrySet()) {
+                    if (now.size() == limit) break;
+                    now.put(e.getKey(), e.getValue());
+                }
+            }
+            for (Iterator<String> it = visible.keySet().iterator(); it.hasNext(); ) {
+                String key = it.next();
+                if (now.containsKey(key)) continue;
+                it.remove();
+                post(() -> { if (!removed) listener.onRemoved(key); });
+            }
+            for (Map.Entry<String, ChatMessage> e : now.entrySet()) {
+                String key = e.getKey();
+                ChatMessage before = visible.get(key);
+                if (before == e.getValue()) continue;
+                visible.put(key, e.getValue());
+                messagesDownloaded++;
+                ChatMessage copy = copy(e.getValue());
+                if (before == null) {
+                    post(() -> { if (!removed) listener.onAdded(key, copy); });
+                } else {
+                    post(() -> { if (!removed) listener.onChanged(key, copy); });
+                }
+            }
+        }
+
+        @Override
+        public void remove() {
+            removed = true;
+            windows.remove(this);
+        }
+    }
+
+    private TreeMap<String, ChatMessage> room(String roomCode) {
+        return messageData.computeIfAbsent(roomCode, k -> new TreeMap<>());
+    }
+
+    private void messagesChanged(String roomCode) {
+        for (Window window : new ArrayList<>(windows)) {
+            if (window.roomCode.equals(roomCode)) window.sync();
+        }
+    }
+
+    private static ChatMessage copy(ChatMessage msg) {
+        ChatMessage out = new ChatMessage(msg.getSenderId(), msg.getSenderName(),
+                msg.getText(), msg.getTimestamp());
+        out.setMessageId(msg.getMessageId());
+        return out;
+    }
+
+    private List<ChatMessage> copyAll(Collection<ChatMessage> messages) {
+        messagesDownloaded += messages.size();
+        List<ChatMessage> out = new ArrayList<>(messages.size());
+        for (ChatMessage msg : messages) out.add(copy(msg));
+        return out;
+    }
+
+    private final class Messages implements MessageRepository {
+
+        @Override
+        public Registration observeLatest(String roomCode, int limit,
+                                          ChildListener<ChatMessage> listener) {
+            Window window = new Window(roomCode, limit, null, listener);
+            windows.add(window);
+            window.sync();
+            return window;
+        }
+
+        @Override
+        public Registration observeFrom(String roomCode, String fromKey,
+                                        ChildListener<ChatMessage> listener) {
+            Window window = new Window(roomCode, 0, fromKey, listener);
+            windows.add(window);
+            window.sync();
+            return window;
+        }
+
+        @Override
+        public void loadBefore(String roomCode, String beforeKey, int limit,
+                               Callback<List<ChatMessage>> callback) {
+            NavigableMap<String, ChatMessage> older = room(roomCode).headMap(beforeKey, false);
+            List<ChatMessage> page = new ArrayList<>();
+            for (ChatMessage msg : older.descendingMap().values()) {
+                if (page.size() == limit) break;
+                page.add(0, msg);
+            }
+            succeed(callback, copyAll(page));
+        }
+
+        @Override
+        public void loadAfter(String roomCode, String afterKey, int limit,
+                              Callback<List<ChatMessage>> callback) {
+            List<ChatMessage> page = new ArrayList<>();
+            for (ChatMessage msg : room(roomCode).tailMap(afterKey, false).values()) {
+                if (page.size() == limit) break;
+                page.add(msg);
+            }
+            succeed(callback, copyAll(page));
+        }
+
+        @Override
+        public String newKey(String roomCode) {
+            return pushKey();
+        }
+
+        @Override
+        public void send(String roomCode, ChatMessage message, Callback<Void> callback) {
+            write();
+            if (rejectMessages) {
+                if (callback != null) post(() -> callback.onError("Permission denied"));
+                return;
+            }
+            String key = message.getMessageId();
+            if (key == null) {
+                key = pushKey();
+                message.setMessageId(key);
+            }
+            ChatMessage stored = copy(message);
+            stored.setTimestamp(now());
+            room(roomCode).put(key, stored);
+            increment(message.getSenderId(), UserStats.MESSAGES_SENT, 1);
+            messagesChanged(roomCode);
+            succeed(callback, null);
+        }
+
+        @Override
+        public void delete(String roomCode, ChatMessage message, Callback<Void> callback) {
+            write();
+            if (room(roomCode).remove(message.getMessageId()) != null) {
+                increment(message.getSenderId(), UserStats.MESSAGES_SENT, -1);
+            }
+            messagesChanged(roomCode);
+            succeed(callback, null);
+        }
+    }
+
+    // ── Collections (notes: value listeners, tasks: child listeners) ──────────
+
+    /**
+     * Ordered children of one node. Writes replace a child with a new
+     * instance, so child observers diff by identity.
+     */
+    private final class Node<T> {
+        final TreeMap<String, T> children = new TreeMap<>();
+        final List<Callback<List<T>>> observers = new ArrayList<>();
+        final Map<ChildListener<T>, Map<String, T>> childObservers = new LinkedHashMap<>();
+        final Copier<T> copier;
+
+        Node(Copier<T> copier) {
+            this.copier = copier;
+        }
+
+        Registration observe(Callback<List<T>> listener) {
+            observers.add(listener);
+            deliver(listener);
+            return () -> observers.remove(listener);
+        }
+
+        Registration observeChildren(ChildListener<T> listener) {
+            childObservers.put(listener, new HashMap<>());
+            sync(listener);
+            return () -> childObservers.remove(listener);
+        }
+
+        void changed() {
+            for (Callback<List<T>> listener : new ArrayList<>(observers)) deliver(listener);
+            for (ChildListener<T> listener : new ArrayList<>(childObservers.keySet())) sync(listener);
+        }
+
+        private void sync(ChildListener<T> listener) {
+            Map<String, T> seen = childObservers.get(listener);
+            List<Runnable> events = new ArrayList<>();
+            for (Iterator<String> it = seen.keySet().iterator(); it.hasNext(); ) {
+                String key = it.next();
+                if (children.containsKey(key)) continue;
+                it.remove();
+                events.add(() -> listener.onRemoved(key));
+            }
+            for (Map.Entry<String, T> child : children.entrySet()) {
+                String key = child.getKey();
+                T before = seen.put(key, child.getValue());
+                if (before == child.getValue()) continue;
+                T copy = copier.copy(child.getValue());
+                events.add(before == null
+                        ? () -> listener.onAdded(key, copy)
+                        : () -> listener.onChanged(key, copy));
+            }
+            for (Runnable event : events) {
+                post(() -> { if (childObservers.containsKey(listener)) event.run(); });
+            }
+        }
+
+        private void deliver(Callback<List<T>> listener) {
+            List<T> snapshot = new ArrayList<>(children.size());
+            for (T value : children.values()) snapshot.add(copier.copy(value));
+            post(() -> {
+                if (observers.contains(listener)) listener.onResult(snapshot);
+            });
+        }
+    }
+
+    private interface Copier<T> {
+        T copy(T value);
+    }
+
+    private static Note copy(Note note) {
+        return new Note(note.getId(), note.getFileName(), note.getFileUrl(),
+                note.getUploaderId(), note.getUploaderName(), note.getUploadedAt(),
+                note.getFileType());
+    }
+
+    private static Task copy(Task task) {
+        return new Task(task.getId(), task.getTitle(), task.isCompleted(), task.getCreatedAt());
+    }
+
+    private final Map<String, Node<Note>> noteData = new HashMap<>();
+    private final Map<String, Node<Task>> taskData = new HashMap<>();
+
+    private Node<Note> notesOf(String roomCode) {
+        return noteData.computeIfAbsent(roomCode, k -> new Node<>(InMemoryBackend::copy));
+    }
+
+    private Node<Task> tasksOf(String uid) {
+        return taskData.computeIfAbsent(uid, k -> new Node<>(InMemoryBackend::copy));
+    }
+
+    private final class Notes implements NoteRepository {
+
+        @Override
+        public Registration observe(String roomCode, Callback<List<Note>> listener) {
+            return notesOf(roomCode).observe(listener);
+        }
+
+        @Override
+        public void add(String roomCode, Note note, Callback<Void> callback) {
+            addAll(roomCode, Collections.singletonList(note), callback);
+        }
+
+        @Override
+        public void addAll(String roomCode, List<Note> added, Callback<Void> callback) {
+            write();
+            for (Note note : added) {
+                String key = note.getId() != null ? note.getId() : pushKey();
+                note.setId(key);
+                Note stored = copy(note);
+                stored.setUploadedAt(now());
+                notesOf(roomCode).children.put(key, stored);
+                increment(note.getUploaderId(), UserStats.NOTES_UPLOADED, 1);
+            }
+            notesOf(roomCode).changed();
+            succeed(callback, null);
+        }
+
+        @Override
+        public String newKey(String roomCode) {
+            return pushKey();
+        }
+
+        @Override
+        public void exists(String roomCode, String noteId, Callback<Boolean> callback) {
+            succeed(callback, notesOf(roomCode).children.containsKey(noteId));
+        }
+
+        @Override
+        public void delete(String roomCode, Note note, Callback<Void> callback) {
+            write();
+            if (notesOf(roomCode).children.remove(note.getId()) != null) {
+                increment(note.getUploaderId(), UserStats.NOTES_UPLOADED, -1);
+            }
+            notesOf(roomCode).changed();
+            succeed(callback, null);
+        }
+    }
+
+    private final class Tasks implements TaskRepository {
+
+        @Override
+        public Registration observe(String uid, ChildListener<Task> listener) {
+            return tasksOf(uid).observeChildren(listener);
+        }
+
+        @Override
+        public void add(String uid, String title, Callback<Void> callback) {
+            write();
+            String key = pushKey();
+            tasksOf(uid).children.put(key, new Task(key, title, false, now()));
+            tasksOf(uid).changed();
+            succeed(callback, null);
+        }
+
+        @Override
+        public void setCompleted(String uid, Task task, boolean completed) {
+            if (task.isCompleted() == completed) return;
+            write();
+            Task stored = tasksOf(uid).children.get(task.getId());
+            if (stored != null) {
+                Task updated = copy(stored);
+                updated.setCompleted(completed);
+                tasksOf(uid).children.put(task.getId(), updated);
+            }
+            // Same as the Firebase write: the counter follows the caller's view
+            increment(uid, UserStats.TASKS_COMPLETED, completed ? 1 : -1);
+            tasksOf(uid).changed();
+        }
+
+        @Override
+        public void delete(String uid, Task task, Callback<Void> callback) {
+            write();
+            tasksOf(uid).children.remove(task.getId());
+            if (task.isCompleted()) increment(uid, UserStats.TASKS_COMPLETED, -1);
+            tasksOf(uid).changed();
+            succeed(callback, null);
+        }
+
+        @Override
+        public void completeAll(String uid, Collection<Task> tasks, Callback<Void> callback) {
+            int newlyCompleted = 0;
+            for (Task task : tasks) {
+                Task stored = tasksOf(uid).children.get(task.getId());
+                if (task.isCompleted() || stored == null) continue;
+                Task updated = copy(stored);
+                updated.setCompleted(true);
+                tasksOf(uid).children.put(task.getId(), updated);
+                newlyCompleted++;
+            }
+            if (newlyCompleted > 0) {
+                write();
+                increment(uid, UserStats.TASKS_COMPLETED, newlyCompleted);
+                tasksOf(uid).changed();
+            }
+            succeed(callback, null);
+        }
+
+        @Override
+        public void deleteAll(String uid, Collection<Task> tasks, Callback<Void> callback) {
+            if (!tasks.isEmpty()) {
+                write();
+                for (Task task : tasks) {
+                    tasksOf(uid).children.remove(task.getId());
+                    if (task.isCompleted()) increment(uid, UserStats.TASKS_COMPLETED, -1);
+                }
+                tasksOf(uid).changed();
+            }
+            succeed(callback, null);
+        }
+    }
+
+    // ── Users ──────────────────────────────────────────────────────────────────
+
+    private final Map<String, User> profiles = new HashMap<>();
+    private final Map<String, Object> updatedAt = new HashMap<>();
+    private final Map<String, List<Callback<Object>>> stampObservers = new HashMap<>();
+
+    /** Seeds a profile, as sign-up would. */
+    public void putUser(String uid, User user) {
+        profiles.put(uid, new User(user.name, user.email, user.photoUrl));
+    }
+
+    private final class Users implements UserRepository {
+
+        @Override
+        public void load(String uid, Callback<User> callback) {
+            User user = profiles.get(uid);
+            succeed(callback, user != null ? new User(user.name, user.email, user.photoUrl) : null);
+        }
+
+        @Override
+        public Registration observeUpdatedAt(String uid, Callback<Object> listener) {
+            List<Callback<Object>> list = stampObservers.computeIfAbsent(uid, k -> new ArrayList<>());
+            list.add(listener);
+            Object stamp = updatedAt.get(uid);
+            post(() -> { if (list.contains(listener)) listener.onResult(stamp); });
+            return () -> list.remove(listener);
+        }
+
+        @Override
+        public void updateProfile(String uid, String field, String value, Callback<Void> callback) {
+            write();
+            User user = profiles.computeIfAbsent(uid, k -> new User());
+            if ("name".equals(field))     user.name = value;
+            if ("email".equals(field))    user.email = value;
+            if ("photoUrl".equals(field)) user.photoUrl = value;
+            Object stamp = now();
+            updatedAt.put(uid, stamp);
+            List<Callback<Object>> list = stampObservers.get(uid);
+            if (list != null) {
+                for (Callback<Object> listener : new ArrayList<>(list)) {
+                    post(() -> { if (list.contains(listener)) listener.onResult(stamp); });
+                }
+            }
+            succeed(callback, null);
+        }
+
+        @Override
+        public void loadStats(String uid, Callback<Map<String, Long>> callback) {
+            succeed(callback, new HashMap<>(stats(uid)));
+        }
+
+        @Override
+        public void incrementStat(String uid, String counter, long delta) {
+            write();
+            increment(uid, counter, delta);
+        }
+    }
+
+    // ── Rooms ──────────────────────────────────────────────────────────────────
+
+    private static final class Room {
+        String createdBy;
+        long createdAt;
+        final Set<String> members = new LinkedHashSet<>();
+        final List<ChildListener<Boolean>> memberObservers = new ArrayList<>();
+    }
+
+    private final Map<String, Room> roomData = new HashMap<>();
+    private final Map<String, List<Callback<List<RoomInfo>>>> myRoomsObservers = new HashMap<>();
+
+    private List<RoomInfo> roomsOf(String uid) {
+        List<RoomInfo> out = new ArrayList<>();
+        for (Map.Entry<String, Room> e : new TreeMap<>(roomData).entrySet()) {
+            Room room = e.getValue();
+            if (!room.members.contains(uid)) continue;
+            RoomInfo info = new RoomInfo(e.getKey(), room.members.size(), room.createdAt,
+                    uid.equals(room.createdBy));
+            info.setRoomName(e.getKey());
+            out.add(info);
+        }
+        return out;
+    }
+
+    private void myRoomsChanged(Collection<String> uids) {
+        for (String uid : uids) {
+            List<Callback<List<RoomInfo>>> list = myRoomsObservers.get(uid);
+            if (list == null) continue;
+            for (Callback<List<RoomInfo>> listener : new ArrayList<>(list)) {
+                List<RoomInfo> rooms = roomsOf(uid);
+                post(() -> { if (list.contains(listener)) listener.onResult(rooms); });
+            }
+        }
+    }
+
+    private void memberEvent(Room room, String uid, boolean added) {
+        for (ChildListener<Boolean> listener : new ArrayList<>(room.memberObservers)) {
+            post(() -> {
+                if (!room.memberObservers.contains(listener)) return;
+                if (added) listener.onAdded(uid, Boolean.TRUE);
+                else listener.onRemoved(uid);
+            });
+        }
+    }
+
+    private final class Rooms implements RoomRepository {
+
+        @Override
+        public void create(String roomCode, String creatorUid, Callback<Boolean> callback) {
+            if (roomData.containsKey(roomCode)) {
+                succeed(callback, false);
+                return;
+            }
+            write();
+            Room room = new Room();
+            room.createdBy = creatorUid;
+            room.createdAt = now();
+            room.members.add(creatorUid);
+            roomData.put(roomCode, room);
+            increment(creatorUid, UserStats.ROOMS, 1);
+            myRoomsChanged(room.members);
+            succeed(callback, true);
+        }
+
+        @Override
+        public void join(String roomCode, String uid, Callback<Boolean> callback) {
+            Room room = roomData.get(roomCode);
+            if (room == null) {
+                succeed(callback, false);
+                return;
+            }
+            if (room.members.add(uid)) {
+                write();
+                increment(uid, UserStats.ROOMS, 1);
+                memberEvent(room, uid, true);
+                myRoomsChanged(room.members);
+            }
+            succeed(callback, true);
+        }
+
+        @Override
+        public void leave(String roomCode, String uid, Collection<String> memberUids,
+                          Callback<Void> callback) {
+            write();
+            Room room = roomData.get(roomCode);
+            if (room != null && room.members.remove(uid)) {
+                increment(uid, UserStats.ROOMS, -1);
+                memberEvent(room, uid, false);
+                List<String> affected = new ArrayList<>(room.members);
+                affected.add(uid);
+                myRoomsChanged(affected);
+            }
+            succeed(callback, null);
+        }
+
+        @Override
+        public void delete(String roomCode, Callback<Void> callback) {
+            write();
+            Room room = roomData.remove(roomCode);
+            if (room != null) {
+                for (String uid : room.members) increment(uid, UserStats.ROOMS, -1);
+                myRoomsChanged(room.members);
+            }
+            messageData.remove(roomCode);
+            messagesChanged(roomCode);
+            noteData.remove(roomCode);
+            timerData.remove(roomCode);
+            succeed(callback, null);
+        }
+
+        @Override
+        public void exists(String roomCode, Callback<Boolean> callback) {
+            succeed(callback, roomData.containsKey(roomCode));
+        }
+
+        @Override
+        public void loadHost(String roomCode, Callback<String> callback) {
+            Room room = roomData.get(roomCode);
+            succeed(callback, room != null ? room.createdBy : null);
+        }
+
+        @Override
+        public Registration observeMembers(String roomCode, ChildListener<Boolean> listener) {
+            Room room = roomData.get(roomCode);
+            if (room == null) return () -> {};
+            room.memberObservers.add(listener);
+            for (String uid : new ArrayList<>(room.members)) {
+                post(() -> {
+                    if (room.memberObservers.contains(listener)) listener.onAdded(uid, Boolean.TRUE);
+                });
+            }
+            return () -> room.memberObservers.remove(listener);
+        }
+
+        @Override
+        public Registration observeMyRooms(String uid, Callback<List<RoomInfo>> listener) {
+            List<Callback<List<RoomInfo>>> list =
+                    myRoomsObservers.computeIfAbsent(uid, k -> new ArrayList<>());
+            list.add(listener);
+            List<RoomInfo> rooms = roomsOf(uid);
+            post(() -> { if (list.contains(listener)) listener.onResult(rooms); });
+            return () -> list.remove(listener);
+        }
+
+        @Override
+        public void loadRecentRooms(String uid, int limit, Callback<List<RoomInfo>> callback) {
+            TreeSet<RoomInfo> byCreated = new TreeSet<>((a, b) -> {
+                int cmp = Long.compare(a.getCreatedAt(), b.getCreatedAt());
+                return cmp != 0 ? cmp : a.getRoomCode().compareTo(b.getRoomCode());
+            });
+            byCreated.addAll(roomsOf(uid));
+            List<RoomInfo> recent = new ArrayList<>(byCreated);
+            succeed(callback, recent.subList(Math.max(0, recent.size() - limit), recent.size()));
+        }
+    }
+
+    // ── Timer ──────────────────────────────────────────────────────────────────
+
+    private final Map<String, TimerState> timerData = new HashMap<>();
+    private final Map<String, TimerState.Settings> settingsData = new HashMap<>();
+    private final Map<String, List<Callback<TimerState>>> timerObservers = new HashMap<>();
+
+    private TimerState timerOf(String roomCode) {
+        TimerState state = timerData.get(roomCode);
+        return state != null ? state : TimerState.IDLE;
+    }
+
+    private void setTimer(String roomCode, TimerState state) {
+        write();
+        timerData.put(roomCode, state);
+        List<Callback<TimerState>> list = timerObservers.get(roomCode);
+        if (list == null) return;
+        for (Callback<TimerState> listener : new ArrayList<>(list)) {
+            post(() -> { if (list.contains(listener)) listener.onResult(state); });
+        }
+    }
+
+    private final class Timer implements TimerRepository {
+
+        @Override
+        public Registration observe(String roomCode, Callback<TimerState> listener) {
+            List<Callback<TimerState>> list =
+                    timerObservers.computeIfAbsent(roomCode, k -> new ArrayList<>());
+            list.add(listener);
+            TimerState state = timerOf(roomCode);
+            post(() -> { if (list.contains(listener)) listener.onResult(state); });
+            return () -> list.remove(listener);
+        }
+
+        @Override
+        public void start(String roomCode, long workMillis, long breakMillis, int cycles) {
+            setTimer(roomCode, new TimerState(serverTime, workMillis, breakMillis, cycles, 0, 0));
+        }
+
+        @Override
+        public void pause(String roomCode) {
+            TimerState t = timerOf(roomCode);
+            setTimer(roomCode, new TimerState(t.getStartedAt(), t.getWorkMillis(),
+                    t.getBreakMillis(), t.getCycles(), serverTime, t.getPausedTotal()));
+        }
+
+        @Override
+        public void resume(String roomCode, long pausedTotal) {
+            TimerState t = timerOf(roomCode);
+            setTimer(roomCode, new TimerState(t.getStartedAt(), t.getWorkMillis(),
+                    t.getBreakMillis(), t.getCycles(), 0, pausedTotal));
+        }
+
+        @Override
+        public void reset(String roomCode) {
+            setTimer(roomCode, TimerState.IDLE);
+        }
+
+        @Override
+        public void loadSettings(String roomCode, Callback<TimerState.Settings> callback) {
+            TimerState.Settings s = settingsData.get(roomCode);
+            succeed(callback, s != null
+                    ? new TimerState.Settings(s.getWorkDuration(), s.getBreakDuration()) : null);
+        }
+
+        @Override
+        public void saveSettings(String roomCode, TimerState.Settings settings) {
+            write();
+            settingsData.put(roomCode, new TimerState.Settings(
+                    settings.getWorkDuration(), settings.getBreakDuration()));
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package com.example.studysync;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Chat, notes and task flows against the in-memory backend — offline and at
+ * a scale that would be slow to set up on a live project.
+ */
+public class RepositoryFlowsTest {
+
+    private static final String ROOM = "ROOM01";
+    private static final String UID  = "alice";
+
+    private InMemoryBackend backend;
+
+    @Before
+    public void setUp() {
+        backend = new InMemoryBackend();
+    }
+
+    // ── Chat ───────────────────────────────────────────────────────────────────
+
+    private final List<ChatMessage> shown = new ArrayList<>();
+    private boolean lastAppendedAtEnd;
+
+    private ChatFeed startFeed() {
+        return startFeed(null);
+    }
+
+    private ChatFeed startFeed(MessageCache cache) {
+        ChatFeed feed = new ChatFeed(backend.messages, cache, ROOM, backend.mainExecutor,
+                new ChatFeed.Listener() {
+                    @Override
+                    public void onMessagesChanged(List<ChatMessage> messages, boolean appendedAtEnd) {
+                        shown.clear();
+                        shown.addAll(messages);
+                        lastAppendedAtEnd = appendedAtEnd;
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        fail(message);
+                    }
+                });
+        feed.start();
+        backend.flush();
+        return feed;
+    }
+
+    private int sent;
+
+    /** Sends "msg 0", "msg 1", … continuing the numbering across calls. */
+    private void send(int count) {
+        for (int i = 0; i < count; i++) {
+            backend.messages.send(ROOM, new ChatMessage(UID, "Alice", "msg " + sent++, 0), null);
+        }
+        backend.flush();
+    }
+
+    private static void assertOrdered(List<ChatMessage> messages) {
+        for (int i = 1; i < messages.size(); i++) {
+            assertTrue(messages.get(i - 1).getMessageId()
+                    .compareTo(messages.get(i).getMessageId()) < 0);
+        }
+    }
+
+    private static int number(ChatMessage msg) {
+        return Integer.parseInt(msg.getText().substring("msg ".length()));
+    }
+
+    private boolean isShown(ChatMessage msg) {
+        for (ChatMessage row : shown) {
+            if (row.getMessageId().equals(msg.getMessageId())) return true;
+        }
+        return false;
+    }
+
+    private static void assertContiguous(List<ChatMessage> messages) {
+        assertTrue(isContiguous(messages));
+    }
+
+    @Test
+    public void chatOpensWithOnePageAndPagesThroughLongHistory() {
+        send(1000);
+        ChatFeed feed = startFeed();
+
+        assertEquals(ChatFeed.PAGE_SIZE, shown.size());
+        assertEquals(999, number(shown.get(shown.size() - 1)));
+
+        // Scrolled to the top: back-fills until the start of the room while
+        // pages far below the viewport are dropped
+        for (int guard = 0; guard < 100 && number(shown.get(0)) > 0; guard++) {
+            feed.onViewportChanged(0, 5);
+            backend.flush();
+            assertTrue(shown.size() <= ChatFeed.PAGE_SIZE * (ChatFeed.PAGES_AROUND_VIEW + 3));
+        }
+        assertEquals(0, number(shown.get(0)));
+        assertOrdered(shown);
+
+        // Scrolled back to the bottom: evicted pages are re-fetched until the
+        // history joins the live tail again
+        for (int guard = 0; guard < 100 && !isContiguous(shown); guard++) {
+            feed.onViewportChanged(shown.size() - 5, shown.size() - 1);
+            backend.flush();
+        }
+        assertContiguous(shown);
+        assertEquals(999, number(shown.get(shown.size() - 1)));
+        assertEquals(1000, backend.stat(UID, UserStats.MESSAGES_SENT));
+    }
+
+    private static boolean isContiguous(List<ChatMessage> messages) {
+        for (int i = 1; i < messages.size(); i++) {
+            if (number(messages.get(i - 1)) + 1 != number(messages.get(i))) return false;
+        }
+        return true;
+    }
+
+    @Test
+    public void newMessageSlidesWindowWithoutDroppingOlderRows() {
+        send(ChatFeed.PAGE_SIZE);
+        startFeed();
+
+        backend.messages.send(ROOM, new ChatMessage(UID, "Alice", "latest", 0), null);
+        backend.flush();
+
+        assertEquals(ChatFeed.PAGE_SIZE + 1, shown.size());
+        assertTrue(lastAppendedAtEnd);
+        assertEquals("latest", shown.get(shown.size() - 1).getText());
+        assertOrdered(shown);
+    }
+
+    @Test
+    public void deleteInsideWindowRemovesRowAndOlderMessageSlidesIn() {
+        send(ChatFeed.PAGE_SIZE + 5);
+        startFeed();
+        ChatMessage victim = shown.get(10);
+
+        backend.messages.delete(ROOM, victim, null);
+        backend.flush();
+
+        assertEquals(ChatFeed.PAGE_SIZE, shown.size());
+        for (ChatMessage msg : shown) {
+            assertNotEquals(victim.getMessageId(), msg.getMessageId());
+        }
+        assertEquals("msg 4", shown.get(0).getText());
+        assertEquals(ChatFeed.PAGE_SIZE + 4, backend.stat(UID, UserStats.MESSAGES_SENT));
+    }
+
+    @Test
+    public void deleteInsideWindowWithHistoryLoadedShowsNoDuplicates() {
+        send(ChatFeed.PAGE_SIZE * 2);
+        ChatFeed feed = startFeed();
+        feed.onViewportChanged(0, 5);
+        backend.flush();
+        assertEquals(ChatFeed.PAGE_SIZE * 2, shown.size());
+        ChatMessage victim = shown.get(shown.size() - 10);
+
+        backend.messages.delete(ROOM, victim, null);
+        backend.flush();
+
+        assertEquals(ChatFeed.PAGE_SIZE * 2 - 1, shown.size());
+        for (ChatMessage msg : shown) {
+            assertNotEquals(victim.getMessageId(), msg.getMessageId());
+        }
+        assertOrdered(shown);
+        assertEquals(0, number(shown.get(0)));
+    }
+
+    @Test
+    public void stoppedFeedIgnoresLateEvents() {
+        ChatFeed feed = startFeed();
+        feed.stop();
+
+        send(3);
+
+        assertTrue(shown.isEmpty());
+    }
+
+    @Test
+    public void ownMessageShowsAtOnceAndIsReconciledInPlace() {
+        send(5);
+        ChatFeed feed = startFeed();
+
+        String key = backend.messages.newKey(ROOM);
+        ChatMessage message = new ChatMessage(UID, "Alice", "hello", 42);
+        message.setMessageId(key);
+        feed.addPending(message);
+        backend.messages.send(ROOM, message, new Callback<Void>() {
+            @Override public void onResult(Void value) { feed.markSent(key); }
+            @Override public void onError(String error) { feed.markFailed(key); }
+        });
+
+        // Shown before any event is delivered
+        assertEquals(6, shown.size());
+        assertEquals(ChatMessage.PENDING, shown.get(5).getSendState());
+        ChatMessage before = shown.get(4);
+
+        backend.flush();
+
+        assertEquals(6, shown.size());
+        ChatMessage echoed = shown.get(5);
+        assertEquals(key, echoed.getMessageId());
+        assertEquals(ChatMessage.SENT, echoed.getSendState());
+        assertNotEquals(42L, echoed.getTimestamp()); // server time replaced the local guess
+        assertSame(before, shown.get(4));           // other rows untouched
+
+        // Rejected: stays in place, marked
+        backend.rejectMessages = true;
+        String rejectedKey = backend.messages.newKey(ROOM);
+        ChatMessage rejected = new ChatMessage(UID, "Alice", "nope", 43);
+        rejected.setMessageId(rejectedKey);
+        feed.addPending(rejected);
+        backend.messages.send(ROOM, rejected, new Callback<Void>() {
+            @Override public void onResult(Void value) { feed.markSent(rejectedKey); }
+            @Override public void onError(String error) { feed.markFailed(rejectedKey); }
+        });
+        backend.flush();
+
+        assertEquals(7, shown.size());
+        assertEquals(rejectedKey, shown.get(6).getMessageId());
+        assertEquals(ChatMessage.FAILED, shown.get(6).getSendState());
+
+        feed.removeLocal(rejectedKey);
+        assertEquals(6, shown.size());
+    }
+
+    /** Disk cache stand-in; reads are async like ChatCache's. */
+    private final class MemoryCache implements MessageCache {
+        final TreeMap<String, ChatMessage> rows = new TreeMap<>();
+
+        @Override
+        public void loadLatest(String roomCode, int limit, Callback<List<ChatMessage>> callback) {
+            List<ChatMessage> latest = new ArrayList<>();
+            for (ChatMessage msg : rows.descendingMap().values()) {
+                if (latest.size() == limit) break;
+                latest.add(0, msg);
+            }
+            backend.post(() -> callback.onResult(latest));
+        }
+
+        @Override
+        public void putAll(String roomCode, List<ChatMessage> messages) {
+            for (ChatMessage msg : messages) rows.put(msg.getMessageId(), msg);
+        }
+
+        @Override public void remove(String roomCode, String key) { rows.remove(key); }
+        @Override public void clearRoom(String roomCode) { rows.clear(); }
+        @Override public void clearAll() { rows.clear(); }
+    }
+
+    @Test
+    public void cachedChatRendersBeforeNetworkAndSkipsOlderHistory() {
+        MemoryCache cache = new MemoryCache();
+        send(100);
+        startFeed(cache).stop();
+        assertEquals(ChatFeed.PAGE_SIZE, cache.rows.size());
+
+        send(5);
+        int downloadedBefore = backend.messagesDownloaded();
+        ChatFeed feed = startFeed(cache);
+
+        assertEquals(ChatFeed.PAGE_SIZE + 5, shown.size());
+        assertContiguous(shown);
+        assertEquals(104, number(shown.get(shown.size() - 1)));
+        // The 5 newer ones, then the live query re-reads the cached screenful;
+        // none of the 70 older messages are downloaded
+        assertEquals(5 + 5 + ChatFeed.PAGE_SIZE, backend.messagesDownloaded() - downloadedBefore);
+
+        // Live after catching up: new messages and deletes still arrive
+        send(1);
+        assertEquals(ChatFeed.PAGE_SIZE + 6, shown.size());
+        ChatMessage victim = shown.get(shown.size() - 1);
+        backend.messages.delete(ROOM, victim, null);
+        backend.flush();
+        assertEquals(ChatFeed.PAGE_SIZE + 5, shown.size());
+        assertFalse(cache.rows.containsKey(victim.getMessageId()));
+        feed.stop();
+    }
+
+    @Test
+    public void cachedMessagesDeletedAnywhereAreDropped() {
+        MemoryCache cache = new MemoryCache();
+        send(40);
+        startFeed(cache).stop();
+
+        // Deleted while the room was closed
+        ChatMessage whileAway = shown.get(3);
+        backend.messages.delete(ROOM, whileAway, null);
+        backend.flush();
+        ChatFeed feed = startFeed(cache);
+
+        assertEquals(ChatFeed.PAGE_SIZE - 1, shown.size());
+        assertFalse(isShown(whileAway));
+        assertFalse(cache.rows.containsKey(whileAway.getMessageId()));
+
+        // Deleted live, well before the last cached key
+        ChatMessage live = shown.get(0);
+        backend.messages.delete(ROOM, live, null);
+        backend.flush();
+        assertEquals(ChatFeed.PAGE_SIZE - 2, shown.size());
+        assertFalse(isShown(live));
+        assertFalse(cache.rows.containsKey(live.getMessageId()));
+        feed.stop();
+    }
+
+    @Test
+    public void staleCacheFallsBackToLatestWindow() {
+        MemoryCache cache = new MemoryCache();
+        send(40);
+        startFeed(cache).stop();
+
+        send(ChatFeed.PAGE_SIZE * 2);
+        startFeed(cache);
+
+        assertEquals(ChatFeed.PAGE_SIZE, shown.size());
+        assertContiguous(shown);
+        assertEquals(40 + ChatFeed.PAGE_SIZE * 2 - 1, number(shown.get(shown.size() - 1)));
+    }
+
+    // ── Notes ──────────────────────────────────────────────────────────────────
+
+    @Test
+    public void notesObserverSeesAddsAndDeletesAndCounterFollows() {
+        List<List<Note>> deliveries = new ArrayList<>();
+        Registration registration = backend.notes.observe(ROOM, deliveries::add);
+        backend.flush();
+        assertEquals(1, deliveries.size());
+        assertTrue(deliveries.get(0).isEmpty());
+
+        for (int i = 0; i < 50; i++) {
+            backend.notes.add(ROOM, new Note(null, "file" + i + ".pdf", "https://x/" + i,
+                    UID, "Alice", 0, "pdf"), null);
+        }
+        backend.flush();
+        List<Note> latest = deliveries.get(deliveries.size() - 1);
+        assertEquals(50, latest.size());
+        assertTrue(latest.get(0).getUploadedAt() > 0);
+        assertEquals(50, backend.stat(UID, UserStats.NOTES_UPLOADED));
+
+        backend.notes.delete(ROOM, latest.get(0), null);
+        backend.flush();
+        assertEquals(49, deliveries.get(deliveries.size() - 1).size());
+        assertEquals(49, backend.stat(UID, UserStats.NOTES_UPLOADED));
+
+        registration.remove();
+        int seen = deliveries.size();
+        backend.notes.add(ROOM, new Note(null, "late.txt", "u", UID, "Alice", 0, "text"), null);
+        backend.flush();
+        assertEquals(seen, deliveries.size());
+    }
+
+    @Test
+    public void noteBatchArrivesInOneUpdateWithEveryKey() {
+        List<List<Note>> deliveries = new ArrayList<>();
+        backend.notes.observe(ROOM, deliveries::add);
+        backend.flush();
+        int before = deliveries.size();
+
+        List<Note> batch = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            batch.add(new Note(null, "lecture" + i + ".pdf", "https://x/" + i,
+                    UID, "Alice", 0, "pdf"));
+        }
+        backend.notes.addAll(ROOM, batch, null);
+        backend.flush();
+
+        assertEquals(before + 1, deliveries.size());
+        assertEquals(12, deliveries.get(deliveries.size() - 1).size());
+        for (Note note : batch) assertTrue(note.getId() != null);
+        assertEquals(12, backend.stat(UID, UserStats.NOTES_UPLOADED));
+    }
+
+    @Test
+    public void noteBatchWithPresetKeysIsStoredUnderThem() {
+        String key = backend.notes.newKey(ROOM);
+        boolean[] existed = new boolean[2];
+        backend.notes.exists(ROOM, key, exists -> existed[0] = exists);
+
+        Note note = new Note(key, "slides.pdf", "https://x/slides", UID, "Alice", 0, "pdf");
+        backend.notes.addAll(ROOM, Collections.singletonList(note), null);
+        backend.notes.exists(ROOM, key, exists -> existed[1] = exists);
+        backend.flush();
+
+        assertFalse(existed[0]);
+        assertTrue(existed[1]);
+        assertEquals(key, note.getId());
+    }
+
+    // ── Tasks ──────────────────────────────────────────────────────────────────
+
+    /** Task list rebuilt from child events, like TaskActivity's adapter. */
+    private static final class TaskView implements ChildListener<Task> {
+        final TreeMap<String, Task> rows = new TreeMap<>();
+        int events;
+
+        @Override public void onAdded(String key, Task task)   { rows.put(key, task); events++; }
+        @Override public void onChanged(String key, Task task) { rows.put(key, task); events++; }
+        @Override public void onRemoved(String key)            { rows.remove(key); events++; }
+
+        List<Task> tasks() { return new ArrayList<>(rows.values()); }
+    }
+
+    @Test
+    public void taskCompletionCounterStaysInStep() {
+        TaskView view = new TaskView();
+        backend.tasks.observe(UID, view);
+        for (int i = 0; i < 200; i++) backend.tasks.add(UID, "task " + i, null);
+        backend.flush();
+
+        List<Task> tasks = view.tasks();
+        assertEquals(200, tasks.size());
+        for (int i = 0; i < 100; i++) backend.tasks.setCompleted(UID, tasks.get(i), true);
+        backend.flush();
+        assertEquals(100, backend.stat(UID, UserStats.TASKS_COMPLETED));
+
+        // Re-applying the state the caller already has is not a write
+        tasks = view.tasks();
+        int writes = backend.writeCount();
+        backend.tasks.setCompleted(UID, tasks.get(0), true);
+        assertEquals(writes, backend.writeCount());
+
+        backend.tasks.delete(UID, tasks.get(0), null);
+        backend.tasks.delete(UID, tasks.get(150), null);
+        backend.flush();
+        assertEquals(99, backend.stat(UID, UserStats.TASKS_COMPLETED));
+        assertEquals(198, view.rows.size());
+    }
+
+    @Test
+    public void taskToggleIsOneChildEventNotAFullReload() {
+        TaskView view = new TaskView();
+        backend.tasks.observe(UID, view);
+        for (int i = 0; i < 500; i++) backend.tasks.add(UID, "task " + i, null);
+        backend.flush();
+
+        int events = view.events;
+        backend.tasks.setCompleted(UID, view.tasks().get(250), true);
+        backend.flush();
+        assertEquals(events + 1, view.events);
+        assertTrue(view.tasks().get(250).isCompleted());
+    }
+
+    @Test
+    public void bulkTaskActionsAreOneWriteEach() {
+        TaskView view = new TaskView();
+        backend.tasks.observe(UID, view);
+        for (int i = 0; i < 300; i++) backend.tasks.add(UID, "task " + i, null);
+        backend.flush();
+        backend.tasks.setCompleted(UID, view.tasks().get(0), true);
+        backend.flush();
+
+        int writes = backend.writeCount();
+        backend.tasks.completeAll(UID, view.tasks(), null);
+        backend.flush();
+        assertEquals(writes + 1, backend.writeCount());
+        assertEquals(300, backend.stat(UID, UserStats.TASKS_COMPLETED));
+
+        backend.tasks.deleteAll(UID, view.tasks().subList(0, 120), null);
+        backend.flush();
+        assertEquals(writes + 2, backend.writeCount());
+        assertEquals(180, view.rows.size());
+        assertEquals(180, backend.stat(UID, UserStats.TASKS_COMPLETED));
+    }
+
+    /** Timer driven by the test: run() fires everything still scheduled. */
+    private static final class ManualTimer implements WriteCoalescer.Timer {
+        final List<Runnable> scheduled = new ArrayList<>();
+
+        @Override public void schedule(Runnable task, long delayMs) { scheduled.add(task); }
+        @Override public void cancel(Runnable task) { scheduled.remove(task); }
+
+        void run() {
+            for (Runnable task : new ArrayList<>(scheduled)) {
+                scheduled.remove(task);
+                task.run();
+            }
+        }
+    }
+
+    @Test
+    public void rapidTogglesCoalesceIntoTheFinalWriteOnly() {
+        TaskView view = new TaskView();
+        backend.tasks.observe(UID, view);
+        for (int i = 0; i < 3; i++) backend.tasks.add(UID, "task " + i, null);
+        backend.flush();
+        List<Task> tasks = view.tasks();
+
+        ManualTimer timer = new ManualTimer();
+        WriteCoalescer<Boolean> toggles = new WriteCoalescer<>(timer, 600,
+                (taskId, base, completed) ->
+                        backend.tasks.setCompleted(UID, new Task(taskId, null, base, 0), completed));
+
+        int writes = backend.writeCount();
+        int events = view.events;
+        // Task 0: tick, untick, tick → one write. Task 1: tick, untick → none
+        toggles.set(tasks.get(0).getId(), false, true);
+        toggles.set(tasks.get(0).getId(), false, false);
+        toggles.set(tasks.get(0).getId(), false, true);
+        toggles.set(tasks.get(1).getId(), false, true);
+        toggles.set(tasks.get(1).getId(), false, false);
+        assertEquals(Boolean.TRUE, toggles.pending(tasks.get(0).getId()));
+        assertEquals(writes, backend.writeCount());
+
+        timer.run();
+        backend.flush();
+        assertEquals(writes + 1, backend.writeCount());
+        assertEquals(events + 1, view.events);
+        assertFalse(toggles.isPending(tasks.get(0).getId()));
+        assertTrue(view.rows.get(tasks.get(0).getId()).isCompleted());
+        assertFalse(view.rows.get(tasks.get(1).getId()).isCompleted());
+        assertEquals(1, backend.stat(UID, UserStats.TASKS_COMPLETED));
+    }
+
+    // ── Timer ──────────────────────────────────────────────────────────────────
+
+    private static final long MIN = 60_000L;
+
+    @Test
+    public void pomodoroScheduleRunsThroughPhasesWithoutWrites() {
+        List<TimerState> seen = new ArrayList<>();
+        backend.timer.observe(ROOM, seen::add);
+        backend.timer.start(ROOM, 25 * MIN, 5 * MIN, 2);
+        backend.flush();
+        TimerState schedule = seen.get(seen.size() - 1);
+        long t0 = backend.serverTime;
+        int writes = backend.writeCount();
+        int events = seen.size();
+
+        TimerState.Phase phase = schedule.phaseAt(t0 + 10 * MIN);
+        assertEquals(TimerState.Status.RUNNING, phase.status);
+        assertFalse(phase.isBreak);
+        assertEquals(15 * MIN, phase.remainingMillis);
+
+        phase = schedule.phaseAt(t0 + 27 * MIN);
+        assertTrue(phase.isBreak);
+        assertEquals(3 * MIN, phase.remainingMillis);
+
+        phase = schedule.phaseAt(t0 + 31 * MIN);
+        assertFalse(phase.isBreak);
+        assertEquals(1, phase.cycle);
+        assertEquals(24 * MIN, phase.remainingMillis);
+
+        assertEquals(TimerState.Status.FINISHED, schedule.phaseAt(t0 + 60 * MIN).status);
+
+        // Every transition above came from the schedule alone
+        assertEquals(writes, backend.writeCount());
+        assertEquals(events, seen.size());
+    }
+
+    @Test
+    public void pausedScheduleFreezesAndResumesWhereItStopped() {
+        List<TimerState> seen = new ArrayList<>();
+        backend.timer.observe(ROOM, seen::add);
+        backend.timer.start(ROOM, 25 * MIN, 5 * MIN, TimerState.DEFAULT_CYCLES);
+        long t0 = backend.serverTime;
+
+        backend.serverTime = t0 + 10 * MIN;
+        backend.timer.pause(ROOM);
+        backend.flush();
+        TimerState paused = seen.get(seen.size() - 1);
+        assertEquals(TimerState.Status.PAUSED, paused.phaseAt(t0 + 40 * MIN).status);
+        assertEquals(15 * MIN, paused.phaseAt(t0 + 40 * MIN).remainingMillis);
+
+        backend.serverTime = t0 + 40 * MIN;
+        backend.timer.resume(ROOM, paused.pausedTotalAfterResume(backend.serverTime));
+        backend.flush();
+        TimerState resumed = seen.get(seen.size() - 1);
+        TimerState.Phase phase = resumed.phaseAt(t0 + 45 * MIN);
+        assertEquals(TimerState.Status.RUNNING, phase.status);
+        assertEquals(10 * MIN, phase.remainingMillis);
+
+        backend.timer.reset(ROOM);
+        backend.flush();
+        assertEquals(TimerState.Status.IDLE,
+                seen.get(seen.size() - 1).phaseAt(t0 + 50 * MIN).status);
+    }
+}
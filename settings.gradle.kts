@@ -16,3 +16,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "StudySync"
 include(":app")
+include(":snapshot-mapper")
@@ -0,0 +1,14 @@
+// Annotation processor that generates DataSnapshot mappers for the model
+// classes (see SnapshotModel). Wired into :app like the Glide compiler.
+plugins {
+    id("java-library")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
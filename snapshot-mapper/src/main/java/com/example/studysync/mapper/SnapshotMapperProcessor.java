@@ -0,0 +1,379 @@
+package com.example.studysync.mapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * SnapshotMapperProcessor
+ *
+ * Generates {@code <Model>Mapper} for every class annotated with
+ * {@link SnapshotModel}:
+ *
+ *   public static Model map(DataSnapshot snapshot)
+ *
+ * which returns null for a missing snapshot, like getValue(Class) does. The
+ * generated code only touches the Firebase API and the model's own setters
+ * and fields, so the app needs nothing from this module at runtime.
+ *
+ * Conversions follow the database's value types: numbers arrive as Long or
+ * Double and are narrowed like the Firebase mapper does; a value of the
+ * wrong type leaves the property at its default instead of throwing.
+ */
+public class SnapshotMapperProcessor extends AbstractProcessor {
+
+    private static final String PROPERTY_NAME = "com.google.firebase.database.PropertyName";
+    private static final String EXCLUDE       = "com.google.firebase.database.Exclude";
+    private static final String DATA_SNAPSHOT = "com.google.firebase.database.DataSnapshot";
+
+    /** Supported property types → converter helper emitted into the mapper. */
+    private static final Map<String, String> CONVERTERS = new LinkedHashMap<>();
+    static {
+        CONVERTERS.put("java.lang.String",  "asString");
+        CONVERTERS.put("long",              "asLong");
+        CONVERTERS.put("java.lang.Long",    "asLong");
+        CONVERTERS.put("int",               "asInt");
+        CONVERTERS.put("java.lang.Integer", "asInt");
+        CONVERTERS.put("double",            "asDouble");
+        CONVERTERS.put("java.lang.Double",  "asDouble");
+        CONVERTERS.put("float",             "asFloat");
+        CONVERTERS.put("java.lang.Float",   "asFloat");
+        CONVERTERS.put("boolean",           "asBoolean");
+        CONVERTERS.put("java.lang.Boolean", "asBoolean");
+    }
+
+    /** One mapped property. */
+    private static final class Property {
+        final String name;       // database key
+        final String assignment; // e.g. "model.setText(%s)" or "model.text = %s"
+        final String converter;
+        final boolean primitive;
+
+        Property(String name, String assignment, String converter, boolean primitive) {
+            this.name       = name;
+            this.assignment = assignment;
+            this.converter  = converter;
+            this.primitive  = primitive;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(SnapshotModel.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (Element element : round.getElementsAnnotatedWith(SnapshotModel.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@SnapshotModel only applies to classes");
+                continue;
+            }
+            TypeElement model = (TypeElement) element;
+            try {
+                generate(model);
+            } catch (InvalidModel e) {
+                error(e.element, e.getMessage());
+            } catch (IOException e) {
+                error(model, "Could not write mapper: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    // ── Model inspection ───────────────────────────────────────────────────────
+
+    private static final class InvalidModel extends Exception {
+        final Element element;
+
+        InvalidModel(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+
+    private void generate(TypeElement model) throws InvalidModel, IOException {
+        if (model.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new InvalidModel(model, "@SnapshotModel class must not be abstract");
+        }
+        if (!hasNoArgConstructor(model)) {
+            throw new InvalidModel(model, "@SnapshotModel class needs a non-private no-arg constructor");
+        }
+
+        String keyField = model.getAnnotation(SnapshotModel.class).key();
+        String keyAssignment = null;
+        List<Property> properties = new ArrayList<>();
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(model.getEnclosedElements());
+        for (VariableElement field : ElementFilter.fieldsIn(model.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) continue;
+
+            String fieldName = field.getSimpleName().toString();
+            ExecutableElement getter = findGetter(methods, field);
+            ExecutableElement setter = findSetter(methods, field);
+            if (has(field, EXCLUDE) || has(getter, EXCLUDE) || has(setter, EXCLUDE)) continue;
+
+            String assignment;
+            TypeMirror type;
+            if (setter != null) {
+                assignment = "model." + setter.getSimpleName() + "(%s)";
+                type = setter.getParameters().get(0).asType();
+            } else if (!modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.FINAL)) {
+                assignment = "model." + fieldName + " = %s";
+                type = field.asType();
+            } else {
+                throw new InvalidModel(field, "No setter for '" + fieldName
+                        + "'; add one, make the field public, or mark it @Exclude");
+            }
+
+            if (fieldName.equals(keyField)) {
+                if (!type.toString().equals("java.lang.String")) {
+                    throw new InvalidModel(field, "Key field '" + fieldName + "' must be a String");
+                }
+                keyAssignment = assignment;
+                continue;
+            }
+
+            String converter = CONVERTERS.get(type.toString());
+            if (converter == null) {
+                throw new InvalidModel(field, "Unsupported property type " + type
+                        + " for '" + fieldName + "'");
+            }
+            properties.add(new Property(propertyName(field, getter, setter), assignment,
+                    converter, type.getKind().isPrimitive()));
+        }
+        if (!keyField.isEmpty() && keyAssignment == null) {
+            throw new InvalidModel(model, "Key field '" + keyField + "' not found");
+        }
+
+        write(model, keyAssignment, properties);
+    }
+
+    private static boolean hasNoArgConstructor(TypeElement model) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(model.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()
+                    && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ExecutableElement findGetter(List<ExecutableElement> methods, VariableElement field) {
+        String cap = capitalize(field.getSimpleName().toString());
+        boolean bool = field.asType().getKind() == TypeKind.BOOLEAN;
+        for (ExecutableElement method : methods) {
+            String name = method.getSimpleName().toString();
+            if (!method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.STATIC)) continue;
+            if (name.equals("get" + cap) || (bool && (name.equals("is" + cap)
+                    || name.equals(field.getSimpleName().toString())))) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static ExecutableElement findSetter(List<ExecutableElement> methods, VariableElement field) {
+        String fieldName = field.getSimpleName().toString();
+        Set<String> names = new LinkedHashSet<>();
+        names.add("set" + capitalize(fieldName));
+        // boolean isHost → setHost(), as the bean convention names it
+        if (field.asType().getKind() == TypeKind.BOOLEAN && fieldName.length() > 2
+                && fieldName.startsWith("is") && Character.isUpperCase(fieldName.charAt(2))) {
+            names.add("set" + fieldName.substring(2));
+        }
+        for (ExecutableElement method : methods) {
+            if (method.getParameters().size() == 1
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && names.contains(method.getSimpleName().toString())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static String propertyName(Element... candidates) {
+        for (Element element : candidates) {
+            String renamed = annotationValue(element, PROPERTY_NAME);
+            if (renamed != null) return renamed;
+        }
+        return candidates[0].getSimpleName().toString();
+    }
+
+    private static boolean has(Element element, String annotation) {
+        return find(element, annotation) != null;
+    }
+
+    private static AnnotationMirror find(Element element, String annotation) {
+        if (element == null) return null;
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement())
+                    .getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static String annotationValue(Element element, String annotation) {
+        AnnotationMirror mirror = find(element, annotation);
+        if (mirror == null) return null;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e
+                : mirror.getElementValues().entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals("value")) {
+                return String.valueOf(e.getValue().getValue());
+            }
+        }
+        return null;
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    // ── Code generation ────────────────────────────────────────────────────────
+
+    private void write(TypeElement model, String keyAssignment, List<Property> properties)
+            throws IOException {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(model);
+        String packageName = pkg.getQualifiedName().toString();
+        String modelName   = model.getSimpleName().toString();
+        String mapperName  = modelName + "Mapper";
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by SnapshotMapperProcessor. Do not edit.\n");
+        if (!packageName.isEmpty()) out.append("package ").append(packageName).append(";\n\n");
+        out.append("import ").append(DATA_SNAPSHOT).append(";\n\n");
+        out.append("/** Reads ").append(modelName).append(" from a snapshot without reflection. */\n");
+        out.append("public final class ").append(mapperName).append(" {\n\n");
+        out.append("    private ").append(mapperName).append("() {}\n\n");
+        out.append("    /** @return null if the snapshot does not exist */\n");
+        out.append("    public static ").append(modelName).append(" map(DataSnapshot snapshot) {\n");
+        out.append("        if (!snapshot.exists()) return null;\n");
+        out.append("        ").append(modelName).append(" model = new ").append(modelName).append("();\n");
+        if (keyAssignment != null) {
+            out.append("        ").append(String.format(keyAssignment, "snapshot.getKey()")).append(";\n");
+        }
+        if (!properties.isEmpty()) {
+            out.append("        for (DataSnapshot child : snapshot.getChildren()) {\n");
+            out.append("            String name = child.getKey();\n");
+            out.append("            if (name == null) continue;\n");
+            out.append("            switch (name) {\n");
+            for (Property property : properties) {
+                out.append("                case \"").append(property.name).append("\": {\n");
+                // getValue() only for known keys: unknown subtrees are never converted
+                String read = property.converter + "(child.getValue())";
+                if (property.primitive) {
+                    // Keep the field's default when the value isn't usable
+                    out.append("                    ").append(boxedType(property.converter))
+                       .append(" ").append(LOCAL).append(" = ").append(read).append(";\n");
+                    out.append("                    if (").append(LOCAL).append(" != null) ")
+                       .append(String.format(property.assignment, LOCAL)).append(";\n");
+                } else {
+                    out.append("                    ")
+                       .append(String.format(property.assignment, read)).append(";\n");
+                }
+                out.append("                    break;\n");
+                out.append("                }\n");
+            }
+            out.append("                default:\n");
+            out.append("                    break;\n");
+            out.append("            }\n");
+            out.append("        }\n");
+        }
+        out.append("        return model;\n");
+        out.append("    }\n");
+
+        Set<String> used = new LinkedHashSet<>();
+        for (Property property : properties) used.add(property.converter);
+        for (String converter : used) out.append(converterSource(converter));
+        out.append("}\n");
+
+        String qualified = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualified, model);
+        try (Writer writer = file.openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    private static final String LOCAL = "converted";
+
+    private static String boxedType(String converter) {
+        switch (converter) {
+            case "asLong":    return "Long";
+            case "asInt":     return "Integer";
+            case "asDouble":  return "Double";
+            case "asFloat":   return "Float";
+            case "asBoolean": return "Boolean";
+            default:          return "String";
+        }
+    }
+
+    private static String converterSource(String converter) {
+        switch (converter) {
+            case "asString":
+                return "\n    private static String asString(Object value) {\n"
+                     + "        return value instanceof String ? (String) value : null;\n"
+                     + "    }\n";
+            case "asLong":
+                return "\n    private static Long asLong(Object value) {\n"
+                     + "        return value instanceof Number ? ((Number) value).longValue() : null;\n"
+                     + "    }\n";
+            case "asInt":
+                return "\n    private static Integer asInt(Object value) {\n"
+                     + "        return value instanceof Number ? ((Number) value).intValue() : null;\n"
+                     + "    }\n";
+            case "asDouble":
+                return "\n    private static Double asDouble(Object value) {\n"
+                     + "        return value instanceof Number ? ((Number) value).doubleValue() : null;\n"
+                     + "    }\n";
+            case "asFloat":
+                return "\n    private static Float asFloat(Object value) {\n"
+                     + "        return value instanceof Number ? ((Number) value).floatValue() : null;\n"
+                     + "    }\n";
+            case "asBoolean":
+                return "\n    private static Boolean asBoolean(Object value) {\n"
+                     + "        return value instanceof Boolean ? (Boolean) value : null;\n"
+                     + "    }\n";
+            default:
+                throw new IllegalArgumentException(converter);
+        }
+    }
+
+    private void error(Element element, String message) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
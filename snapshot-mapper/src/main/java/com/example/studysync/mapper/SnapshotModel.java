@@ -0,0 +1,28 @@
+package com.example.studysync.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * SnapshotModel
+ *
+ * Marks a model class read from the Realtime Database. The processor
+ * generates {@code <Model>Mapper} next to it: a SnapshotMapper that walks the
+ * snapshot's children once and calls the setters directly, instead of
+ * DataSnapshot.getValue(Class) introspecting the class on every row.
+ *
+ * Every non-static field is a property named after the field, unless it is
+ * transient, or its field, getter or setter carries Firebase's @Exclude.
+ * Firebase's @PropertyName on the field, getter or setter renames it. The
+ * value is assigned through the setter ({@code setX}, or {@code setX} for a
+ * boolean field {@code isX}) or, for public fields, directly.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface SnapshotModel {
+
+    /** Field that receives the snapshot's key, e.g. "id"; empty for none. */
+    String key() default "";
+}